@@ -0,0 +1,17 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.users.ActiveUserSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActiveUserSketchRepository extends JpaRepository<ActiveUserSketch, Long> {
+
+    Optional<ActiveUserSketch> findByActivityDateAndRole(LocalDate activityDate, String role);
+
+    List<ActiveUserSketch> findByActivityDateBetween(LocalDate startDate, LocalDate endDate);
+}
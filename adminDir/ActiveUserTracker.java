@@ -0,0 +1,170 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.models.users.ActiveUserSketch;
+import com.music.musicstore.repositories.ActiveUserSketchRepository;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import com.music.musicstore.utils.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate distinct active users per day and role using HyperLogLog sketches.
+ *
+ * Each authenticated request adds the username to today's sketch for its role
+ * (4 KB per role per day regardless of traffic). DAU/WAU/MAU are computed by
+ * merging daily sketches. Sketches are persisted periodically and on shutdown.
+ */
+@Service
+public class ActiveUserTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveUserTracker.class);
+
+    private final ActiveUserSketchRepository activeUserSketchRepository;
+
+    @Value("${app.users.activity.retention-days:35}")
+    private int retentionDays;
+
+    private final Map<LocalDate, Map<String, HyperLogLog>> sketches = new ConcurrentHashMap<>();
+    private final Set<DayRole> dirty = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ActiveUserTracker(ActiveUserSketchRepository activeUserSketchRepository) {
+        this.activeUserSketchRepository = activeUserSketchRepository;
+        logger.info("ActiveUserTracker initialized successfully");
+    }
+
+    @PostConstruct
+    public void loadRecentSketches() {
+        try {
+            LocalDate today = LocalDate.now();
+            for (ActiveUserSketch stored : activeUserSketchRepository.findByActivityDateBetween(
+                    today.minusDays(retentionDays - 1L), today)) {
+                sketches.computeIfAbsent(stored.getActivityDate(), d -> new ConcurrentHashMap<>())
+                    .merge(stored.getRole(), HyperLogLog.fromBytes(stored.getRegisters()), HyperLogLog::merge);
+            }
+            logger.info("Loaded active user sketches for {} days", sketches.size());
+        } catch (Exception e) {
+            logger.error("Failed to load active user sketches; counts restart from zero", e);
+        }
+    }
+
+    /**
+     * Record one authenticated request. Cheap enough to call on every request.
+     */
+    public void recordActivity(String username, String role) {
+        if (username == null || role == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        sketchFor(today, role).add(username);
+        dirty.add(new DayRole(today, role));
+    }
+
+    public long getDailyActiveUsers(LocalDate date) {
+        return mergedSketch(date, date, null).estimate();
+    }
+
+    /**
+     * Distinct active users over an inclusive date range, optionally for one role
+     */
+    public long getActiveUsers(LocalDate startDate, LocalDate endDate, String role) {
+        return mergedSketch(startDate, endDate, role).estimate();
+    }
+
+    public Map<String, Object> getActiveUserMetrics() {
+        LocalDate today = LocalDate.now();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("dau", getActiveUsers(today, today, null));
+        metrics.put("wau", getActiveUsers(today.minusDays(6), today, null));
+        metrics.put("mau", getActiveUsers(today.minusDays(29), today, null));
+
+        Map<String, Long> dauByRole = new LinkedHashMap<>();
+        for (String role : UserDirectoryRepository.ROLES) {
+            dauByRole.put(role, getActiveUsers(today, today, role));
+        }
+        metrics.put("dauByRole", dauByRole);
+        return metrics;
+    }
+
+    /**
+     * Write changed sketches to the database and drop days past the retention window
+     */
+    @Scheduled(initialDelayString = "${app.users.activity.persist-interval-ms:60000}",
+               fixedDelayString = "${app.users.activity.persist-interval-ms:60000}")
+    public void persist() {
+        for (DayRole key : Set.copyOf(dirty)) {
+            dirty.remove(key);
+            try {
+                HyperLogLog sketch = sketchFor(key.date(), key.role());
+                ActiveUserSketch stored = activeUserSketchRepository
+                    .findByActivityDateAndRole(key.date(), key.role())
+                    .orElseGet(() -> new ActiveUserSketch(key.date(), key.role(), null));
+                stored.setRegisters(sketch.toBytes());
+                stored.setUpdatedAt(LocalDateTime.now());
+                activeUserSketchRepository.save(stored);
+            } catch (Exception e) {
+                dirty.add(key);
+                logger.error("Failed to persist active user sketch for {} {}", key.date(), key.role(), e);
+            }
+        }
+
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays - 1L);
+        sketches.keySet().removeIf(date -> date.isBefore(oldest));
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        logger.info("Persisting active user sketches before shutdown");
+        persist();
+    }
+
+    private HyperLogLog sketchFor(LocalDate date, String role) {
+        return sketches.computeIfAbsent(date, d -> new ConcurrentHashMap<>())
+            .computeIfAbsent(role, r -> new HyperLogLog());
+    }
+
+    private HyperLogLog mergedSketch(LocalDate startDate, LocalDate endDate, String role) {
+        HyperLogLog merged = new HyperLogLog();
+        LocalDate oldestInMemory = LocalDate.now().minusDays(retentionDays - 1L);
+
+        if (startDate.isBefore(oldestInMemory)) {
+            // Older days are only in the database
+            LocalDate storedEnd = endDate.isBefore(oldestInMemory) ? endDate : oldestInMemory.minusDays(1);
+            for (ActiveUserSketch stored : activeUserSketchRepository.findByActivityDateBetween(startDate, storedEnd)) {
+                if (role == null || role.equals(stored.getRole())) {
+                    merged.merge(HyperLogLog.fromBytes(stored.getRegisters()));
+                }
+            }
+        }
+
+        for (LocalDate day = startDate.isBefore(oldestInMemory) ? oldestInMemory : startDate;
+             !day.isAfter(endDate); day = day.plusDays(1)) {
+            Map<String, HyperLogLog> byRole = sketches.get(day);
+            if (byRole == null) {
+                continue;
+            }
+            byRole.forEach((sketchRole, sketch) -> {
+                if (role == null || role.equals(sketchRole)) {
+                    merged.merge(sketch);
+                }
+            });
+        }
+        return merged;
+    }
+
+    private record DayRole(LocalDate date, String role) {
+    }
+}
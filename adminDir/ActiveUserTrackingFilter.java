@@ -0,0 +1,48 @@
+package com.music.musicstore.configs;
+
+import com.music.musicstore.services.ActiveUserTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Feeds the active-user sketches from requests that the JWT filter has authenticated.
+ * Registered inside the security chain right after JwtAuthenticationFilter, so it is
+ * deliberately not a @Component (that would also register it as a plain servlet filter).
+ */
+public class ActiveUserTrackingFilter extends OncePerRequestFilter {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final ActiveUserTracker activeUserTracker;
+
+    public ActiveUserTrackingFilter(ActiveUserTracker activeUserTracker) {
+        this.activeUserTracker = activeUserTracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            String role = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .findFirst()
+                .orElse(null);
+            activeUserTracker.recordActivity(authentication.getName(), role);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
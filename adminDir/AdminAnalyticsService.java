@@ -0,0 +1,313 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.exceptions.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds the admin analytics sections: overview, detailed analytics and performance metrics.
+ * Overview and detailed metrics are collected concurrently instead of one query after another.
+ *
+ * Every metric runs on a virtual thread of its own and has its own timeout. The queries
+ * themselves are limited by one semaphore sized below the connection pool, so concurrent
+ * dashboards queue for a permit instead of taking every connection from regular traffic.
+ * A metric that fails, times out or gets no permit in time is returned as null and named in
+ * the unavailableMetrics list of the result; the rest still return. A collection where no
+ * metric got a permit fails with ServiceUnavailableException.
+ */
+@Service
+public class AdminAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminAnalyticsService.class);
+
+    // Result key listing the metrics that failed or timed out; their values are null
+    public static final String UNAVAILABLE_METRICS = "unavailableMetrics";
+
+    private final UnifiedUserService unifiedUserService;
+    private final MusicService musicService;
+    private final OrderService orderService;
+    private final SalesFactService salesFactService;
+    private final BestSellerTracker bestSellerTracker;
+    private final TicketService ticketService;
+    private final ReviewService reviewService;
+    private final PasswordHashingService passwordHashingService;
+    private final AuditLogService auditLogService;
+    private final ExecutorService executor;
+    private final Semaphore queryPermits;
+    private final int maxConcurrentQueries;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder metricsCollected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Value("${app.admin.analytics.metric-timeout-ms:2000}")
+    private long metricTimeoutMs;
+
+    // Detailed analytics group and sort whole tables, so they get a longer budget
+    @Value("${app.admin.analytics.detailed-timeout-ms:10000}")
+    private long detailedTimeoutMs;
+
+    @Autowired
+    public AdminAnalyticsService(UnifiedUserService unifiedUserService,
+                                 MusicService musicService,
+                                 OrderService orderService,
+                                 SalesFactService salesFactService,
+                                 BestSellerTracker bestSellerTracker,
+                                 TicketService ticketService,
+                                 ReviewService reviewService,
+                                 PasswordHashingService passwordHashingService,
+                                 AuditLogService auditLogService,
+                                 @Value("${app.admin.analytics.max-concurrent-queries:0}") int maxConcurrentQueries,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        this.unifiedUserService = unifiedUserService;
+        this.musicService = musicService;
+        this.orderService = orderService;
+        this.salesFactService = salesFactService;
+        this.bestSellerTracker = bestSellerTracker;
+        this.ticketService = ticketService;
+        this.reviewService = reviewService;
+        this.passwordHashingService = passwordHashingService;
+        this.auditLogService = auditLogService;
+
+        // Unset means half the connection pool, leaving the other half for regular traffic
+        this.maxConcurrentQueries = maxConcurrentQueries > 0 ? maxConcurrentQueries : Math.max(1, connectionPoolSize / 2);
+        this.queryPermits = new Semaphore(this.maxConcurrentQueries);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("admin-analytics-", 0).factory());
+        logger.info("AdminAnalyticsService initialized with {} concurrent analytics queries (connection pool {})",
+            this.maxConcurrentQueries, connectionPoolSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getSystemOverview() {
+        Map<String, Callable<?>> metrics = new LinkedHashMap<>();
+        metrics.put("totalUsers", unifiedUserService::getTotalUsersCount);
+        metrics.put("totalMusic", musicService::getTotalMusicCount);
+        metrics.put("totalOrders", orderService::getTotalOrdersCount);
+        metrics.put("totalRevenue", salesFactService::getTotalRevenue);
+        metrics.put("openTickets", () -> ticketService.countTicketsByStatus("OPEN"));
+        metrics.put("inProgressTickets", () -> ticketService.countTicketsByStatus("IN_PROGRESS"));
+        metrics.put("urgentTickets", () -> ticketService.countTicketsByStatus("URGENT"));
+        metrics.put("totalReviews", reviewService::getTotalReviewsCount);
+        metrics.put("flaggedMusic", musicService::getFlaggedMusicCount);
+        metrics.put("averageRating", musicService::getAverageRatingAcrossAllMusic);
+        metrics.put("todayRegistrations", unifiedUserService::getTodayRegistrationsCount);
+        metrics.put("todayOrders", orderService::getTodayOrdersCount);
+        metrics.put("todayRevenue", salesFactService::getTodayRevenue);
+
+        Map<String, Object> overview = collect(metrics, metricTimeoutMs);
+
+        // activeTickets is only meaningful when all three counts are known
+        List<String> unavailable = unavailableMetrics(overview);
+        Object open = overview.remove("openTickets");
+        Object inProgress = overview.remove("inProgressTickets");
+        Object urgent = overview.remove("urgentTickets");
+        unavailable.removeAll(List.of("openTickets", "inProgressTickets", "urgentTickets"));
+        if (open instanceof Number o && inProgress instanceof Number i && urgent instanceof Number u) {
+            overview.put("activeTickets", o.longValue() + i.longValue() + u.longValue());
+        } else {
+            overview.put("activeTickets", null);
+            unavailable.add("activeTickets");
+        }
+        // Re-added so the list stays after the metrics, as collect returns it
+        overview.remove(UNAVAILABLE_METRICS);
+        overview.put(UNAVAILABLE_METRICS, unavailable);
+        return overview;
+    }
+
+    public Map<String, Object> getDetailedAnalytics(LocalDate startDate, LocalDate endDate) {
+        Map<String, Callable<?>> metrics = new LinkedHashMap<>();
+
+        // User analytics
+        metrics.put("userGrowth", () -> unifiedUserService.getUserGrowthAnalytics(startDate, endDate));
+        metrics.put("usersByRole", unifiedUserService::getUserCountByRole);
+        metrics.put("usersByStatus", unifiedUserService::getUserStatusCountsByRole);
+
+        // Sales analytics, read from the daily sales facts rather than orders
+        metrics.put("salesAnalytics", () -> salesFactService.getSalesSummary(startDate, endDate));
+        metrics.put("revenueByPeriod", () -> salesFactService.getRevenueByPeriod(startDate, endDate));
+        metrics.put("topSellingMusic", () -> musicService.getTopSellingMusic(10));
+        metrics.put("trendingToday", () -> musicService.getBestSellers(10, BestSellerTracker.Window.DAY, null, null));
+
+        // Music analytics
+        metrics.put("musicByGenre", musicService::getMusicCountByGenre);
+        metrics.put("musicByCategory", musicService::getMusicCountByCategory);
+        metrics.put("artistPerformance", musicService::getArtistPerformanceAnalytics);
+
+        // Review analytics
+        metrics.put("reviewAnalytics", () -> reviewService.getReviewAnalytics(startDate, endDate));
+        metrics.put("ratingDistribution", reviewService::getRatingDistribution);
+
+        // Ticket analytics
+        metrics.put("ticketAnalytics", ticketService::getStatusDistribution);
+        metrics.put("ticketResolutionTime", ticketService::getAverageResolutionTime);
+        return collect(metrics, detailedTimeoutMs);
+    }
+
+    /**
+     * JVM, connection and in-process component metrics; all in memory, so not fanned out
+     */
+    public Map<String, Object> getPerformanceMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+
+        // System performance metrics
+        Runtime runtime = Runtime.getRuntime();
+        metrics.put("memoryUsed", (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024)); // MB
+        metrics.put("memoryTotal", runtime.totalMemory() / (1024 * 1024)); // MB
+        metrics.put("memoryFree", runtime.freeMemory() / (1024 * 1024)); // MB
+        metrics.put("processors", runtime.availableProcessors());
+
+        // Database metrics
+        metrics.put("databaseConnections", "Not implemented"); // Would need connection pool metrics
+        metrics.put("activeUsers", unifiedUserService.getActiveUsersCount());
+        metrics.put("activeUserMetrics", unifiedUserService.getActiveUserMetrics());
+        metrics.put("passwordHashing", passwordHashingService.getMetrics());
+        metrics.put("userDetailsCache", unifiedUserService.getUserDetailsCacheStats());
+        metrics.put("auditWriter", auditLogService.getWriterStats());
+        metrics.put("bestSellerTracker", bestSellerTracker.getStats());
+        metrics.put("analyticsFanOut", getStats());
+        return metrics;
+    }
+
+    /**
+     * Run each metric on its own virtual thread and wait for all of them; each metric gets
+     * timeoutMs, including the time spent waiting for a query permit
+     */
+    public Map<String, Object> collect(Map<String, Callable<?>> metrics, long timeoutMs) {
+        Map<String, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        AtomicInteger admitted = new AtomicInteger();
+        for (Map.Entry<String, Callable<?>> metric : metrics.entrySet()) {
+            futures.put(metric.getKey(), submit(metric.getValue(), timeoutMs, admitted));
+        }
+        CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+            .exceptionally(e -> null)
+            .join();
+
+        // Not one metric got a query permit in time: the analytics are saturated, not degraded
+        if (!metrics.isEmpty() && admitted.get() == 0) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Analytics are busy, try again shortly");
+        }
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Object>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), result(entry.getKey(), entry.getValue(), unavailable));
+        }
+        if (!unavailable.isEmpty()) {
+            logger.warn("Admin analytics metrics unavailable: {}", unavailable);
+        }
+        results.put(UNAVAILABLE_METRICS, unavailable);
+        metricsCollected.add(metrics.size());
+        return results;
+    }
+
+    /**
+     * The names listed under unavailableMetrics in a collected result, as a mutable list; empty
+     * for maps that carry no list, such as the performance metrics
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> unavailableMetrics(Map<String, Object> results) {
+        Object names = results.get(UNAVAILABLE_METRICS);
+        return names instanceof List<?> list ? new ArrayList<>((List<String>) list) : new ArrayList<>();
+    }
+
+    // A timed-out metric interrupts its thread, so a query still running is cancelled once the driver notices
+    private CompletableFuture<Object> submit(Callable<?> metric, long timeoutMs, AtomicInteger admitted) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    if (!queryPermits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        future.completeExceptionally(new ServiceUnavailableException("No analytics query permit"));
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                admitted.incrementAndGet();
+                inFlight.incrementAndGet();
+                try {
+                    future.complete(metric.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                    queryPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Only possible during shutdown
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrentQueries", maxConcurrentQueries);
+        stats.put("freeQueryPermits", queryPermits.availablePermits());
+        stats.put("runningQueries", inFlight.get());
+        stats.put("metricTimeoutMs", metricTimeoutMs);
+        stats.put("detailedTimeoutMs", detailedTimeoutMs);
+        stats.put("metricsCollected", metricsCollected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private Object result(String name, CompletableFuture<Object> future, List<String> unavailable) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            unavailable.add(name);
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                timedOut.increment();
+            } else if (cause instanceof ServiceUnavailableException || cause instanceof RejectedExecutionException) {
+                rejected.increment();
+            } else {
+                failed.increment();
+                logger.error("Admin analytics metric {} failed", name, cause);
+            }
+            return null;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.music.musicstore.api;
 
+import com.music.musicstore.dto.ArtistPatchDto;
+import com.music.musicstore.dto.AuditLogFilter;
+import com.music.musicstore.dto.BulkUserJobStatus;
+import com.music.musicstore.dto.ReportJobStatus;
 import com.music.musicstore.dto.UnifiedRegisterRequest;
 import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.dto.UserImportJobStatus;
 import com.music.musicstore.services.UnifiedUserService;
 import com.music.musicstore.services.MusicService;
 import com.music.musicstore.services.OrderService;
@@ -9,25 +14,47 @@ import com.music.musicstore.services.TicketService;
 import com.music.musicstore.services.StaffService;
 import com.music.musicstore.services.ReviewService;
 import com.music.musicstore.services.AuditLogService;
+import com.music.musicstore.services.AdminAnalyticsService;
+import com.music.musicstore.services.DashboardSnapshotService;
+import com.music.musicstore.services.ReportService;
+import com.music.musicstore.services.SalesFactService;
+import com.music.musicstore.services.RegistrationRollupService;
+import com.music.musicstore.services.BestSellerTracker;
+import com.music.musicstore.services.UserExportService;
+import com.music.musicstore.services.BulkUserOperationService.BulkStatusSpec;
+import com.music.musicstore.exceptions.ServiceUnavailableException;
+import com.music.musicstore.models.AuditLog;
 import com.music.musicstore.models.users.Staff;
+import com.music.musicstore.models.users.UserDeletionJob;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.HashMap;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -37,6 +64,9 @@ public class AdminApiController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdminApiController.class);
 
+    // Long enough for a large report; clients reconnect and get the current state if it expires
+    private static final long REPORT_EVENTS_TIMEOUT_MS = 10 * 60 * 1000L;
+
     @Autowired
     private UnifiedUserService unifiedUserService;
 
@@ -58,6 +88,27 @@ public class AdminApiController {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private AdminAnalyticsService adminAnalyticsService;
+
+    @Autowired
+    private DashboardSnapshotService dashboardSnapshotService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private SalesFactService salesFactService;
+
+    @Autowired
+    private RegistrationRollupService registrationRollupService;
+
+    @Autowired
+    private BestSellerTracker bestSellerTracker;
+
+    @Autowired
+    private UserExportService userExportService;
+
     @Autowired
     private ConfigurableApplicationContext applicationContext;
 
@@ -91,6 +142,9 @@ public class AdminApiController {
 
             logger.info("Admin {} successfully created user: {}", currentUser.getUsername(), request.getUsername());
             return ResponseEntity.ok(userDto);
+        } catch (ServiceUnavailableException e) {
+            logger.warn("Admin {} could not create user: {} - password hashing saturated", currentUser.getUsername(), request.getUsername());
+            return serviceUnavailable(e);
         } catch (Exception e) {
             // Log failed user creation
             auditLogService.logFailedAdminAction(
@@ -108,6 +162,62 @@ public class AdminApiController {
         }
     }
 
+    @PostMapping(value = "/users/import", consumes = {"text/csv", "application/x-ndjson", "application/octet-stream", "text/plain"})
+    public ResponseEntity<?> importUsers(@RequestParam(required = false) String format,
+                                        @AuthenticationPrincipal UserDetails currentUser,
+                                        HttpServletRequest httpRequest) {
+        // Without an explicit format, NDJSON is recognised from the content type and CSV is the default
+        String importFormat = format != null ? format
+            : (httpRequest.getContentType() != null && httpRequest.getContentType().contains("ndjson") ? "ndjson" : "csv");
+        logger.info("Admin {} starting bulk user import ({})", currentUser.getUsername(), importFormat);
+        try {
+            // The body is streamed to disk and imported in the background; the job audits its outcome
+            UserImportJobStatus job = unifiedUserService.startUserImport(httpRequest.getInputStream(), importFormat,
+                currentUser.getUsername());
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "START_IMPORT_USERS",
+                "USER",
+                null,
+                String.format("Started import job %s (%s)", job.getJobId(), importFormat),
+                httpRequest
+            );
+
+            return ResponseEntity.accepted().body(job);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            auditLogService.logFailedAdminAction(
+                currentUser.getUsername(),
+                "START_IMPORT_USERS",
+                "USER",
+                null,
+                e.getMessage(),
+                httpRequest
+            );
+
+            logger.error("Admin {} failed to import users - Error: {}", currentUser.getUsername(), e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to import users: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/users/import")
+    public ResponseEntity<?> getImportJobs() {
+        return ResponseEntity.ok(unifiedUserService.getImportJobs());
+    }
+
+    @GetMapping("/users/import/{jobId}")
+    public ResponseEntity<?> getImportJobStatus(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(unifiedUserService.getImportJobStatus(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to fetch import job: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
@@ -136,6 +246,79 @@ public class AdminApiController {
         }
     }
 
+    @GetMapping("/users/export")
+    public ResponseEntity<?> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String role,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        logger.info("Admin {} exporting users - format: {}, role: {}, gzip: {}", currentUser.getUsername(), format, role, gzip);
+        try {
+            // Validated before streaming starts; a bad parameter must fail the request, not truncate the download
+            String exportFormat = UserExportService.normalizeFormat(format);
+            String exportRole = UserExportService.normalizeRole(role);
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "EXPORT_USERS",
+                "USER",
+                null,
+                String.format("Exported users - format: %s, role filter: %s, gzip: %s", exportFormat, exportRole, gzip),
+                httpRequest
+            );
+
+            // Rows are written to the response as they are read from the database cursor
+            StreamingResponseBody body = output -> userExportService.export(output, exportFormat, exportRole, gzip);
+
+            String filename = "users-" + LocalDate.now() + "." + exportFormat + (gzip ? ".gz" : "");
+            MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : exportFormat.equals("csv") ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(contentType)
+                .body(body);
+        } catch (Exception e) {
+            auditLogService.logFailedAdminAction(
+                currentUser.getUsername(),
+                "EXPORT_USERS",
+                "USER",
+                null,
+                e.getMessage(),
+                httpRequest
+            );
+
+            logger.error("Admin {} failed to export users - Error: {}", currentUser.getUsername(), e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to export users: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/users/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        try {
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "VIEW_USER_SEARCH",
+                "USER",
+                null,
+                String.format("Searched users - query: %s, page: %d, size: %d", query, page, size),
+                httpRequest
+            );
+
+            return ResponseEntity.ok(unifiedUserService.searchUsers(query, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to search users: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/users/{userId}")
     public ResponseEntity<?> getUserById(@PathVariable Long userId,
                                        @AuthenticationPrincipal UserDetails currentUser,
@@ -176,6 +359,11 @@ public class AdminApiController {
             );
 
             return ResponseEntity.ok(updatedUser);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(e.getMessage()));
         } catch (Exception e) {
             auditLogService.logFailedAdminAction(
                 currentUser.getUsername(),
@@ -193,21 +381,28 @@ public class AdminApiController {
 
     @DeleteMapping("/users/{userId}")
     public ResponseEntity<?> deleteUser(@PathVariable Long userId,
+                                      @RequestParam(required = false) String role,
                                       @AuthenticationPrincipal UserDetails currentUser,
                                       HttpServletRequest httpRequest) {
         try {
-            unifiedUserService.deleteUser(userId);
+            // Ids are only unique per role table, so callers should pass the role when they know it
+            Optional<UserDeletionJob> deletionJob = role != null
+                ? unifiedUserService.deleteUser(userId, role)
+                : unifiedUserService.deleteUser(userId);
 
             auditLogService.logAdminAction(
                 currentUser.getUsername(),
                 "DELETE_USER",
                 "USER",
                 userId,
-                "Deleted user account",
+                deletionJob.map(job -> String.format("Tombstoned user account, deletion job %d queued", job.getId()))
+                    .orElse("Deleted user account"),
                 httpRequest
             );
 
-            return ResponseEntity.ok().build();
+            // Customers and artists finish deleting in the background
+            return deletionJob.<ResponseEntity<?>>map(job -> ResponseEntity.accepted().body(job))
+                .orElseGet(() -> ResponseEntity.ok().build());
         } catch (Exception e) {
             auditLogService.logFailedAdminAction(
                 currentUser.getUsername(),
@@ -257,6 +452,102 @@ public class AdminApiController {
         }
     }
 
+    @PostMapping("/users/bulk/status")
+    public ResponseEntity<?> startBulkStatusChange(
+            @RequestBody BulkUserStatusRequest request,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        logger.info("Admin {} starting bulk status change to {}", currentUser.getUsername(), request.isEnabled());
+        try {
+            BulkUserJobStatus job = unifiedUserService.startBulkStatusChange(
+                new BulkStatusSpec(request.getRole(), request.getUserIds(), request.getCurrentlyEnabled(),
+                    request.getCreatedFrom(), request.getCreatedTo(), request.isEnabled()),
+                currentUser.getUsername());
+
+            // Individual changes are audited per chunk by the job itself
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "START_BULK_USER_STATUS_CHANGE",
+                "USER",
+                null,
+                String.format("Started bulk job %s to %s users - role: %s, ids: %s, currentlyEnabled: %s, created: %s..%s",
+                    job.getJobId(), request.isEnabled() ? "enable" : "disable", request.getRole(),
+                    request.getUserIds() != null ? request.getUserIds().size() : "filter",
+                    request.getCurrentlyEnabled(), request.getCreatedFrom(), request.getCreatedTo()),
+                httpRequest
+            );
+
+            return ResponseEntity.accepted().body(job);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            auditLogService.logFailedAdminAction(
+                currentUser.getUsername(),
+                "START_BULK_USER_STATUS_CHANGE",
+                "USER",
+                null,
+                e.getMessage(),
+                httpRequest
+            );
+
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to start bulk status change: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/users/bulk")
+    public ResponseEntity<?> getBulkJobs() {
+        return ResponseEntity.ok(unifiedUserService.getBulkJobs());
+    }
+
+    @GetMapping("/users/bulk/{jobId}")
+    public ResponseEntity<?> getBulkJobStatus(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(unifiedUserService.getBulkJobStatus(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to fetch bulk job: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/users/bulk/{jobId}")
+    public ResponseEntity<?> cancelBulkJob(@PathVariable String jobId,
+                                           @AuthenticationPrincipal UserDetails currentUser,
+                                           HttpServletRequest httpRequest) {
+        try {
+            BulkUserJobStatus job = unifiedUserService.cancelBulkJob(jobId);
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "CANCEL_BULK_USER_STATUS_CHANGE",
+                "USER",
+                null,
+                String.format("Cancelled bulk job %s", jobId),
+                httpRequest
+            );
+
+            return ResponseEntity.ok(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to cancel bulk job: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/users/deletions")
+    public ResponseEntity<?> getDeletionJobs() {
+        return ResponseEntity.ok(unifiedUserService.getDeletionJobs());
+    }
+
+    @GetMapping("/users/deletions/{jobId}")
+    public ResponseEntity<?> getDeletionJob(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(unifiedUserService.getDeletionJob(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to fetch deletion job: " + e.getMessage()));
+        }
+    }
+
     // Music Management
     @GetMapping("/music")
     public ResponseEntity<?> getAllMusic(
@@ -574,7 +865,8 @@ public class AdminApiController {
 
     // ENHANCED: Analytics and Reports
     @GetMapping("/analytics/overview")
-    public ResponseEntity<?> getSystemOverview(@AuthenticationPrincipal UserDetails currentUser,
+    public ResponseEntity<?> getSystemOverview(@RequestParam(defaultValue = "false") boolean refresh,
+                                             @AuthenticationPrincipal UserDetails currentUser,
                                              HttpServletRequest httpRequest) {
         logger.info("Admin {} requesting system overview", currentUser.getUsername());
         try {
@@ -587,23 +879,13 @@ public class AdminApiController {
                 httpRequest
             );
 
-            Map<String, Object> overview = new HashMap<>();
-            overview.put("totalUsers", unifiedUserService.getTotalUsersCount());
-            overview.put("totalMusic", musicService.getTotalMusicCount());
-            overview.put("totalOrders", orderService.getTotalOrdersCount());
-            overview.put("totalRevenue", orderService.getTotalRevenue());
-            overview.put("activeTickets", ticketService.countTicketsByStatus("OPEN") +
-                                        ticketService.countTicketsByStatus("IN_PROGRESS") +
-                                        ticketService.countTicketsByStatus("URGENT"));
-            overview.put("totalReviews", reviewService.getTotalReviewsCount());
-            overview.put("flaggedMusic", musicService.getFlaggedMusicCount());
-            overview.put("averageRating", musicService.getAverageRatingAcrossAllMusic());
-            overview.put("todayRegistrations", unifiedUserService.getTodayRegistrationsCount());
-            overview.put("todayOrders", orderService.getTodayOrdersCount());
-            overview.put("todayRevenue", orderService.getTodayRevenue());
+            // Served from the precomputed snapshot; its age is in the "snapshot" entry
+            Map<String, Object> overview = dashboardSnapshotService.get(DashboardSnapshotService.OVERVIEW, refresh);
 
             logger.info("Admin {} successfully retrieved system overview", currentUser.getUsername());
             return ResponseEntity.ok(overview);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Admin {} failed to retrieve system overview - Error: {}", currentUser.getUsername(), e.getMessage());
             return ResponseEntity.badRequest()
@@ -615,6 +897,7 @@ public class AdminApiController {
     public ResponseEntity<?> getDetailedAnalytics(
             @RequestParam(required = false) LocalDate startDate,
             @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean refresh,
             @AuthenticationPrincipal UserDetails currentUser,
             HttpServletRequest httpRequest) {
         logger.info("Admin {} requesting detailed analytics - startDate: {}, endDate: {}",
@@ -629,32 +912,15 @@ public class AdminApiController {
                 httpRequest
             );
 
-            Map<String, Object> analytics = new HashMap<>();
-
-            // User analytics
-            analytics.put("userGrowth", unifiedUserService.getUserGrowthAnalytics(startDate, endDate));
-            analytics.put("usersByRole", unifiedUserService.getUserCountByRole());
-
-            // Sales analytics
-            analytics.put("salesAnalytics", orderService.getSalesAnalytics(startDate, endDate));
-            analytics.put("revenueByPeriod", orderService.getRevenueByPeriod(startDate, endDate));
-            analytics.put("topSellingMusic", musicService.getTopSellingMusic(10));
-
-            // Music analytics
-            analytics.put("musicByGenre", musicService.getMusicCountByGenre());
-            analytics.put("musicByCategory", musicService.getMusicCountByCategory());
-            analytics.put("artistPerformance", musicService.getArtistPerformanceAnalytics());
-
-            // Review analytics
-            analytics.put("reviewAnalytics", reviewService.getReviewAnalytics(startDate, endDate));
-            analytics.put("ratingDistribution", reviewService.getRatingDistribution());
-
-            // Ticket analytics
-            analytics.put("ticketAnalytics", ticketService.getStatusDistribution());
-            analytics.put("ticketResolutionTime", ticketService.getAverageResolutionTime());
+            // Only the default range is precomputed; custom ranges are queried on demand
+            Map<String, Object> analytics = startDate == null && endDate == null
+                ? dashboardSnapshotService.get(DashboardSnapshotService.DETAILED, refresh)
+                : adminAnalyticsService.getDetailedAnalytics(startDate, endDate);
 
             logger.info("Admin {} successfully retrieved detailed analytics", currentUser.getUsername());
             return ResponseEntity.ok(analytics);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Admin {} failed to retrieve detailed analytics - Error: {}", currentUser.getUsername(), e.getMessage());
             return ResponseEntity.badRequest()
@@ -662,6 +928,49 @@ public class AdminApiController {
         }
     }
 
+    @GetMapping("/analytics/best-sellers")
+    public ResponseEntity<?> getBestSellers(
+            @RequestParam(defaultValue = "WEEK") String window,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String artist,
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        logger.info("Admin {} requesting best sellers - window: {}, genre: {}, artist: {}",
+                    currentUser.getUsername(), window, genre, artist);
+        try {
+            BestSellerTracker.Window trackerWindow = BestSellerTracker.Window.valueOf(window.toUpperCase());
+            List<Map<String, Object>> bestSellers = musicService.getBestSellers(limit, trackerWindow, genre, artist);
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "VIEW_BEST_SELLERS",
+                "ANALYTICS",
+                null,
+                String.format("Viewed best sellers - window: %s, genre: %s, artist: %s", trackerWindow, genre, artist),
+                httpRequest
+            );
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("window", trackerWindow);
+            response.put("fromTracker", bestSellerTracker.isWarm(trackerWindow));
+            response.put("bestSellers", bestSellers);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            auditLogService.logFailedAdminAction(
+                currentUser.getUsername(),
+                "VIEW_BEST_SELLERS",
+                "ANALYTICS",
+                null,
+                e.getMessage(),
+                httpRequest
+            );
+
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to fetch best sellers: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/analytics/performance")
     public ResponseEntity<?> getPerformanceMetrics(@AuthenticationPrincipal UserDetails currentUser,
                                                   HttpServletRequest httpRequest) {
@@ -676,19 +985,7 @@ public class AdminApiController {
                 httpRequest
             );
 
-            Map<String, Object> metrics = new HashMap<>();
-
-            // System performance metrics
-            Runtime runtime = Runtime.getRuntime();
-            metrics.put("memoryUsed", (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024)); // MB
-            metrics.put("memoryTotal", runtime.totalMemory() / (1024 * 1024)); // MB
-            metrics.put("memoryFree", runtime.freeMemory() / (1024 * 1024)); // MB
-            metrics.put("processors", runtime.availableProcessors());
-
-            // Database metrics
-            metrics.put("databaseConnections", "Not implemented"); // Would need connection pool metrics
-            metrics.put("activeUsers", unifiedUserService.getActiveUsersCount());
-            metrics.put("systemUptime", getSystemUptime());
+            Map<String, Object> metrics = buildPerformanceMetrics();
 
             logger.info("Admin {} successfully retrieved performance metrics", currentUser.getUsername());
             return ResponseEntity.ok(metrics);
@@ -699,7 +996,7 @@ public class AdminApiController {
         }
     }
 
-    @GetMapping("/reports/comprehensive")
+    @RequestMapping(value = "/reports/comprehensive", method = {RequestMethod.GET, RequestMethod.POST})
     public ResponseEntity<?> generateComprehensiveReport(
             @RequestParam(required = false) LocalDate startDate,
             @RequestParam(required = false) LocalDate endDate,
@@ -707,24 +1004,22 @@ public class AdminApiController {
             @AuthenticationPrincipal UserDetails currentUser,
             HttpServletRequest httpRequest) {
         try {
+            // Generated in the background; poll /reports/jobs/{jobId} or watch its events, then download
+            ReportJobStatus job = reportService.submit(format, startDate, endDate, currentUser.getUsername());
+
             auditLogService.logAdminAction(
                 currentUser.getUsername(),
                 "GENERATE_COMPREHENSIVE_REPORT",
                 "REPORT",
                 null,
-                String.format("Generated comprehensive report - format: %s, period: %s to %s", format, startDate, endDate),
+                String.format("Requested comprehensive report %s - format: %s, period: %s to %s, cached: %s",
+                             job.getJobId(), format, startDate, endDate, job.isCached()),
                 httpRequest
             );
 
-            Map<String, Object> report = new HashMap<>();
-            report.put("generated_at", LocalDateTime.now());
-            report.put("period", Map.of("start", startDate, "end", endDate));
-            report.put("format", format);
-            report.put("overview", getSystemOverview(currentUser, httpRequest).getBody());
-            report.put("detailed_analytics", getDetailedAnalytics(startDate, endDate, currentUser, httpRequest).getBody());
-            report.put("performance_metrics", getPerformanceMetrics(currentUser, httpRequest).getBody());
-
-            return ResponseEntity.ok(report);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             auditLogService.logFailedAdminAction(
                 currentUser.getUsername(),
@@ -740,6 +1035,76 @@ public class AdminApiController {
         }
     }
 
+    @GetMapping("/reports/jobs")
+    public ResponseEntity<?> getReportJobs() {
+        return ResponseEntity.ok(reportService.getJobs());
+    }
+
+    @GetMapping("/reports/jobs/{jobId}")
+    public ResponseEntity<?> getReportJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(reportService.getStatus(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to fetch report job: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/reports/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchReportJob(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(REPORT_EVENTS_TIMEOUT_MS);
+        Consumer<ReportJobStatus> listener = status -> {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(status));
+                if (status.isFinished()) {
+                    emitter.complete();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        // A client that goes away or times out stops receiving updates instead of lingering until the job ends
+        emitter.onCompletion(() -> reportService.unwatch(jobId, listener));
+        emitter.onTimeout(() -> reportService.unwatch(jobId, listener));
+        emitter.onError(error -> reportService.unwatch(jobId, listener));
+        reportService.watch(jobId, listener);
+        return emitter;
+    }
+
+    @GetMapping("/reports/jobs/{jobId}/download")
+    public ResponseEntity<?> downloadReport(@PathVariable String jobId,
+                                            @AuthenticationPrincipal UserDetails currentUser,
+                                            HttpServletRequest httpRequest) {
+        try {
+            ReportService.ReportFile report = reportService.getReportFile(jobId);
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "DOWNLOAD_REPORT",
+                "REPORT",
+                null,
+                String.format("Downloaded report %s (%s)", jobId, report.filename()),
+                httpRequest
+            );
+
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + report.filename() + "\"")
+                .contentType(MediaType.parseMediaType(report.contentType()))
+                .contentLength(report.sizeBytes())
+                .body(new FileSystemResource(report.path()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to download report: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> buildPerformanceMetrics() {
+        Map<String, Object> metrics = adminAnalyticsService.getPerformanceMetrics();
+        metrics.put("reports", reportService.getStats());
+        metrics.put("systemUptime", getSystemUptime());
+        return metrics;
+    }
+
     // System Settings
     @PostMapping("/settings/backup")
     public ResponseEntity<?> createSystemBackup(@AuthenticationPrincipal UserDetails currentUser,
@@ -841,6 +1206,7 @@ public class AdminApiController {
             status.put("uptime", getSystemUptime());
             status.put("timestamp", LocalDateTime.now());
             status.put("version", "1.0.0");
+            status.put("dashboards", dashboardSnapshotService.getStats());
             return ResponseEntity.ok(status);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -1085,11 +1451,17 @@ public class AdminApiController {
     // NEW: Add audit log viewing endpoints for admins
     @GetMapping("/audit-logs")
     public ResponseEntity<?> getAuditLogs(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String adminUsername,
             @RequestParam(required = false) String action,
             @RequestParam(required = false) String resourceType,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) Boolean success,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
             @AuthenticationPrincipal UserDetails currentUser,
             HttpServletRequest httpRequest) {
         try {
@@ -1098,26 +1470,206 @@ public class AdminApiController {
                 "VIEW_AUDIT_LOGS",
                 "AUDIT",
                 null,
-                String.format("Viewed audit logs - page: %d, filters: admin=%s, action=%s, resource=%s",
-                             page, adminUsername, action, resourceType),
+                String.format("Viewed audit logs - page: %s, cursor: %s, filters: admin=%s, action=%s, resource=%s, severity=%s, success=%s, %s..%s",
+                             page, cursor, adminUsername, action, resourceType, severity, success, from, to),
                 httpRequest
             );
 
-            // Implement filtering logic based on parameters
-            org.springframework.data.domain.Pageable pageable =
-                org.springframework.data.domain.PageRequest.of(page, size);
-
-            if (adminUsername != null) {
-                return ResponseEntity.ok(auditLogService.getAuditLogsByAdmin(adminUsername, pageable));
-            } else {
+            if (page != null && cursor == null) {
+                // Existing clients still page by number and expect the Page response they always got
+                org.springframework.data.domain.Pageable pageable =
+                    org.springframework.data.domain.PageRequest.of(page, size);
+                if (adminUsername != null) {
+                    return ResponseEntity.ok(auditLogService.getAuditLogsByAdmin(adminUsername, pageable));
+                }
                 return ResponseEntity.ok(auditLogService.getAuditLogs(pageable));
             }
+
+            AuditLogFilter filter = new AuditLogFilter();
+            filter.setAdminUsername(adminUsername);
+            filter.setAction(action);
+            filter.setResourceType(resourceType);
+            filter.setSeverity(severity != null ? AuditLog.AuditSeverity.valueOf(severity.toUpperCase()) : null);
+            filter.setSuccess(success);
+            filter.setFrom(from);
+            filter.setTo(to);
+            filter.setIncludeArchived(includeArchived);
+
+            // Keyset paging: follow nextCursor from the previous response instead of a page number
+            return ResponseEntity.ok(auditLogService.findAuditLogs(filter, cursor, size));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(new ErrorResponse("Failed to fetch audit logs: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/audit-logs/archive")
+    public ResponseEntity<?> getArchivedAuditLogs(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String adminUsername,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        try {
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "VIEW_ARCHIVED_AUDIT_LOGS",
+                "AUDIT",
+                null,
+                String.format("Viewed archived audit logs - %s to %s, page: %d, admin=%s",
+                             startDate, endDate, page, adminUsername),
+                httpRequest
+            );
+
+            // Reads archive files, so this is much slower than /audit-logs
+            return ResponseEntity.ok(auditLogService.getArchivedAuditLogs(startDate, endDate, adminUsername,
+                org.springframework.data.domain.PageRequest.of(page, size)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to fetch archived audit logs: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/audit-logs/archives")
+    public ResponseEntity<?> getAuditLogArchives() {
+        return ResponseEntity.ok(auditLogService.getAuditLogArchives());
+    }
+
+    @GetMapping("/audit-logs/summary")
+    public ResponseEntity<?> getAuditLogSummary(
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to,
+            @RequestParam(required = false) String adminUsername,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        try {
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "VIEW_AUDIT_SUMMARY",
+                "AUDIT",
+                null,
+                "Viewed audit summary - " + start + " to " + end + (adminUsername != null ? ", admin=" + adminUsername : ""),
+                httpRequest
+            );
+
+            return ResponseEntity.ok(auditLogService.getActionSummary(start, end, adminUsername));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to fetch audit summary: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/security/failed-actions")
+    public ResponseEntity<?> getFailedActionState() {
+        return ResponseEntity.ok(auditLogService.getFailedActionState());
+    }
+
+    @PostMapping("/audit-logs/rollups/rebuild")
+    public ResponseEntity<?> rebuildAuditRollups(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        try {
+            Map<String, Object> result = auditLogService.rebuildRollups(from, to);
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "REBUILD_AUDIT_ROLLUPS",
+                "AUDIT",
+                null,
+                "Rebuilt audit rollups - " + result.get("from") + " to " + result.get("to"),
+                httpRequest
+            );
+
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            auditLogService.logFailedAdminAction(
+                currentUser.getUsername(),
+                "REBUILD_AUDIT_ROLLUPS",
+                "AUDIT",
+                null,
+                e.getMessage(),
+                httpRequest
+            );
+
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to rebuild audit rollups: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/sales/facts/rebuild")
+    public ResponseEntity<?> rebuildSalesFacts(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        try {
+            Map<String, Object> result = salesFactService.rebuild(from, to);
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "REBUILD_SALES_FACTS",
+                "ORDER",
+                null,
+                "Rebuilt daily sales facts - " + result.get("from") + " to " + result.get("to"),
+                httpRequest
+            );
+
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            auditLogService.logFailedAdminAction(
+                currentUser.getUsername(),
+                "REBUILD_SALES_FACTS",
+                "ORDER",
+                null,
+                e.getMessage(),
+                httpRequest
+            );
+
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to rebuild sales facts: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/users/registrations/rebuild")
+    public ResponseEntity<?> rebuildRegistrationRollups(
+            @RequestParam LocalDateTime from,
+            @RequestParam LocalDateTime to,
+            @AuthenticationPrincipal UserDetails currentUser,
+            HttpServletRequest httpRequest) {
+        try {
+            Map<String, Object> result = registrationRollupService.rebuild(from, to);
+
+            auditLogService.logAdminAction(
+                currentUser.getUsername(),
+                "REBUILD_REGISTRATION_ROLLUPS",
+                "USER",
+                null,
+                "Rebuilt registration rollups - " + result.get("from") + " to " + result.get("to"),
+                httpRequest
+            );
+
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            auditLogService.logFailedAdminAction(
+                currentUser.getUsername(),
+                "REBUILD_REGISTRATION_ROLLUPS",
+                "USER",
+                null,
+                e.getMessage(),
+                httpRequest
+            );
+
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Failed to rebuild registration rollups: " + e.getMessage()));
+        }
+    }
+
     // Helper methods
     private String getSystemUptime() {
         long uptimeMillis = System.currentTimeMillis() - getSystemStartTime();
@@ -1136,6 +1688,12 @@ public class AdminApiController {
         return System.currentTimeMillis() - (Runtime.getRuntime().totalMemory() / 1024);
     }
 
+    private ResponseEntity<ErrorResponse> serviceUnavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(new ErrorResponse(e.getMessage()));
+    }
+
     // Inner classes for request/response DTOs
     public static class ErrorResponse {
         private String message;
@@ -1169,19 +1727,8 @@ public class AdminApiController {
         public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
     }
 
-    public static class UserUpdateRequest {
-        private String email;
-        private String firstName;
-        private String lastName;
-        // Add other fields as needed
-
-        // getters and setters
-        public String getEmail() { return email; }
-        public void setEmail(String email) { this.email = email; }
-        public String getFirstName() { return firstName; }
-        public void setFirstName(String firstName) { this.firstName = firstName; }
-        public String getLastName() { return lastName; }
-        public void setLastName(String lastName) { this.lastName = lastName; }
+    // Partial update: only fields present in the JSON body are written (see UserPatchDto)
+    public static class UserUpdateRequest extends ArtistPatchDto {
     }
 
     public static class UserStatusUpdateRequest {
@@ -1191,6 +1738,29 @@ public class AdminApiController {
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
     }
 
+    public static class BulkUserStatusRequest {
+        private boolean enabled;
+        private String role;
+        private List<Long> userIds;
+        // Filter used when userIds is not given
+        private Boolean currentlyEnabled;
+        private LocalDateTime createdFrom;
+        private LocalDateTime createdTo;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+        public List<Long> getUserIds() { return userIds; }
+        public void setUserIds(List<Long> userIds) { this.userIds = userIds; }
+        public Boolean getCurrentlyEnabled() { return currentlyEnabled; }
+        public void setCurrentlyEnabled(Boolean currentlyEnabled) { this.currentlyEnabled = currentlyEnabled; }
+        public LocalDateTime getCreatedFrom() { return createdFrom; }
+        public void setCreatedFrom(LocalDateTime createdFrom) { this.createdFrom = createdFrom; }
+        public LocalDateTime getCreatedTo() { return createdTo; }
+        public void setCreatedTo(LocalDateTime createdTo) { this.createdTo = createdTo; }
+    }
+
     public static class MusicStatusUpdateRequest {
         private String status;
 
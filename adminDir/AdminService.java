@@ -8,8 +8,9 @@ import com.music.musicstore.exceptions.BusinessRuleException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,13 +21,23 @@ import java.util.Optional;
 public class AdminService {
     private static final Logger logger = LoggerFactory.getLogger(AdminService.class);
 
+    private static final String ROLE = "ADMIN";
+
     private final AdminRepository adminRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserDetailsCache userDetailsCache;
+    private final UserIdentityService userIdentityService;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public AdminService(AdminRepository adminRepository, PasswordEncoder passwordEncoder) {
+    public AdminService(AdminRepository adminRepository, PasswordHashingService passwordHashingService,
+                        UserDetailsCache userDetailsCache, UserIdentityService userIdentityService,
+                        PlatformTransactionManager transactionManager) {
         this.adminRepository = adminRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.userDetailsCache = userDetailsCache;
+        this.userIdentityService = userIdentityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         logger.info("AdminService initialized successfully");
     }
 
@@ -38,16 +49,17 @@ public class AdminService {
             throw new ValidationException("Username cannot be null or empty");
         }
 
-        Optional<Admin> adminOpt = adminRepository.findByUsername(username);
-        if (adminOpt.isEmpty()) {
-            // Don't log this as error since CombinedUserDetailsService expects this to fail for non-admin users
-            logger.debug("Admin not found with username: {}", username);
-            throw new UsernameNotFoundException("Admin not found with username: " + username);
-        }
+        return userDetailsCache.get(username, ROLE, () -> {
+            Optional<Admin> adminOpt = adminRepository.findByUsername(username);
+            if (adminOpt.isEmpty()) {
+                // Don't log this as error since CombinedUserDetailsService expects this to fail for non-admin users
+                logger.debug("Admin not found with username: {}", username);
+                throw new UsernameNotFoundException("Admin not found with username: " + username);
+            }
 
-        Admin admin = adminOpt.get();
-        logger.info("Successfully loaded admin: {}", username);
-        return admin;
+            logger.debug("Successfully loaded admin: {}", username);
+            return adminOpt.get();
+        });
     }
 
     public Admin createAdmin(Admin admin) {
@@ -86,7 +98,7 @@ public class AdminService {
             }
 
             // Encode password
-            admin.setPassword(passwordEncoder.encode(admin.getPassword()));
+            admin.setPassword(passwordHashingService.encode(admin.getPassword()));
             Admin savedAdmin = adminRepository.save(admin);
 
             logger.info("Successfully created admin: {} (ID: {})", savedAdmin.getUsername(), savedAdmin.getId());
@@ -165,7 +177,17 @@ public class AdminService {
         }
 
         try {
-            Admin savedAdmin = adminRepository.save(admin);
+            boolean existing = admin.getId() != null;
+            // Row and version commit together, so a failed bump cannot leave a write that
+            // stale patches would still accept
+            Admin savedAdmin = transactionTemplate.execute(status -> {
+                Admin saved = adminRepository.save(admin);
+                if (existing) {
+                    userIdentityService.bumpVersion(ROLE, saved.getId(), null);
+                }
+                return saved;
+            });
+            userDetailsCache.invalidate(savedAdmin.getUsername(), ROLE);
             logger.info("Successfully saved admin: {}", savedAdmin.getUsername());
             return savedAdmin;
         } catch (Exception e) {
@@ -191,6 +213,7 @@ public class AdminService {
             }
 
             adminRepository.deleteById(id);
+            userDetailsCache.invalidate(admin.get().getUsername(), ROLE);
             logger.info("Successfully deleted admin with ID: {}", id);
         } catch (Exception e) {
             logger.error("Error deleting admin with ID: {}", id, e);
@@ -254,10 +277,19 @@ public class AdminService {
                     });
 
             if (admin.getPassword() != null && !admin.getPassword().isEmpty()) {
-                admin.setPassword(passwordEncoder.encode(admin.getPassword()));
+                admin.setPassword(passwordHashingService.encode(admin.getPassword()));
             }
 
-            Admin updatedAdmin = adminRepository.save(admin);
+            String previousUsername = existingAdmin.getUsername();
+            // Any write moves the version, so a stale admin patch is rejected; both commit together
+            Admin updatedAdmin = transactionTemplate.execute(status -> {
+                Admin saved = adminRepository.save(admin);
+                userIdentityService.bumpVersion(ROLE, saved.getId(), null);
+                return saved;
+            });
+            // Evict both names in case the username changed
+            userDetailsCache.invalidate(previousUsername, ROLE);
+            userDetailsCache.invalidate(updatedAdmin.getUsername(), ROLE);
             logger.info("Successfully updated admin: {} (ID: {})", updatedAdmin.getUsername(), updatedAdmin.getId());
         } catch (Exception e) {
             logger.error("Error updating admin: {}", admin.getUsername(), e);
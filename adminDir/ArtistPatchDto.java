@@ -0,0 +1,18 @@
+package com.music.musicstore.dto;
+
+/**
+ * Partial update for artists: the common user fields plus the artist profile fields.
+ */
+public class ArtistPatchDto extends UserPatchDto {
+
+    private String artistName;
+    private String photoUrl;
+
+    public ArtistPatchDto() {}
+
+    // Getters and setters
+    public String getArtistName() { return artistName; }
+    public void setArtistName(String artistName) { this.artistName = artistName; markPresent("artistName"); }
+    public String getPhotoUrl() { return photoUrl; }
+    public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; markPresent("photoUrl"); }
+}
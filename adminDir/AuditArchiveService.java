@@ -0,0 +1,339 @@
+package com.music.musicstore.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.musicstore.dto.AuditLogFilter;
+import com.music.musicstore.models.AuditLog;
+import com.music.musicstore.models.AuditLogArchive;
+import com.music.musicstore.repositories.AuditLogArchiveRepository;
+import com.music.musicstore.repositories.AuditLogBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tiered retention for audit_logs.
+ *
+ * The hot table keeps the last N months. A nightly job moves each older month into a
+ * gzip-compressed NDJSON file, records the file and its SHA-256 in audit_log_archives and
+ * then deletes the archived rows in small batches. Archived months stay queryable: the
+ * matching files are scanned on demand, either by date range or as the continuation of a
+ * keyset page once the hot table has no older rows. A file's checksum is verified the first
+ * time it is read; later reads only compare its size.
+ */
+@Service
+public class AuditArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditArchiveService.class);
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    // Keyset order of audit logs; pages are read in reverse
+    private static final Comparator<AuditLog> KEYSET =
+        Comparator.comparing(AuditLog::getTimestamp).thenComparing(AuditLog::getId);
+
+    private final AuditLogBatchRepository auditLogBatchRepository;
+    private final AuditLogArchiveRepository auditLogArchiveRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    // Archive parts whose checksum already matched; files are never rewritten once recorded
+    private final Set<Long> verifiedArchives = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.audit.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${app.audit.archive.directory:audit-archive}")
+    private String archiveDirectory;
+
+    @Value("${app.audit.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.audit.archive.delete-pause-ms:50}")
+    private long deletePauseMs;
+
+    @Autowired
+    public AuditArchiveService(AuditLogBatchRepository auditLogBatchRepository,
+                               AuditLogArchiveRepository auditLogArchiveRepository,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.auditLogBatchRepository = auditLogBatchRepository;
+        this.auditLogArchiveRepository = auditLogArchiveRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        logger.info("AuditArchiveService initialized successfully");
+    }
+
+    /**
+     * Archive every month that has fallen out of the retention window, oldest first
+     */
+    @Scheduled(cron = "${app.audit.archive.cron:0 30 3 * * *}")
+    public void archiveExpiredMonths() {
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths);
+        Optional<LocalDateTime> oldest = auditLogBatchRepository.findOldestTimestamp();
+        if (oldest.isEmpty() || !oldest.get().toLocalDate().isBefore(cutoff)) {
+            return;
+        }
+
+        for (LocalDate month = oldest.get().toLocalDate().withDayOfMonth(1); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            try {
+                archiveMonth(month);
+            } catch (Exception e) {
+                // Later months wait for the next run so the archive never has gaps
+                logger.error("Archiving audit logs for {} failed", MONTH_FORMAT.format(month), e);
+                return;
+            }
+        }
+    }
+
+    public List<AuditLogArchive> getArchives() {
+        return auditLogArchiveRepository.findAllByOrderByMonthStartDescIdDesc();
+    }
+
+    /**
+     * Query archived entries in [startDate, endDate], newest first, optionally for one admin.
+     * Each file's checksum is verified the first time it is read.
+     */
+    public Page<AuditLog> getArchivedAuditLogs(LocalDate startDate, LocalDate endDate, String adminUsername,
+                                               Pageable pageable) {
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+        List<AuditLogArchive> archives = auditLogArchiveRepository.findByMonthStartBetweenOrderByMonthStartAscIdAsc(
+            startDate.withDayOfMonth(1), endDate.withDayOfMonth(1));
+
+        // Only the newest offset + size matches are kept in memory; the rest are just counted
+        long keep = pageable.getOffset() + pageable.getPageSize();
+        PriorityQueue<AuditLog> newest = new PriorityQueue<>(Comparator.comparing(AuditLog::getTimestamp));
+        long[] total = {0};
+        for (AuditLogArchive archive : archives) {
+            Path file = Paths.get(archive.getFilePath());
+            verifyChecksum(archive, file);
+            readArchive(file, log -> {
+                if (!log.getTimestamp().isBefore(from) && log.getTimestamp().isBefore(to)
+                        && (adminUsername == null || adminUsername.equals(log.getAdminUsername()))) {
+                    total[0]++;
+                    newest.add(log);
+                    if (newest.size() > keep) {
+                        newest.poll();
+                    }
+                }
+            });
+        }
+
+        List<AuditLog> matches = new ArrayList<>(newest);
+        matches.sort(Comparator.comparing(AuditLog::getTimestamp).reversed());
+        int start = (int) Math.min(pageable.getOffset(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(start, matches.size())), pageable, total[0]);
+    }
+
+    /**
+     * The newest archived entries matching the filter that sort before (beforeTimestamp, beforeId)
+     * in keyset order, newest first; a null position starts at the newest archived entry. Months
+     * are read newest first and reading stops at the first month that fills the page.
+     */
+    public List<AuditLog> findPageBefore(AuditLogFilter filter, LocalDateTime beforeTimestamp, Long beforeId,
+                                         int limit) {
+        LocalDateTime upper = filter.getTo();
+        if (beforeTimestamp != null && (upper == null || !beforeTimestamp.isAfter(upper))) {
+            upper = beforeTimestamp;
+        }
+        LocalDate lastMonth = upper != null ? upper.toLocalDate().withDayOfMonth(1) : null;
+        LocalDate firstMonth = filter.getFrom() != null ? filter.getFrom().toLocalDate().withDayOfMonth(1) : null;
+
+        // Parts of one month are merged, since each part is in id order rather than timestamp order
+        Map<LocalDate, List<AuditLogArchive>> months = new LinkedHashMap<>();
+        for (AuditLogArchive archive : auditLogArchiveRepository.findAllByOrderByMonthStartDescIdDesc()) {
+            LocalDate month = archive.getMonthStart();
+            if ((lastMonth == null || !month.isAfter(lastMonth))
+                    && (firstMonth == null || !month.isBefore(firstMonth))) {
+                months.computeIfAbsent(month, m -> new ArrayList<>()).add(archive);
+            }
+        }
+
+        List<AuditLog> page = new ArrayList<>();
+        for (List<AuditLogArchive> parts : months.values()) {
+            int keep = limit - page.size();
+            PriorityQueue<AuditLog> newest = new PriorityQueue<>(KEYSET);
+            for (AuditLogArchive archive : parts) {
+                Path file = Paths.get(archive.getFilePath());
+                verifyChecksum(archive, file);
+                readArchive(file, log -> {
+                    if (matches(filter, log) && (beforeTimestamp == null || beforeId == null
+                            || log.getTimestamp().isBefore(beforeTimestamp)
+                            || (log.getTimestamp().equals(beforeTimestamp) && log.getId() < beforeId))) {
+                        newest.add(log);
+                        if (newest.size() > keep) {
+                            newest.poll();
+                        }
+                    }
+                });
+            }
+            List<AuditLog> matches = new ArrayList<>(newest);
+            matches.sort(KEYSET.reversed());
+            page.addAll(matches);
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    private static boolean matches(AuditLogFilter filter, AuditLog log) {
+        return (filter.getAdminUsername() == null || filter.getAdminUsername().equals(log.getAdminUsername()))
+            && (filter.getAction() == null || filter.getAction().equals(log.getAction()))
+            && (filter.getResourceType() == null || filter.getResourceType().equals(log.getResourceType()))
+            && (filter.getSeverity() == null || filter.getSeverity() == log.getSeverity())
+            && (filter.getSuccess() == null || filter.getSuccess().equals(log.getSuccess()))
+            && (filter.getFrom() == null || !log.getTimestamp().isBefore(filter.getFrom()))
+            && (filter.getTo() == null || log.getTimestamp().isBefore(filter.getTo()));
+    }
+
+    private void archiveMonth(LocalDate month) throws IOException, InterruptedException {
+        LocalDateTime from = month.atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atStartOfDay();
+
+        // Rows already in an archive part but not yet deleted (interrupted run) are only deleted, not exported again
+        long alreadyArchived = auditLogArchiveRepository.findMaxArchivedLogId(month);
+        deleteArchivedRows(from, to, alreadyArchived);
+
+        Path directory = Paths.get(archiveDirectory);
+        Files.createDirectories(directory);
+        String baseName = "audit-logs-" + MONTH_FORMAT.format(month) + "-" + System.currentTimeMillis() + ".ndjson.gz";
+        Path target = directory.resolve(baseName);
+        Path temp = directory.resolve(baseName + ".tmp");
+
+        MessageDigest digest = sha256();
+        long rows = 0;
+        long maxId = alreadyArchived;
+        try (OutputStream file = Files.newOutputStream(temp);
+             DigestOutputStream digesting = new DigestOutputStream(file, digest);
+             GZIPOutputStream gzip = new GZIPOutputStream(digesting, 64 * 1024);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8))) {
+            List<AuditLog> page;
+            do {
+                page = auditLogBatchRepository.findRangeAfterId(from, to, maxId, batchSize);
+                for (AuditLog log : page) {
+                    writer.write(objectMapper.writeValueAsString(log));
+                    writer.write('\n');
+                    maxId = log.getId();
+                }
+                rows += page.size();
+            } while (page.size() == batchSize);
+        }
+
+        if (rows == 0) {
+            Files.delete(temp);
+            return;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        // The file is complete before it is recorded, and recorded before any row is deleted
+        AuditLogArchive archive = auditLogArchiveRepository.save(new AuditLogArchive(month, target.toString(), rows, maxId,
+            HexFormat.of().formatHex(digest.digest()), Files.size(target)));
+        long deleted = deleteArchivedRows(from, to, maxId);
+
+        logger.info("Archived {} audit logs for {} to {} (sha256 {}), deleted {} rows from the hot table",
+            rows, MONTH_FORMAT.format(month), target, archive.getSha256(), deleted);
+    }
+
+    private long deleteArchivedRows(LocalDateTime from, LocalDateTime to, long maxId) throws InterruptedException {
+        long deleted = 0;
+        while (maxId > 0) {
+            List<Long> ids = auditLogBatchRepository.findIdsInRangeUpTo(from, to, maxId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleted += transactionTemplate.execute(status -> auditLogBatchRepository.deleteByIds(ids));
+            Thread.sleep(deletePauseMs);
+        }
+        return deleted;
+    }
+
+    private void verifyChecksum(AuditLogArchive archive, Path file) {
+        try {
+            if (Files.size(file) != archive.getSizeBytes()) {
+                verifiedArchives.remove(archive.getId());
+                throw new IllegalStateException("Size mismatch for audit archive " + file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit archive " + file, e);
+        }
+        if (verifiedArchives.contains(archive.getId())) {
+            return;
+        }
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit archive " + file, e);
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (!actual.equals(archive.getSha256())) {
+            throw new IllegalStateException("Checksum mismatch for audit archive " + file);
+        }
+        verifiedArchives.add(archive.getId());
+    }
+
+    private void readArchive(Path file, Consumer<AuditLog> consumer) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    consumer.accept(objectMapper.readValue(line, AuditLog.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit archive " + file, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
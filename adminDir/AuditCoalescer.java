@@ -0,0 +1,155 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.models.AuditLog;
+import com.music.musicstore.models.AuditLog.AuditSeverity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Severity-based policy in front of AuditLogWriter.
+ *
+ * Events of a coalesced severity (LOW by default, i.e. dashboard reads) from the same admin,
+ * action and resource type are collapsed per time window into one row: the first event's
+ * details and context, plus the number of occurrences and the time of the last one. The row
+ * is written when its window closes. HIGH and CRITICAL events are always passed through
+ * verbatim, whatever the configuration says.
+ */
+@Service
+public class AuditCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditCoalescer.class);
+
+    private static final Set<AuditSeverity> ALWAYS_VERBATIM = EnumSet.of(AuditSeverity.HIGH, AuditSeverity.CRITICAL);
+
+    private final AuditLogWriter auditLogWriter;
+    private final Set<AuditSeverity> coalescedSeverities;
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+
+    private final LongAdder coalescedEvents = new LongAdder();
+    private final LongAdder coalescedRows = new LongAdder();
+
+    @Value("${app.audit.coalesce.window-seconds:60}")
+    private long windowSeconds;
+
+    // Caps memory when many admins/actions are active at once; further keys are written verbatim
+    @Value("${app.audit.coalesce.max-open-windows:10000}")
+    private int maxOpenWindows;
+
+    @Autowired
+    public AuditCoalescer(AuditLogWriter auditLogWriter,
+                          @Value("${app.audit.coalesce.severities:LOW}") Set<AuditSeverity> coalescedSeverities) {
+        this.auditLogWriter = auditLogWriter;
+        this.coalescedSeverities = coalescedSeverities.isEmpty()
+            ? EnumSet.noneOf(AuditSeverity.class) : EnumSet.copyOf(coalescedSeverities);
+        this.coalescedSeverities.removeAll(ALWAYS_VERBATIM);
+        logger.info("AuditCoalescer initialized, coalescing severities {}", this.coalescedSeverities);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush(true);
+    }
+
+    public void submit(AuditLog event) {
+        if (!isCoalesced(event)) {
+            auditLogWriter.submit(event);
+            return;
+        }
+
+        Key key = new Key(event.getAdminUsername(), event.getAction(), event.getResourceType());
+        if (!windows.containsKey(key) && windows.size() >= maxOpenWindows) {
+            auditLogWriter.submit(event);
+            return;
+        }
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                return new Window(event);
+            }
+            window.occurrences++;
+            window.lastOccurrenceAt = event.getTimestamp();
+            return window;
+        });
+        coalescedEvents.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("severities", coalescedSeverities);
+        stats.put("windowSeconds", windowSeconds);
+        stats.put("openWindows", windows.size());
+        stats.put("coalescedEvents", coalescedEvents.sum());
+        stats.put("coalescedRows", coalescedRows.sum());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.coalesce.flush-interval-ms:5000}")
+    public void flushClosedWindows() {
+        flush(false);
+    }
+
+    private void flush(boolean all) {
+        LocalDateTime closeBefore = LocalDateTime.now().minusSeconds(windowSeconds);
+        List<AuditLog> rows = new ArrayList<>();
+        for (Key key : windows.keySet()) {
+            // Removing inside computeIfPresent keeps a concurrent submit from adding to a window being written
+            windows.computeIfPresent(key, (k, window) -> {
+                if (!all && window.first.getTimestamp().isAfter(closeBefore)) {
+                    return window;
+                }
+                rows.add(window.toRow());
+                return null;
+            });
+        }
+        for (AuditLog row : rows) {
+            auditLogWriter.submit(row);
+        }
+        coalescedRows.add(rows.size());
+        if (!rows.isEmpty()) {
+            logger.debug("Wrote {} coalesced audit rows", rows.size());
+        }
+    }
+
+    private boolean isCoalesced(AuditLog event) {
+        return event.getSeverity() != null
+            && coalescedSeverities.contains(event.getSeverity())
+            && Boolean.TRUE.equals(event.getSuccess());
+    }
+
+    private record Key(String adminUsername, String action, String resourceType) {
+    }
+
+    // Guarded by the map's per-key locking in compute/computeIfPresent
+    private static final class Window {
+        private final AuditLog first;
+        private int occurrences = 1;
+        private LocalDateTime lastOccurrenceAt;
+
+        private Window(AuditLog first) {
+            this.first = first;
+            this.lastOccurrenceAt = first.getTimestamp();
+        }
+
+        private AuditLog toRow() {
+            first.setOccurrences(occurrences);
+            if (occurrences > 1) {
+                first.setLastOccurrenceAt(lastOccurrenceAt);
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.music.musicstore.dto;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Who and where an audited action came from, captured once per request by AuditContextFilter.
+ * Holds plain values only, so it can be handed to background work after the request has ended,
+ * and reading it never touches the HTTP session.
+ */
+public final class AuditContext {
+
+    public static final String REQUEST_ATTRIBUTE = AuditContext.class.getName();
+
+    // For actions that do not originate from an HTTP request, e.g. scheduled jobs
+    public static final AuditContext NONE = new AuditContext(null, null, null, null);
+
+    private final String ipAddress;
+    private final String userAgent;
+    private final String correlationId;
+    private final String jwtId;
+
+    public AuditContext(String ipAddress, String userAgent, String correlationId, String jwtId) {
+        this.ipAddress = ipAddress;
+        this.userAgent = userAgent;
+        this.correlationId = correlationId;
+        this.jwtId = jwtId;
+    }
+
+    /**
+     * The context captured for this request, or NONE if the filter did not run for it
+     */
+    public static AuditContext from(HttpServletRequest request) {
+        if (request == null) {
+            return NONE;
+        }
+        Object context = request.getAttribute(REQUEST_ATTRIBUTE);
+        return context instanceof AuditContext auditContext ? auditContext : NONE;
+    }
+
+    /**
+     * The context of the request bound to the current thread, or NONE outside of a request
+     */
+    public static AuditContext current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NONE;
+        }
+        Object context = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return context instanceof AuditContext auditContext ? auditContext : NONE;
+    }
+
+    // Getters
+    public String getIpAddress() { return ipAddress; }
+    public String getUserAgent() { return userAgent; }
+    public String getCorrelationId() { return correlationId; }
+    public String getJwtId() { return jwtId; }
+}
@@ -0,0 +1,109 @@
+package com.music.musicstore.configs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.musicstore.dto.AuditContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Captures the AuditContext of every request up front: client IP, user agent, a correlation
+ * id (taken from X-Correlation-Id when the caller sends a sane one) and the id of the bearer
+ * token. Nothing here calls getSession(), so stateless requests stay session-free.
+ * Registered inside the security chain ahead of JwtAuthenticationFilter, so it is
+ * deliberately not a @Component.
+ */
+public class AuditContextFilter extends OncePerRequestFilter {
+
+    public static final String CORRELATION_HEADER = "X-Correlation-Id";
+    public static final String CORRELATION_MDC_KEY = "correlationId";
+
+    private static final Pattern SAFE_CORRELATION_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final int MAX_USER_AGENT_LENGTH = 255;
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Only used to read the jti claim; the token itself is verified by JwtAuthenticationFilter
+    private static final ObjectMapper CLAIMS_READER = new ObjectMapper();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String correlationId = request.getHeader(CORRELATION_HEADER);
+        if (correlationId == null || !SAFE_CORRELATION_ID.matcher(correlationId).matches()) {
+            correlationId = UUID.randomUUID().toString();
+        }
+
+        AuditContext context = new AuditContext(clientIpAddress(request), userAgent(request), correlationId,
+            jwtId(request.getHeader("Authorization")));
+        request.setAttribute(AuditContext.REQUEST_ATTRIBUTE, context);
+        response.setHeader(CORRELATION_HEADER, correlationId);
+
+        MDC.put(CORRELATION_MDC_KEY, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(CORRELATION_MDC_KEY);
+        }
+    }
+
+    private static String clientIpAddress(HttpServletRequest request) {
+        String ipAddress = request.getHeader("X-Forwarded-For");
+        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
+            ipAddress = request.getHeader("Proxy-Client-IP");
+        }
+        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
+            ipAddress = request.getHeader("WL-Proxy-Client-IP");
+        }
+        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
+            ipAddress = request.getRemoteAddr();
+        }
+        // X-Forwarded-For lists every hop; the first entry is the client
+        int comma = ipAddress != null ? ipAddress.indexOf(',') : -1;
+        return comma >= 0 ? ipAddress.substring(0, comma).trim() : ipAddress;
+    }
+
+    private static String userAgent(HttpServletRequest request) {
+        String userAgent = request.getHeader("User-Agent");
+        return userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH
+            ? userAgent.substring(0, MAX_USER_AGENT_LENGTH) : userAgent;
+    }
+
+    /**
+     * The jti claim of the bearer token, or a digest of its signature when the token has no jti,
+     * so log entries from the same token can be grouped without storing the token.
+     */
+    static String jwtId(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String[] parts = authorization.substring(BEARER_PREFIX.length()).trim().split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            JsonNode claims = CLAIMS_READER.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            JsonNode jti = claims.get("jti");
+            if (jti != null && jti.isTextual() && !jti.asText().isEmpty()) {
+                return jti.asText();
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(parts[2].getBytes(StandardCharsets.US_ASCII));
+            return "sig:" + HexFormat.of().formatHex(digest, 0, 16);
+        } catch (IOException | IllegalArgumentException | NoSuchAlgorithmException e) {
+            // Malformed tokens are rejected by the JWT filter; they just get no id here
+            return null;
+        }
+    }
+}
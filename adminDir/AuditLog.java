@@ -4,7 +4,16 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs",
+       indexes = {
+           // Keyset paging scans (timestamp, id); admin and action are selective enough to lead their own.
+           // Severity and success have a handful of values and are checked while scanning the keyset index.
+           @Index(name = "idx_audit_logs_ts_id", columnList = "timestamp, id"),
+           @Index(name = "idx_audit_logs_admin_ts", columnList = "admin_username, timestamp, id"),
+           @Index(name = "idx_audit_logs_action_ts", columnList = "action, timestamp, id"),
+           // History of one resource
+           @Index(name = "idx_audit_logs_resource", columnList = "resource_type, resource_id")
+       })
 public class AuditLog {
 
     @Id
@@ -44,18 +53,34 @@ public class AuditLog {
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
 
+    // No longer written; kept for rows recorded before the audit context replaced HTTP sessions
     @Column(name = "session_id")
     private String sessionId;
 
+    @Column(name = "correlation_id", length = 64)
+    private String correlationId;
+
+    @Column(name = "jwt_id", length = 128)
+    private String jwtId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "severity")
     private AuditSeverity severity;
 
+    // How many identical events this row stands for when LOW events are coalesced; null on older rows means 1
+    @Column(name = "occurrences")
+    private Integer occurrences;
+
+    // Timestamp of the last coalesced event; timestamp holds the first
+    @Column(name = "last_occurrence_at")
+    private LocalDateTime lastOccurrenceAt;
+
     // Constructors
     public AuditLog() {
         this.timestamp = LocalDateTime.now();
         this.success = true;
         this.severity = AuditSeverity.MEDIUM;
+        this.occurrences = 1;
     }
 
     public AuditLog(String adminUsername, String action, String resourceType, Long resourceId) {
@@ -171,6 +196,22 @@ public class AuditLog {
         this.sessionId = sessionId;
     }
 
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public String getJwtId() {
+        return jwtId;
+    }
+
+    public void setJwtId(String jwtId) {
+        this.jwtId = jwtId;
+    }
+
     public AuditSeverity getSeverity() {
         return severity;
     }
@@ -179,6 +220,22 @@ public class AuditLog {
         this.severity = severity;
     }
 
+    public Integer getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(Integer occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public LocalDateTime getLastOccurrenceAt() {
+        return lastOccurrenceAt;
+    }
+
+    public void setLastOccurrenceAt(LocalDateTime lastOccurrenceAt) {
+        this.lastOccurrenceAt = lastOccurrenceAt;
+    }
+
     public enum AuditSeverity {
         LOW,     // Read operations, analytics viewing
         MEDIUM,  // Standard admin operations
@@ -0,0 +1,124 @@
+package com.music.musicstore.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One compressed archive file holding audit_logs rows of a single month that were moved out
+ * of the hot table by the retention job. A month can have several parts if rows for it
+ * arrived after it was first archived.
+ */
+@Entity
+@Table(name = "audit_log_archives",
+       indexes = @Index(name = "idx_audit_log_archives_month", columnList = "month_start"))
+public class AuditLogArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First day of the archived month
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "file_path", nullable = false, length = 1024)
+    private String filePath;
+
+    @Column(name = "row_count", nullable = false)
+    private long rowCount;
+
+    // Highest audit_logs id in this part; rows of the month up to it are safe to delete
+    @Column(name = "max_log_id", nullable = false)
+    private long maxLogId;
+
+    // SHA-256 of the compressed file, hex encoded
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public AuditLogArchive() {
+    }
+
+    public AuditLogArchive(LocalDate monthStart, String filePath, long rowCount, long maxLogId,
+                           String sha256, long sizeBytes) {
+        this.monthStart = monthStart;
+        this.filePath = filePath;
+        this.rowCount = rowCount;
+        this.maxLogId = maxLogId;
+        this.sha256 = sha256;
+        this.sizeBytes = sizeBytes;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public long getMaxLogId() {
+        return maxLogId;
+    }
+
+    public void setMaxLogId(long maxLogId) {
+        this.maxLogId = maxLogId;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
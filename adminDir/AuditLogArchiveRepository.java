@@ -0,0 +1,22 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.AuditLogArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AuditLogArchiveRepository extends JpaRepository<AuditLogArchive, Long> {
+
+    // Parts whose month intersects [fromMonth, toMonth], oldest first
+    List<AuditLogArchive> findByMonthStartBetweenOrderByMonthStartAscIdAsc(LocalDate fromMonth, LocalDate toMonth);
+
+    List<AuditLogArchive> findAllByOrderByMonthStartDescIdDesc();
+
+    @Query("SELECT COALESCE(MAX(a.maxLogId), 0) FROM AuditLogArchive a WHERE a.monthStart = :monthStart")
+    long findMaxArchivedLogId(@Param("monthStart") LocalDate monthStart);
+}
@@ -0,0 +1,128 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to audit_logs for bulk work: batch inserts from the background writer, so a
+ * whole batch goes in one round trip instead of one JPA persist per event, and keyset reads
+ * and batched deletes for the archival job.
+ */
+@Repository
+public class AuditLogBatchRepository {
+
+    private static final String INSERT =
+        "INSERT INTO audit_logs (admin_username, action, resource_type, resource_id, target_user_id, details," +
+        " ip_address, user_agent, success, error_message, timestamp, session_id, severity," +
+        " correlation_id, jwt_id, occurrences, last_occurrence_at)" +
+        " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Separate template so range scans can stream with a fetch size without affecting other queries
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    public AuditLogBatchRepository(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.audit.stream-fetch-size:1000}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(streamFetchSize);
+    }
+
+    // Inserts the events as a single JDBC batch; callers supply the transaction
+    public void insertBatch(List<AuditLog> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getAdminUsername());
+            ps.setString(2, event.getAction());
+            ps.setString(3, event.getResourceType());
+            ps.setObject(4, event.getResourceId(), Types.BIGINT);
+            ps.setObject(5, event.getTargetUserId(), Types.BIGINT);
+            ps.setString(6, event.getDetails());
+            ps.setString(7, event.getIpAddress());
+            ps.setString(8, event.getUserAgent());
+            ps.setBoolean(9, Boolean.TRUE.equals(event.getSuccess()));
+            ps.setString(10, event.getErrorMessage());
+            ps.setTimestamp(11, Timestamp.valueOf(event.getTimestamp()));
+            ps.setString(12, event.getSessionId());
+            ps.setString(13, event.getSeverity() != null ? event.getSeverity().name() : null);
+            ps.setString(14, event.getCorrelationId());
+            ps.setString(15, event.getJwtId());
+            ps.setInt(16, event.getOccurrences() != null ? event.getOccurrences() : 1);
+            ps.setTimestamp(17, event.getLastOccurrenceAt() != null ? Timestamp.valueOf(event.getLastOccurrenceAt()) : null);
+        });
+    }
+
+    public Optional<LocalDateTime> findOldestTimestamp() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM audit_logs", Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+
+    // Rows in [from, to) with id above afterId, in id order; used to page through a month without OFFSET
+    public List<AuditLog> findRangeAfterId(LocalDateTime from, LocalDateTime to, long afterId, int limit) {
+        return jdbcTemplate.query(
+            "SELECT * FROM audit_logs WHERE timestamp >= ? AND timestamp < ? AND id > ? ORDER BY id LIMIT ?",
+            AUDIT_LOG_ROW_MAPPER, Timestamp.valueOf(from), Timestamp.valueOf(to), afterId, limit);
+    }
+
+    // Only the columns the rollups group by, streamed so a rebuild does not load the range into memory
+    public void streamForRollup(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(
+            "SELECT timestamp, action, admin_username, severity, success, occurrences FROM audit_logs" +
+            " WHERE timestamp >= ? AND timestamp < ?",
+            handler, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public List<Long> findIdsInRangeUpTo(LocalDateTime from, LocalDateTime to, long maxId, int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM audit_logs WHERE timestamp >= ? AND timestamp < ? AND id <= ? ORDER BY id LIMIT ?",
+            Long.class, Timestamp.valueOf(from), Timestamp.valueOf(to), maxId, limit);
+    }
+
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(
+            "DELETE FROM audit_logs WHERE id IN (" + UserDirectoryRepository.placeholders(ids.size()) + ")",
+            ids.toArray());
+    }
+
+    static final RowMapper<AuditLog> AUDIT_LOG_ROW_MAPPER = (rs, rowNum) -> {
+        AuditLog log = new AuditLog();
+        log.setId(rs.getLong("id"));
+        log.setAdminUsername(rs.getString("admin_username"));
+        log.setAction(rs.getString("action"));
+        log.setResourceType(rs.getString("resource_type"));
+        log.setResourceId(rs.getObject("resource_id", Long.class));
+        log.setTargetUserId(rs.getObject("target_user_id", Long.class));
+        log.setDetails(rs.getString("details"));
+        log.setIpAddress(rs.getString("ip_address"));
+        log.setUserAgent(rs.getString("user_agent"));
+        log.setSuccess(rs.getBoolean("success"));
+        log.setErrorMessage(rs.getString("error_message"));
+        log.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        log.setSessionId(rs.getString("session_id"));
+        String severity = rs.getString("severity");
+        log.setSeverity(severity != null ? AuditLog.AuditSeverity.valueOf(severity) : null);
+        log.setCorrelationId(rs.getString("correlation_id"));
+        log.setJwtId(rs.getString("jwt_id"));
+        int occurrences = rs.getInt("occurrences");
+        log.setOccurrences(rs.wasNull() ? 1 : occurrences);
+        Timestamp lastOccurrence = rs.getTimestamp("last_occurrence_at");
+        log.setLastOccurrenceAt(lastOccurrence != null ? lastOccurrence.toLocalDateTime() : null);
+        return log;
+    };
+}
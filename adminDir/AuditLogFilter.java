@@ -0,0 +1,42 @@
+package com.music.musicstore.dto;
+
+import com.music.musicstore.models.AuditLog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria for listing audit logs; null fields do not restrict the result.
+ * The time range is [from, to). Archived months are only searched when includeArchived is set
+ * or from bounds the range.
+ */
+public class AuditLogFilter {
+
+    private String adminUsername;
+    private String action;
+    private String resourceType;
+    private AuditLog.AuditSeverity severity;
+    private Boolean success;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private boolean includeArchived;
+
+    public AuditLogFilter() {}
+
+    // Getters and setters
+    public String getAdminUsername() { return adminUsername; }
+    public void setAdminUsername(String adminUsername) { this.adminUsername = adminUsername; }
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+    public String getResourceType() { return resourceType; }
+    public void setResourceType(String resourceType) { this.resourceType = resourceType; }
+    public AuditLog.AuditSeverity getSeverity() { return severity; }
+    public void setSeverity(AuditLog.AuditSeverity severity) { this.severity = severity; }
+    public Boolean getSuccess() { return success; }
+    public void setSuccess(Boolean success) { this.success = success; }
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+    public boolean isIncludeArchived() { return includeArchived; }
+    public void setIncludeArchived(boolean includeArchived) { this.includeArchived = includeArchived; }
+}
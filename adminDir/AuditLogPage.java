@@ -0,0 +1,34 @@
+package com.music.musicstore.dto;
+
+import com.music.musicstore.models.AuditLog;
+
+import java.util.List;
+
+/**
+ * One keyset page of audit logs, newest first. Pass nextCursor back to get the following
+ * page; it is null on the last page.
+ */
+public class AuditLogPage {
+
+    private List<AuditLog> content;
+    private int size;
+    private String nextCursor;
+
+    public AuditLogPage() {}
+
+    public AuditLogPage(List<AuditLog> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() { return nextCursor != null; }
+
+    // Getters and setters
+    public List<AuditLog> getContent() { return content; }
+    public void setContent(List<AuditLog> content) { this.content = content; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
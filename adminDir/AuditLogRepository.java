@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, AuditLogRepositoryCustom {
 
     // Find audit logs by admin username
     Page<AuditLog> findByAdminUsernameOrderByTimestampDesc(String adminUsername, Pageable pageable);
@@ -35,7 +35,7 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     // Find audit logs for specific resource
     List<AuditLog> findByResourceTypeAndResourceIdOrderByTimestampDesc(String resourceType, Long resourceId);
 
-    // Count logs by admin and date range
+    // Count logs by admin and date range; scans raw rows, the per-admin audit summary reads the rollups
     @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.adminUsername = :username AND a.timestamp BETWEEN :startDate AND :endDate")
     Long countByAdminAndDateRange(@Param("username") String username, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
@@ -47,7 +47,7 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     @Query("SELECT a FROM AuditLog a WHERE a.adminUsername = :username AND a.success = false AND a.timestamp > :since ORDER BY a.timestamp DESC")
     List<AuditLog> findFailedActionsByAdminSince(@Param("username") String username, @Param("since") LocalDateTime since);
 
-    // Get audit summary by action type
+    // Get audit summary by action type; scans raw rows, AuditLogService.getActionSummary reads the rollups
     @Query("SELECT a.action, COUNT(a) FROM AuditLog a WHERE a.timestamp BETWEEN :startDate AND :endDate GROUP BY a.action")
     List<Object[]> getActionSummary(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 }
@@ -0,0 +1,16 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.dto.AuditLogFilter;
+import com.music.musicstore.models.AuditLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AuditLogRepositoryCustom {
+
+    /**
+     * Up to limit entries matching the filter, ordered by (timestamp, id) descending and starting
+     * strictly after the given position; pass null for both to start from the newest entry.
+     */
+    List<AuditLog> findPageAfter(AuditLogFilter filter, LocalDateTime afterTimestamp, Long afterId, int limit);
+}
@@ -0,0 +1,72 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.dto.AuditLogFilter;
+import com.music.musicstore.models.AuditLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset paging for audit logs. The filters become equality and range predicates ahead of
+ * the (timestamp, id) keyset condition, so each page is one index range scan, however deep
+ * the page is: on (admin_username, timestamp, id) or (action, timestamp, id) when filtered by
+ * admin or action, otherwise on (timestamp, id) with the remaining filters checked per row.
+ */
+public class AuditLogRepositoryImpl implements AuditLogRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuditLog> findPageAfter(AuditLogFilter filter, LocalDateTime afterTimestamp, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditLog> query = cb.createQuery(AuditLog.class);
+        Root<AuditLog> log = query.from(AuditLog.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getAdminUsername() != null) {
+            predicates.add(cb.equal(log.get("adminUsername"), filter.getAdminUsername()));
+        }
+        if (filter.getAction() != null) {
+            predicates.add(cb.equal(log.get("action"), filter.getAction()));
+        }
+        if (filter.getResourceType() != null) {
+            predicates.add(cb.equal(log.get("resourceType"), filter.getResourceType()));
+        }
+        if (filter.getSeverity() != null) {
+            predicates.add(cb.equal(log.get("severity"), filter.getSeverity()));
+        }
+        if (filter.getSuccess() != null) {
+            predicates.add(cb.equal(log.get("success"), filter.getSuccess()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(log.get("timestamp"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(log.get("timestamp"), filter.getTo()));
+        }
+        if (afterTimestamp != null && afterId != null) {
+            // (timestamp, id) < (afterTimestamp, afterId), spelled out because JPA has no row-value comparison.
+            // The redundant upper bound gives the planner an index range to start from; the OR alone is a filter.
+            predicates.add(cb.lessThanOrEqualTo(log.get("timestamp"), afterTimestamp));
+            predicates.add(cb.or(
+                cb.lessThan(log.get("timestamp"), afterTimestamp),
+                cb.and(cb.equal(log.get("timestamp"), afterTimestamp), cb.lessThan(log.get("id"), afterId))));
+        }
+
+        query.select(log)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.desc(log.get("timestamp")), cb.desc(log.get("id")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+}
@@ -1,6 +1,11 @@
 package com.music.musicstore.services;
 
+import com.music.musicstore.dto.AuditContext;
+import com.music.musicstore.dto.AuditLogFilter;
+import com.music.musicstore.dto.AuditLogPage;
+import com.music.musicstore.exceptions.ValidationException;
 import com.music.musicstore.models.AuditLog;
+import com.music.musicstore.models.AuditLogArchive;
 import com.music.musicstore.repositories.AuditLogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,21 +15,52 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class AuditLogService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditCoalescer auditCoalescer;
+
+    @Autowired
+    private AuditArchiveService auditArchiveService;
+
+    @Autowired
+    private AuditRollupService auditRollupService;
+
+    @Autowired
+    private FailedActionDetector failedActionDetector;
+
     /**
      * Log an admin action
      */
     public void logAdminAction(String adminUsername, String action, String resourceType,
                               Long resourceId, String details, HttpServletRequest request) {
+        logAdminAction(adminUsername, action, resourceType, resourceId, details, AuditContext.from(request));
+    }
+
+    /**
+     * Log an admin action with an already captured context, e.g. from a background job
+     */
+    public void logAdminAction(String adminUsername, String action, String resourceType,
+                              Long resourceId, String details, AuditContext context) {
         try {
             AuditLog auditLog = new AuditLog();
             auditLog.setAdminUsername(adminUsername);
@@ -33,18 +69,13 @@ public class AuditLogService {
             auditLog.setResourceId(resourceId);
             auditLog.setDetails(details);
             auditLog.setSuccess(true);
-
-            // Set request details if available
-            if (request != null) {
-                auditLog.setIpAddress(getClientIpAddress(request));
-                auditLog.setUserAgent(request.getHeader("User-Agent"));
-                auditLog.setSessionId(request.getSession().getId());
-            }
+            applyContext(auditLog, context);
 
             // Set severity based on action type
             auditLog.setSeverity(determineSeverity(action, resourceType));
 
-            auditLogRepository.save(auditLog);
+            // Repeated LOW events are collapsed into one row; the rest go to the writer as they are
+            auditCoalescer.submit(auditLog);
 
             // Also log to application logs
             logger.info("ADMIN_ACTION: {} performed {} on {} (ID: {}) - {}",
@@ -60,6 +91,14 @@ public class AuditLogService {
      */
     public void logFailedAdminAction(String adminUsername, String action, String resourceType,
                                    Long resourceId, String errorMessage, HttpServletRequest request) {
+        logFailedAdminAction(adminUsername, action, resourceType, resourceId, errorMessage, AuditContext.from(request));
+    }
+
+    /**
+     * Log a failed admin action with an already captured context
+     */
+    public void logFailedAdminAction(String adminUsername, String action, String resourceType,
+                                   Long resourceId, String errorMessage, AuditContext context) {
         try {
             AuditLog auditLog = new AuditLog();
             auditLog.setAdminUsername(adminUsername);
@@ -68,16 +107,12 @@ public class AuditLogService {
             auditLog.setResourceId(resourceId);
             auditLog.setSuccess(false);
             auditLog.setErrorMessage(errorMessage);
-
-            if (request != null) {
-                auditLog.setIpAddress(getClientIpAddress(request));
-                auditLog.setUserAgent(request.getHeader("User-Agent"));
-                auditLog.setSessionId(request.getSession().getId());
-            }
+            applyContext(auditLog, context);
 
             auditLog.setSeverity(AuditLog.AuditSeverity.HIGH);
 
-            auditLogRepository.save(auditLog);
+            failedActionDetector.recordFailure(adminUsername, action);
+            auditCoalescer.submit(auditLog);
 
             logger.warn("ADMIN_ACTION_FAILED: {} failed to perform {} on {} (ID: {}) - Error: {}",
                        adminUsername, action, resourceType, resourceId, errorMessage);
@@ -94,6 +129,49 @@ public class AuditLogService {
         return auditLogRepository.findAll(pageable);
     }
 
+    /**
+     * One keyset page of audit logs matching the filter, newest first. cursor is the nextCursor
+     * of the previous page, or null for the first page. Once the hot table runs out, pages continue
+     * into the archived months if the filter opts in or has a from bound; otherwise the listing
+     * ends with the hot table instead of scanning every archive file.
+     */
+    public AuditLogPage findAuditLogs(AuditLogFilter filter, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterTimestamp = LocalDateTime.parse(position[0]);
+                afterId = Long.parseLong(position[1]);
+            } catch (RuntimeException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+
+        // One extra row tells whether another page exists without a COUNT
+        List<AuditLog> rows = auditLogRepository.findPageAfter(filter, afterTimestamp, afterId, size + 1);
+        if (rows.size() <= size && (filter.isIncludeArchived() || filter.getFrom() != null)) {
+            // The hot table has nothing older; archived months continue the same keyset order
+            rows = new ArrayList<>(rows);
+            AuditLog position = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+            rows.addAll(auditArchiveService.findPageBefore(filter,
+                position != null ? position.getTimestamp() : afterTimestamp,
+                position != null ? position.getId() : afterId,
+                size + 1 - rows.size()));
+        }
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            AuditLog last = rows.get(size - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getTimestamp() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new AuditLogPage(new ArrayList<>(rows), size, nextCursor);
+    }
+
     /**
      * Get audit logs by admin username
      */
@@ -101,6 +179,59 @@ public class AuditLogService {
         return auditLogRepository.findByAdminUsernameOrderByTimestampDesc(adminUsername, pageable);
     }
 
+    /**
+     * Get archived audit logs, i.e. months the retention job has moved out of the table
+     */
+    public Page<AuditLog> getArchivedAuditLogs(LocalDate startDate, LocalDate endDate, String adminUsername,
+                                               Pageable pageable) {
+        return auditArchiveService.getArchivedAuditLogs(startDate, endDate, adminUsername, pageable);
+    }
+
+    /**
+     * List the archive files written by the retention job
+     */
+    public List<AuditLogArchive> getAuditLogArchives() {
+        return auditArchiveService.getArchives();
+    }
+
+    /**
+     * Event counts in [from, to) by action, admin, severity and outcome, read from the hourly and
+     * daily rollups rather than grouped from audit_logs. Archived months are still included.
+     * With an admin username the summary covers only that admin's events.
+     */
+    public Map<String, Object> getActionSummary(LocalDateTime from, LocalDateTime to, String adminUsername) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("from must be before to");
+        }
+        return auditRollupService.getSummary(from, to, adminUsername);
+    }
+
+    /**
+     * Re-derive the rollups for [from, to) from the audit_logs rows
+     */
+    public Map<String, Object> rebuildRollups(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("from must be before to");
+        }
+        return auditRollupService.rebuild(from, to);
+    }
+
+    /**
+     * Sliding-window failed action counts per admin, as seen by the failed action detector
+     */
+    public Map<String, Object> getFailedActionState() {
+        return failedActionDetector.getState();
+    }
+
+    /**
+     * Queue depth and write counters of the background audit writer, plus coalescing counters
+     */
+    public Map<String, Object> getWriterStats() {
+        Map<String, Object> stats = auditLogWriter.getStats();
+        stats.put("coalescing", auditCoalescer.getStats());
+        return stats;
+    }
+
     /**
      * Determine severity based on action type
      */
@@ -117,19 +248,14 @@ public class AuditLogService {
     }
 
     /**
-     * Get client IP address from request
+     * Copy the request context captured by AuditContextFilter onto the entry
      */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String ipAddress = request.getHeader("X-Forwarded-For");
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getRemoteAddr();
+    private void applyContext(AuditLog auditLog, AuditContext context) {
+        if (context != null) {
+            auditLog.setIpAddress(context.getIpAddress());
+            auditLog.setUserAgent(context.getUserAgent());
+            auditLog.setCorrelationId(context.getCorrelationId());
+            auditLog.setJwtId(context.getJwtId());
         }
-        return ipAddress;
     }
 }
@@ -0,0 +1,343 @@
+package com.music.musicstore.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.musicstore.models.AuditLog;
+import com.music.musicstore.repositories.AuditLogBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Writes audit events off the request thread.
+ *
+ * Events go onto a bounded queue that a single writer thread drains into JDBC batch inserts,
+ * flushing when a batch is full or the flush interval has passed. In CRITICAL_SYNC mode the
+ * caller of a CRITICAL event waits until its batch is stored; everything else returns at once.
+ * When the database rejects a batch, or the queue is full, events are appended to a local
+ * NDJSON file that is replayed into the database once it accepts writes again. Stored
+ * batches are also counted into the hourly audit rollups.
+ */
+@Service
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    public enum DurabilityMode {
+        ASYNC,          // Never block the caller
+        CRITICAL_SYNC   // Block until stored for CRITICAL events only
+    }
+
+    private final AuditLogBatchRepository auditLogBatchRepository;
+    private final AuditRollupService auditRollupService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingEvent> queue;
+    private final Object fallbackLock = new Object();
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fallbackEvents = new LongAdder();
+    private final LongAdder overflowEvents = new LongAdder();
+    private final LongAdder replayedEvents = new LongAdder();
+    private final LongAdder criticalWaitTimeouts = new LongAdder();
+
+    @Value("${app.audit.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.writer.durability:CRITICAL_SYNC}")
+    private DurabilityMode durabilityMode;
+
+    @Value("${app.audit.writer.critical-wait-ms:5000}")
+    private long criticalWaitMs;
+
+    @Value("${app.audit.writer.fallback-file:audit-fallback.ndjson}")
+    private String fallbackFile;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @Autowired
+    public AuditLogWriter(AuditLogBatchRepository auditLogBatchRepository,
+                          AuditRollupService auditRollupService,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.audit.writer.queue-capacity:10000}") int queueCapacity) {
+        this.auditLogBatchRepository = auditLogBatchRepository;
+        this.auditRollupService = auditRollupService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        logger.info("AuditLogWriter initialized with queue capacity {}", queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // The writer keeps draining until the queue is empty, then exits
+        running = false;
+        writerThread.join(10_000);
+        if (!queue.isEmpty()) {
+            List<PendingEvent> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            appendToFallback(remaining);
+            logger.warn("Audit writer stopped with {} events pending; saved them to {}", remaining.size(), fallbackFile);
+        }
+    }
+
+    /**
+     * Queue an event for writing. Returns immediately unless the event is CRITICAL and the
+     * writer runs in CRITICAL_SYNC mode, in which case it waits until the event is stored.
+     */
+    public void submit(AuditLog event) {
+        boolean waitForWrite = durabilityMode == DurabilityMode.CRITICAL_SYNC
+            && event.getSeverity() == AuditLog.AuditSeverity.CRITICAL;
+        PendingEvent pending = new PendingEvent(event, waitForWrite ? new CompletableFuture<>() : null);
+
+        if (!running || !queue.offer(pending)) {
+            // Never block a request on a full queue; the file keeps the event until it can be replayed
+            overflowEvents.increment();
+            appendToFallback(List.of(pending));
+            return;
+        }
+
+        if (waitForWrite) {
+            try {
+                pending.stored.get(criticalWaitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                criticalWaitTimeouts.increment();
+                logger.warn("CRITICAL audit event {} not stored within {} ms, continuing", event.getAction(), criticalWaitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.error("CRITICAL audit event {} could not be stored", event.getAction(), e.getCause());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("durabilityMode", durabilityMode.name());
+        stats.put("queued", queue.size());
+        stats.put("remainingCapacity", queue.remainingCapacity());
+        stats.put("written", written.sum());
+        stats.put("batches", batches.sum());
+        stats.put("fallbackEvents", fallbackEvents.sum());
+        stats.put("overflowEvents", overflowEvents.sum());
+        stats.put("replayedEvents", replayedEvents.sum());
+        stats.put("criticalWaitTimeouts", criticalWaitTimeouts.sum());
+        return stats;
+    }
+
+    private void drainLoop() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+
+                // Give a partial batch until the flush interval to fill up, unless someone is waiting on it
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (running && batch.size() < batchSize && !hasWaiter(batch)) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                logger.error("Audit writer loop failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        logger.info("Audit writer stopped");
+    }
+
+    private void flush(List<PendingEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<AuditLog> events = batch.stream().map(PendingEvent::event).collect(Collectors.toList());
+        try {
+            // Rows and their rollup counts commit together; a failed batch is replayed and its range rebuilt
+            transactionTemplate.executeWithoutResult(status -> {
+                auditLogBatchRepository.insertBatch(events);
+                auditRollupService.recordEvents(events);
+            });
+            written.add(events.size());
+            batches.increment();
+            batch.forEach(PendingEvent::complete);
+        } catch (Exception e) {
+            logger.error("Failed to write {} audit events to the database, appending them to {}", events.size(), fallbackFile, e);
+            appendToFallback(batch);
+        }
+    }
+
+    // Durable local copy for events the database did not take; waiters are released once the file write returns
+    private void appendToFallback(List<PendingEvent> pending) {
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (PendingEvent event : pending) {
+                lines.append(objectMapper.writeValueAsString(event.event())).append('\n');
+            }
+            synchronized (fallbackLock) {
+                Files.writeString(Paths.get(fallbackFile), lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE,
+                    StandardOpenOption.SYNC);
+            }
+            fallbackEvents.add(pending.size());
+            pending.forEach(PendingEvent::complete);
+        } catch (IOException e) {
+            logger.error("Failed to append {} audit events to {}; they are lost", pending.size(), fallbackFile, e);
+            pending.forEach(event -> event.fail(e));
+        }
+    }
+
+    /**
+     * Move events from the fallback file into the database. Runs shortly after startup and
+     * then periodically; the file is renamed first so new fallback writes go to a fresh file.
+     * A replay file that fails to load is kept and retried whole on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.audit.writer.replay-interval-ms:60000}",
+               initialDelayString = "${app.audit.writer.replay-initial-delay-ms:10000}")
+    public void replayFallbackFile() {
+        Path live = Paths.get(fallbackFile);
+        Path replay = Paths.get(fallbackFile + ".replay");
+        try {
+            synchronized (fallbackLock) {
+                if (!Files.exists(replay)) {
+                    if (!Files.exists(live) || Files.size(live) == 0) {
+                        return;
+                    }
+                    Files.move(live, replay, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            ReplayResult replayed = transactionTemplate.execute(status -> insertFromFile(replay));
+            Files.delete(replay);
+            replayedEvents.add(replayed.count());
+            logger.info("Replayed {} audit events from {}", replayed.count(), replay);
+
+            // Replayed events were never counted; re-derive the rollups of the range they fall in
+            if (replayed.count() > 0) {
+                auditRollupService.rebuild(replayed.oldest(), replayed.newest().plusSeconds(1));
+            }
+        } catch (Exception e) {
+            logger.warn("Replaying audit fallback file {} failed, will retry: {}", replay, e.getMessage());
+        }
+    }
+
+    private ReplayResult insertFromFile(Path file) {
+        long count = 0;
+        LocalDateTime oldest = null;
+        LocalDateTime newest = null;
+        List<AuditLog> chunk = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                AuditLog event = objectMapper.readValue(line, AuditLog.class);
+                chunk.add(event);
+                if (oldest == null || event.getTimestamp().isBefore(oldest)) {
+                    oldest = event.getTimestamp();
+                }
+                if (newest == null || event.getTimestamp().isAfter(newest)) {
+                    newest = event.getTimestamp();
+                }
+                if (chunk.size() == batchSize) {
+                    auditLogBatchRepository.insertBatch(chunk);
+                    count += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            auditLogBatchRepository.insertBatch(chunk);
+            count += chunk.size();
+        }
+        return new ReplayResult(count, oldest, newest);
+    }
+
+    private record ReplayResult(long count, LocalDateTime oldest, LocalDateTime newest) {
+    }
+
+    private static boolean hasWaiter(List<PendingEvent> batch) {
+        for (PendingEvent event : batch) {
+            if (event.stored() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // stored is only set for callers that wait for the write
+    private record PendingEvent(AuditLog event, CompletableFuture<Void> stored) {
+
+        void complete() {
+            if (stored != null) {
+                stored.complete(null);
+            }
+        }
+
+        void fail(Exception e) {
+            if (stored != null) {
+                stored.completeExceptionally(e);
+            }
+        }
+    }
+}
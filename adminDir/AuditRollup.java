@@ -0,0 +1,130 @@
+package com.music.musicstore.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Number of audit events per hour or day for one (action, admin, severity, success)
+ * combination. Maintained as events are written and re-derivable from audit_logs.
+ */
+@Entity
+@Table(name = "audit_log_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_audit_rollup_bucket",
+                                             columnNames = {"granularity", "bucket_start", "action", "admin_username", "severity", "success"}),
+       indexes = @Index(name = "idx_audit_rollup_range", columnList = "granularity, bucket_start"))
+public class AuditRollup {
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private Granularity granularity;
+
+    // Start of the hour or day this bucket covers
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "action", nullable = false)
+    private String action;
+
+    @Column(name = "admin_username", nullable = false)
+    private String adminUsername;
+
+    // Severity name, or UNKNOWN for events recorded without one
+    @Column(name = "severity", nullable = false, length = 16)
+    private String severity;
+
+    @Column(name = "success", nullable = false)
+    private boolean success;
+
+    // Coalesced audit rows count as their number of occurrences
+    @Column(name = "events", nullable = false)
+    private long events;
+
+    // Constructors
+    public AuditRollup() {
+    }
+
+    public AuditRollup(Granularity granularity, LocalDateTime bucketStart, String action, String adminUsername,
+                       String severity, boolean success, long events) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.action = action;
+        this.adminUsername = adminUsername;
+        this.severity = severity;
+        this.success = success;
+        this.events = events;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getAdminUsername() {
+        return adminUsername;
+    }
+
+    public void setAdminUsername(String adminUsername) {
+        this.adminUsername = adminUsername;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public void setEvents(long events) {
+        this.events = events;
+    }
+}
@@ -0,0 +1,132 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.AuditRollup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to audit_log_rollups for the audit writer and rebuilds: every bucket of a
+ * batch is written in one JDBC batch instead of an update-or-insert round trip per bucket.
+ *
+ * On PostgreSQL a batch is a single upsert and rebuilds take a table lock that keeps writers
+ * out. Other databases get a batched increment followed by a batched insert of the buckets
+ * that did not exist yet, and no rebuild lock: a writer batch that collides with a rebuild
+ * fails, goes to the writer's fallback file and is re-derived when that file is replayed.
+ */
+@Repository
+public class AuditRollupBatchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditRollupBatchRepository.class);
+
+    // Stored in place of a missing admin or severity; NULL never matches in the bucket key
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private static final String UPSERT =
+        "INSERT INTO audit_log_rollups (granularity, bucket_start, action, admin_username, severity, success, events)" +
+        " VALUES (?, ?, ?, COALESCE(?, '" + UNKNOWN + "'), COALESCE(?, '" + UNKNOWN + "'), ?, ?)" +
+        " ON CONFLICT (granularity, bucket_start, action, admin_username, severity, success)" +
+        " DO UPDATE SET events = audit_log_rollups.events + EXCLUDED.events";
+
+    private static final String INCREMENT =
+        "UPDATE audit_log_rollups SET events = events + ?" +
+        " WHERE granularity = ? AND bucket_start = ? AND action = ?" +
+        " AND admin_username = COALESCE(?, '" + UNKNOWN + "') AND severity = COALESCE(?, '" + UNKNOWN + "')" +
+        " AND success = ?";
+
+    private static final String INSERT =
+        "INSERT INTO audit_log_rollups (granularity, bucket_start, action, admin_username, severity, success, events)" +
+        " VALUES (?, ?, ?, COALESCE(?, '" + UNKNOWN + "'), COALESCE(?, '" + UNKNOWN + "'), ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    @Autowired
+    public AuditRollupBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = isPostgres(jdbcTemplate);
+        if (!postgres) {
+            logger.info("Audit rollups use increment-then-insert batches; rebuilds run without a table lock");
+        }
+    }
+
+    // Adds each row's events to its bucket, creating missing buckets; callers supply the transaction
+    public void upsertAll(List<AuditRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (postgres) {
+            jdbcTemplate.batchUpdate(UPSERT, deltas, deltas.size(), (ps, delta) -> {
+                ps.setString(1, delta.getGranularity().name());
+                ps.setTimestamp(2, Timestamp.valueOf(delta.getBucketStart()));
+                ps.setString(3, delta.getAction());
+                ps.setString(4, delta.getAdminUsername());
+                ps.setString(5, delta.getSeverity());
+                ps.setBoolean(6, delta.isSuccess());
+                ps.setLong(7, delta.getEvents());
+            });
+            return;
+        }
+
+        int[][] updated = jdbcTemplate.batchUpdate(INCREMENT, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.getEvents());
+            ps.setString(2, delta.getGranularity().name());
+            ps.setTimestamp(3, Timestamp.valueOf(delta.getBucketStart()));
+            ps.setString(4, delta.getAction());
+            ps.setString(5, delta.getAdminUsername());
+            ps.setString(6, delta.getSeverity());
+            ps.setBoolean(7, delta.isSuccess());
+        });
+        // A driver that reports SUCCESS_NO_INFO is taken to have updated the bucket
+        List<AuditRollup> missing = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(deltas.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, missing, missing.size(), (ps, delta) -> {
+            ps.setString(1, delta.getGranularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(delta.getBucketStart()));
+            ps.setString(3, delta.getAction());
+            ps.setString(4, delta.getAdminUsername());
+            ps.setString(5, delta.getSeverity());
+            ps.setBoolean(6, delta.isSuccess());
+            ps.setLong(7, delta.getEvents());
+        });
+    }
+
+    /**
+     * Blocks writers to the rollups until the caller's transaction ends. Audit batches add to the
+     * rollups in the transaction that inserts their rows, so a rebuild holding this lock sees
+     * every counted row and no batch can count a row twice or lose its increment to the rebuild.
+     * PostgreSQL only; elsewhere this does nothing and rebuilds should run while the writer is quiet.
+     */
+    public void lockForRebuild() {
+        if (postgres) {
+            jdbcTemplate.execute("LOCK TABLE audit_log_rollups IN SHARE ROW EXCLUSIVE MODE");
+        }
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                DatabaseMetaData::getDatabaseProductName);
+            return product != null && product.toLowerCase().contains("postgresql");
+        } catch (MetaDataAccessException e) {
+            logger.warn("Could not determine the database product, using portable audit rollup writes", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.AuditRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AuditRollupRepository extends JpaRepository<AuditRollup, Long> {
+
+    // Buckets of one granularity in [start, end)
+    List<AuditRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+        AuditRollup.Granularity granularity, LocalDateTime start, LocalDateTime end);
+
+    // One admin's buckets of one granularity in [start, end)
+    List<AuditRollup> findByGranularityAndAdminUsernameAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+        AuditRollup.Granularity granularity, String adminUsername, LocalDateTime start, LocalDateTime end);
+
+    @Modifying
+    @Query("DELETE FROM AuditRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end")
+    int deleteRange(@Param("granularity") AuditRollup.Granularity granularity,
+                    @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,251 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.models.AuditLog;
+import com.music.musicstore.models.AuditRollup;
+import com.music.musicstore.models.AuditRollup.Granularity;
+import com.music.musicstore.repositories.AuditLogBatchRepository;
+import com.music.musicstore.repositories.AuditRollupBatchRepository;
+import com.music.musicstore.repositories.AuditRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Hourly and daily audit event counts per (action, admin, severity, success), so action
+ * summaries and per-admin counts read rollup rows instead of grouping audit_logs.
+ *
+ * Buckets are incremented in the transaction that stores each audit batch, with one batched
+ * write, so raw rows and counts commit together. rebuild re-derives any range from the raw
+ * rows; on PostgreSQL it holds a lock that keeps batches out, so a rebuild racing with the
+ * writer neither loses nor double-counts events (see AuditRollupBatchRepository). Summaries read whole days from DAY buckets and
+ * only the partial days at either end from HOUR buckets.
+ */
+@Service
+public class AuditRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditRollupService.class);
+
+    // Bucket key value for events recorded without an admin or a severity
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final AuditRollupRepository auditRollupRepository;
+    private final AuditRollupBatchRepository auditRollupBatchRepository;
+    private final AuditLogBatchRepository auditLogBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean backfillChecked = false;
+
+    @Autowired
+    public AuditRollupService(AuditRollupRepository auditRollupRepository,
+                              AuditRollupBatchRepository auditRollupBatchRepository,
+                              AuditLogBatchRepository auditLogBatchRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.auditRollupRepository = auditRollupRepository;
+        this.auditRollupBatchRepository = auditRollupBatchRepository;
+        this.auditLogBatchRepository = auditLogBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        logger.info("AuditRollupService initialized successfully");
+    }
+
+    /**
+     * Count a batch of audit events into their hour and day buckets. Runs in the caller's
+     * transaction, the one inserting the events, and fails it if the rollups cannot be updated.
+     */
+    public void recordEvents(List<AuditLog> events) {
+        Map<BucketKey, Long> buckets = new HashMap<>();
+        for (AuditLog event : events) {
+            long occurrences = event.getOccurrences() != null ? event.getOccurrences() : 1;
+            addToKeys(buckets, event.getTimestamp(), event.getAction(), event.getAdminUsername(),
+                event.getSeverity() != null ? event.getSeverity().name() : null, Boolean.TRUE.equals(event.getSuccess()),
+                occurrences);
+        }
+        auditRollupBatchRepository.upsertAll(toRows(buckets));
+    }
+
+    /**
+     * Event totals in [from, to) by action, admin, severity and outcome, plus a daily series.
+     * With an admin username only that admin's buckets are read.
+     */
+    public Map<String, Object> getSummary(LocalDateTime from, LocalDateTime to, String adminUsername) {
+        Map<String, Long> byAction = new TreeMap<>();
+        Map<String, Long> byAdmin = new TreeMap<>();
+        Map<String, Long> bySeverity = new TreeMap<>();
+        Map<LocalDateTime, Long> daily = new TreeMap<>();
+        long total = 0;
+        long failed = 0;
+
+        List<AuditRollup> buckets = bucketsFor(from, to, adminUsername);
+        for (AuditRollup bucket : buckets) {
+            total += bucket.getEvents();
+            if (!bucket.isSuccess()) {
+                failed += bucket.getEvents();
+            }
+            byAction.merge(bucket.getAction(), bucket.getEvents(), Long::sum);
+            byAdmin.merge(bucket.getAdminUsername(), bucket.getEvents(), Long::sum);
+            bySeverity.merge(bucket.getSeverity(), bucket.getEvents(), Long::sum);
+            daily.merge(bucket.getBucketStart().truncatedTo(ChronoUnit.DAYS), bucket.getEvents(), Long::sum);
+        }
+
+        List<Map<String, Object>> dailySeries = new ArrayList<>();
+        daily.forEach((day, count) -> {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("date", day.toLocalDate());
+            point.put("events", count);
+            dailySeries.add(point);
+        });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("from", from);
+        summary.put("to", to);
+        summary.put("adminUsername", adminUsername);
+        summary.put("totalEvents", total);
+        summary.put("failedEvents", failed);
+        summary.put("byAction", byAction);
+        summary.put("byAdmin", byAdmin);
+        summary.put("bySeverity", bySeverity);
+        summary.put("daily", dailySeries);
+        summary.put("rollupRowsRead", buckets.size());
+        return summary;
+    }
+
+    /**
+     * Replace the buckets covering [from, to) with counts re-derived from audit_logs.
+     * The range is widened to whole days so hour and day buckets stay consistent. Audit
+     * batches wait until the rebuild commits, so keep ranges short while the writer is busy.
+     */
+    public Map<String, Object> rebuild(LocalDateTime from, LocalDateTime to) {
+        // Months moved to archive files have no raw rows left; their buckets are kept rather than zeroed
+        LocalDateTime oldestRaw = auditLogBatchRepository.findOldestTimestamp().orElse(to).truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime start = from.isBefore(oldestRaw) ? oldestRaw : from.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.DAYS).equals(to) ? to : to.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        logger.info("Rebuilding audit rollups for [{}, {})", start, end);
+        long started = System.currentTimeMillis();
+
+        // Memory is proportional to the number of buckets, not the number of audit rows. The scan runs
+        // after the lock is taken, so it sees every batch that has been counted and none that has not.
+        Map<BucketKey, Long> buckets = new HashMap<>();
+        long[] scanned = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            auditRollupBatchRepository.lockForRebuild();
+            auditLogBatchRepository.streamForRollup(start, end, rs -> {
+                Timestamp timestamp = rs.getTimestamp("timestamp");
+                int occurrences = rs.getInt("occurrences");
+                long count = rs.wasNull() || occurrences == 0 ? 1 : occurrences;
+                addToKeys(buckets, timestamp.toLocalDateTime(), rs.getString("action"), rs.getString("admin_username"),
+                    rs.getString("severity"), rs.getBoolean("success"), count);
+                scanned[0]++;
+            });
+            auditRollupRepository.deleteRange(Granularity.HOUR, start, end);
+            auditRollupRepository.deleteRange(Granularity.DAY, start, end);
+            auditRollupBatchRepository.upsertAll(toRows(buckets));
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start);
+        result.put("to", end);
+        result.put("auditRowsScanned", scanned[0]);
+        result.put("buckets", buckets.size());
+        result.put("durationMs", System.currentTimeMillis() - started);
+        logger.info("Audit rollup rebuild finished: {}", result);
+        return result;
+    }
+
+    /**
+     * One-off backfill from audit_logs when the rollup table is empty
+     */
+    @Scheduled(initialDelayString = "${app.audit.rollup.backfill-initial-delay-ms:20000}",
+               fixedDelay = Long.MAX_VALUE)
+    public void backfillIfEmpty() {
+        if (backfillChecked) {
+            return;
+        }
+        backfillChecked = true;
+
+        if (auditRollupRepository.count() > 0) {
+            logger.debug("Audit rollups already present, skipping backfill");
+            return;
+        }
+        try {
+            Optional<LocalDateTime> oldest = auditLogBatchRepository.findOldestTimestamp();
+            if (oldest.isEmpty()) {
+                return;
+            }
+            // A month at a time, so audit batches are only held up for one month's scan
+            LocalDateTime now = LocalDateTime.now();
+            for (LocalDateTime month = oldest.get().truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+                 month.isBefore(now); month = month.plusMonths(1)) {
+                LocalDateTime end = month.plusMonths(1);
+                rebuild(month, end.isBefore(now) ? end : now);
+            }
+        } catch (Exception e) {
+            logger.error("Audit rollup backfill failed", e);
+        }
+    }
+
+    // Whole days from DAY buckets, partial days at the edges from HOUR buckets; a null admin reads all admins
+    private List<AuditRollup> bucketsFor(LocalDateTime from, LocalDateTime to, String adminUsername) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime firstFullDay = start.truncatedTo(ChronoUnit.DAYS).equals(start)
+            ? start : start.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime lastFullDayEnd = to.truncatedTo(ChronoUnit.DAYS);
+
+        List<AuditRollup> buckets = new ArrayList<>();
+        if (!firstFullDay.isBefore(lastFullDayEnd)) {
+            buckets.addAll(bucketsOf(Granularity.HOUR, start, to, adminUsername));
+            return buckets;
+        }
+        buckets.addAll(bucketsOf(Granularity.HOUR, start, firstFullDay, adminUsername));
+        buckets.addAll(bucketsOf(Granularity.DAY, firstFullDay, lastFullDayEnd, adminUsername));
+        buckets.addAll(bucketsOf(Granularity.HOUR, lastFullDayEnd, to, adminUsername));
+        return buckets;
+    }
+
+    private List<AuditRollup> bucketsOf(Granularity granularity, LocalDateTime start, LocalDateTime end,
+                                        String adminUsername) {
+        if (!start.isBefore(end)) {
+            return List.of();
+        }
+        if (adminUsername != null) {
+            return auditRollupRepository.findByGranularityAndAdminUsernameAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+                granularity, adminUsername, start, end);
+        }
+        return auditRollupRepository.findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+            granularity, start, end);
+    }
+
+    private static void addToKeys(Map<BucketKey, Long> buckets, LocalDateTime when, String action, String adminUsername,
+                                  String severity, boolean success, long count) {
+        String severityName = severity != null ? severity : UNKNOWN;
+        String adminName = adminUsername != null ? adminUsername : UNKNOWN;
+        buckets.merge(new BucketKey(Granularity.HOUR, when.truncatedTo(ChronoUnit.HOURS), action, adminName,
+            severityName, success), count, Long::sum);
+        buckets.merge(new BucketKey(Granularity.DAY, when.truncatedTo(ChronoUnit.DAYS), action, adminName,
+            severityName, success), count, Long::sum);
+    }
+
+    private static List<AuditRollup> toRows(Map<BucketKey, Long> buckets) {
+        List<AuditRollup> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((key, count) -> rows.add(new AuditRollup(key.granularity(), key.bucketStart(), key.action(),
+            key.adminUsername(), key.severity(), key.success(), count)));
+        return rows;
+    }
+
+    private record BucketKey(Granularity granularity, LocalDateTime bucketStart, String action, String adminUsername,
+                             String severity, boolean success) {
+    }
+}
@@ -0,0 +1,377 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.events.OrderCompletedEvent;
+import com.music.musicstore.events.OrderRefundedEvent;
+import com.music.musicstore.events.SaleLine;
+import com.music.musicstore.repositories.OrderSalesRepository;
+import com.music.musicstore.utils.SpaceSaving;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory best sellers over the last hour, day and week, globally and per genre and artist.
+ *
+ * Each scope keeps, per window, a ring of Space-Saving summaries, one per time bucket. A
+ * purchase adds to the bucket of its order date only. The closed buckets are merged once
+ * per bucket change, so a query merges that summary with the current bucket: O(K) work,
+ * independent of traffic and without reading orders. Windows are exact to within one bucket
+ * and counts are Space-Saving estimates, which may overcount by at most the reported error.
+ *
+ * Sales arrive as OrderCompletedEvents, published by OrderService and handled after the
+ * order commits; OrderRefundedEvents take the refunded copies back out of the bucket of the
+ * sale, so counts are net units like the daily sales facts' best-seller lists. Orders dated
+ * before startup are read once from the orders table instead, and live events for them are
+ * ignored so nothing is counted twice. A window is cold until that read covers it and at
+ * least one sale has been counted, and callers should read the daily sales facts instead.
+ */
+@Service
+public class BestSellerTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(BestSellerTracker.class);
+
+    private static final String GLOBAL = "global";
+    private static final String REFUNDED = "REFUNDED";
+
+    public enum Window {
+        HOUR(Duration.ofHours(1), Duration.ofMinutes(5)),
+        DAY(Duration.ofDays(1), Duration.ofHours(1)),
+        WEEK(Duration.ofDays(7), Duration.ofHours(6));
+
+        private final long windowMillis;
+        private final long bucketMillis;
+
+        Window(Duration window, Duration bucket) {
+            this.windowMillis = window.toMillis();
+            this.bucketMillis = bucket.toMillis();
+        }
+
+        public Duration getDuration() {
+            return Duration.ofMillis(windowMillis);
+        }
+    }
+
+    private final OrderSalesRepository orderSalesRepository;
+    private final TransactionTemplate readTemplate;
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>();
+    // Orders dated from here on are counted from events; older ones by the warm-up read
+    private volatile long liveSince = System.currentTimeMillis();
+    // Every order since this time has been counted; Long.MAX_VALUE until the warm-up read completes
+    private volatile long coveredSince = Long.MAX_VALUE;
+    // Held while events are counted, so a failed warm-up can clear the counts without losing one
+    private final Object intakeLock = new Object();
+    private final int globalCapacity;
+    private final int scopedCapacity;
+
+    private final LongAdder recordedUnits = new LongAdder();
+    private final LongAdder retractedUnits = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+
+    @Autowired
+    public BestSellerTracker(OrderSalesRepository orderSalesRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.sales.best-sellers.capacity:100}") int globalCapacity,
+                             @Value("${app.sales.best-sellers.scoped-capacity:20}") int scopedCapacity) {
+        this.orderSalesRepository = orderSalesRepository;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.globalCapacity = globalCapacity;
+        this.scopedCapacity = scopedCapacity;
+        scopes.put(GLOBAL, new Scope(globalCapacity));
+        logger.info("BestSellerTracker initialized with capacity {} global, {} per genre and artist",
+            globalCapacity, scopedCapacity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCompleted(OrderCompletedEvent event) {
+        long orderedAt = toEpochMillis(event.getOrderDate());
+        synchronized (intakeLock) {
+            if (orderedAt < liveSince) {
+                return;
+            }
+            for (SaleLine line : event.getLines()) {
+                record(line.musicId(), line.artistUsername(), line.genre(), line.quantity(), orderedAt);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderRefunded(OrderRefundedEvent event) {
+        long orderedAt = toEpochMillis(event.getOrderDate());
+        synchronized (intakeLock) {
+            // Until the warm-up read is done, an older order is counted by that read, as refunded or not
+            if (orderedAt < liveSince && coveredSince == Long.MAX_VALUE) {
+                return;
+            }
+            for (SaleLine line : event.getLines()) {
+                retract(line.musicId(), line.artistUsername(), line.genre(), line.quantity(), orderedAt);
+            }
+        }
+    }
+
+    /**
+     * One-time read of the week before startup, so the windows are warm without waiting a week.
+     * A failed read clears the counts and is retried, reading up to the time of the retry.
+     */
+    @Scheduled(initialDelayString = "${app.sales.best-sellers.warm-up-initial-delay-ms:15000}",
+               fixedDelayString = "${app.sales.best-sellers.warm-up-retry-ms:300000}")
+    public void warmUp() {
+        if (coveredSince != Long.MAX_VALUE) {
+            return;
+        }
+        long until = liveSince;
+        LocalDateTime to = LocalDateTime.ofInstant(Instant.ofEpochMilli(until), ZoneId.systemDefault());
+        LocalDateTime from = to.minus(Window.WEEK.getDuration());
+        long[] lines = {0};
+        try {
+            readTemplate.executeWithoutResult(status -> orderSalesRepository.streamSoldLines(from, to, rs -> {
+                if (!REFUNDED.equals(rs.getString("status"))) {
+                    record(rs.getLong("music_id"), rs.getString("artist_username"), rs.getString("genre"), 1,
+                        toEpochMillis(rs.getTimestamp("order_date").toLocalDateTime()));
+                    lines[0]++;
+                }
+            }));
+            coveredSince = toEpochMillis(from);
+            logger.info("Best-seller tracker warmed up with {} order lines since {}", lines[0], from);
+        } catch (Exception e) {
+            logger.error("Best-seller tracker warm-up failed, retrying on the next run", e);
+            synchronized (intakeLock) {
+                // Counts from events are dropped too, so the retry reads everything up to now
+                liveSince = System.currentTimeMillis();
+                scopes.clear();
+                scopes.put(GLOBAL, new Scope(globalCapacity));
+                recordedUnits.reset();
+                retractedUnits.reset();
+            }
+        }
+    }
+
+    /**
+     * Count units of a track sold at the given time in its global, genre and artist scopes
+     */
+    public void record(Long musicId, String artistUsername, String genre, long units, long epochMillis) {
+        if (musicId == null || units <= 0) {
+            return;
+        }
+        scopes.get(GLOBAL).add(musicId, units, epochMillis);
+        if (genre != null && !genre.isBlank()) {
+            scopes.computeIfAbsent(genreKey(genre), key -> new Scope(scopedCapacity)).add(musicId, units, epochMillis);
+        }
+        if (artistUsername != null) {
+            scopes.computeIfAbsent(artistKey(artistUsername), key -> new Scope(scopedCapacity))
+                .add(musicId, units, epochMillis);
+        }
+        recordedUnits.add(units);
+    }
+
+    /**
+     * Take refunded units of a track back out of the buckets of the time they were sold
+     */
+    public void retract(Long musicId, String artistUsername, String genre, long units, long epochMillis) {
+        if (musicId == null || units <= 0) {
+            return;
+        }
+        scopes.get(GLOBAL).subtract(musicId, units, epochMillis);
+        if (genre != null && !genre.isBlank()) {
+            Scope scope = scopes.get(genreKey(genre));
+            if (scope != null) {
+                scope.subtract(musicId, units, epochMillis);
+            }
+        }
+        if (artistUsername != null) {
+            Scope scope = scopes.get(artistKey(artistUsername));
+            if (scope != null) {
+                scope.subtract(musicId, units, epochMillis);
+            }
+        }
+        retractedUnits.add(units);
+    }
+
+    /**
+     * True once the tracker has counted sales and has seen every order of the whole window
+     */
+    public boolean isWarm(Window window) {
+        long since = coveredSince;
+        return since != Long.MAX_VALUE && recordedUnits.sum() > 0
+            && System.currentTimeMillis() - since >= window.windowMillis;
+    }
+
+    public List<SpaceSaving.Estimate> getTop(Window window, int limit) {
+        return top(GLOBAL, window, limit);
+    }
+
+    public List<SpaceSaving.Estimate> getTopForGenre(String genre, Window window, int limit) {
+        return top(genreKey(genre), window, limit);
+    }
+
+    public List<SpaceSaving.Estimate> getTopForArtist(String artistUsername, Window window, int limit) {
+        return top(artistKey(artistUsername), window, limit);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long since = coveredSince;
+        stats.put("coveredSince", since != Long.MAX_VALUE
+            ? LocalDateTime.ofInstant(Instant.ofEpochMilli(since), ZoneId.systemDefault()) : null);
+        Map<String, Boolean> warm = new LinkedHashMap<>();
+        for (Window window : Window.values()) {
+            warm.put(window.name(), isWarm(window));
+        }
+        stats.put("warmWindows", warm);
+        stats.put("scopes", scopes.size());
+        stats.put("recordedUnits", recordedUnits.sum());
+        stats.put("retractedUnits", retractedUnits.sum());
+        stats.put("queries", queries.sum());
+        stats.put("globalCapacity", globalCapacity);
+        stats.put("scopedCapacity", scopedCapacity);
+        return stats;
+    }
+
+    // A sale racing with eviction can land on a dropped scope; it is older than the week anyway
+    @Scheduled(fixedDelayString = "${app.sales.best-sellers.cleanup-interval-ms:3600000}")
+    public void evictIdleScopes() {
+        long cutoff = System.currentTimeMillis() - Window.WEEK.windowMillis;
+        scopes.entrySet().removeIf(entry -> !entry.getKey().equals(GLOBAL) && entry.getValue().lastSaleAt < cutoff);
+    }
+
+    private List<SpaceSaving.Estimate> top(String scopeKey, Window window, int limit) {
+        queries.increment();
+        Scope scope = scopes.get(scopeKey);
+        return scope != null ? scope.top(window, limit, System.currentTimeMillis()) : List.of();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String genreKey(String genre) {
+        return "genre:" + genre;
+    }
+
+    private static String artistKey(String artistUsername) {
+        return "artist:" + artistUsername;
+    }
+
+    private static final class Scope {
+        private final WindowedSummary[] windows;
+        private volatile long lastSaleAt;
+
+        private Scope(int capacity) {
+            Window[] all = Window.values();
+            this.windows = new WindowedSummary[all.length];
+            for (Window window : all) {
+                windows[window.ordinal()] = new WindowedSummary(window, capacity);
+            }
+        }
+
+        private void add(long musicId, long units, long epochMillis) {
+            for (WindowedSummary window : windows) {
+                window.add(musicId, units, epochMillis);
+            }
+            lastSaleAt = Math.max(lastSaleAt, epochMillis);
+        }
+
+        private void subtract(long musicId, long units, long epochMillis) {
+            for (WindowedSummary window : windows) {
+                window.subtract(musicId, units, epochMillis);
+            }
+        }
+
+        private List<SpaceSaving.Estimate> top(Window window, int limit, long now) {
+            return windows[window.ordinal()].top(limit, now);
+        }
+    }
+
+    // Ring of per-bucket summaries; the window is the current bucket plus the closed ones before it
+    private static final class WindowedSummary {
+        private final long bucketMillis;
+        private final int capacity;
+        private final SpaceSaving[] ring;
+        private final long[] ringBuckets;
+        private SpaceSaving closed;
+        private long closedAsOf = Long.MIN_VALUE;
+
+        private WindowedSummary(Window window, int capacity) {
+            this.bucketMillis = window.bucketMillis;
+            this.capacity = capacity;
+            int buckets = (int) (window.windowMillis / window.bucketMillis);
+            this.ring = new SpaceSaving[buckets];
+            this.ringBuckets = new long[buckets];
+            Arrays.fill(ringBuckets, Long.MIN_VALUE);
+        }
+
+        private synchronized void add(long musicId, long units, long epochMillis) {
+            long bucket = epochMillis / bucketMillis;
+            int index = (int) (bucket % ring.length);
+            if (ringBuckets[index] > bucket) {
+                // An order older than the window; its slot already holds a newer bucket
+                return;
+            }
+            if (ringBuckets[index] != bucket) {
+                // Summaries are allocated on first use, so quiet genres and artists stay small
+                if (ring[index] == null) {
+                    ring[index] = new SpaceSaving(capacity);
+                } else {
+                    ring[index].clear();
+                }
+                ringBuckets[index] = bucket;
+            }
+            ring[index].add(musicId, units);
+            if (bucket < closedAsOf) {
+                // A late order in a closed bucket; merge the closed buckets again on the next query
+                closedAsOf = Long.MIN_VALUE;
+            }
+        }
+
+        // Only the sale's own bucket is lowered; once it has left the ring the refund has nothing to undo
+        private synchronized void subtract(long musicId, long units, long epochMillis) {
+            long bucket = epochMillis / bucketMillis;
+            int index = (int) (bucket % ring.length);
+            if (ring[index] == null || ringBuckets[index] != bucket) {
+                return;
+            }
+            ring[index].subtract(musicId, units);
+            if (bucket < closedAsOf) {
+                closedAsOf = Long.MIN_VALUE;
+            }
+        }
+
+        private synchronized List<SpaceSaving.Estimate> top(int limit, long now) {
+            long bucket = now / bucketMillis;
+            if (closedAsOf != bucket) {
+                closed = new SpaceSaving(capacity);
+                for (int i = 0; i < ring.length; i++) {
+                    if (ring[i] != null && ringBuckets[i] < bucket && ringBuckets[i] > bucket - ring.length) {
+                        closed.addAll(ring[i]);
+                    }
+                }
+                closedAsOf = bucket;
+            }
+
+            int index = (int) (bucket % ring.length);
+            if (ring[index] == null || ringBuckets[index] != bucket || ring[index].isEmpty()) {
+                return closed.top(limit);
+            }
+            SpaceSaving window = closed.copy();
+            window.addAll(ring[index]);
+            return window.top(limit);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.music.musicstore.dto;
+
+import java.time.LocalDateTime;
+
+public class BulkUserJobStatus {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private String jobId;
+    private String operation;
+    private String requestedBy;
+    private State state;
+    private Long totalRequested; // Known up front for id lists, null for filters
+    private long processed;
+    private long changed;
+    private long skipped;
+    private int chunksCompleted;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public BulkUserJobStatus() {}
+
+    // Getters and setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+    public String getRequestedBy() { return requestedBy; }
+    public void setRequestedBy(String requestedBy) { this.requestedBy = requestedBy; }
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+    public Long getTotalRequested() { return totalRequested; }
+    public void setTotalRequested(Long totalRequested) { this.totalRequested = totalRequested; }
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+    public long getChanged() { return changed; }
+    public void setChanged(long changed) { this.changed = changed; }
+    public long getSkipped() { return skipped; }
+    public void setSkipped(long skipped) { this.skipped = skipped; }
+    public int getChunksCompleted() { return chunksCompleted; }
+    public void setChunksCompleted(int chunksCompleted) { this.chunksCompleted = chunksCompleted; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,424 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.dto.AuditContext;
+import com.music.musicstore.dto.BulkUserJobStatus;
+import com.music.musicstore.dto.BulkUserJobStatus.State;
+import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.exceptions.BusinessRuleException;
+import com.music.musicstore.exceptions.ResourceNotFoundException;
+import com.music.musicstore.exceptions.ServiceUnavailableException;
+import com.music.musicstore.exceptions.ValidationException;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import com.music.musicstore.repositories.UserWriteRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Background jobs that enable or disable many users at once.
+ *
+ * Targets are either an explicit id list (for one role) or a filter over the user directory.
+ * Each chunk is applied with one UPDATE per role table and summarised in a single audit entry.
+ * Jobs run one at a time on a dedicated thread; progress is kept in memory for polling.
+ * A disable job never leaves the requester as the only enabled admin: one whose selection
+ * covers every other enabled admin is refused, and each chunk re-checks before disabling.
+ */
+@Service
+public class BulkUserOperationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserOperationService.class);
+
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    private static final String ADMIN = "ADMIN";
+
+    private final UserDirectoryRepository userDirectoryRepository;
+    private final UserWriteRepository userWriteRepository;
+    private final UserIdentityService userIdentityService;
+    private final AuditLogService auditLogService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.users.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.users.bulk.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+
+    @Autowired
+    public BulkUserOperationService(UserDirectoryRepository userDirectoryRepository,
+                                    UserWriteRepository userWriteRepository,
+                                    UserIdentityService userIdentityService,
+                                    AuditLogService auditLogService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.users.bulk.max-queued-jobs:10}") int maxQueuedJobs) {
+        this.userDirectoryRepository = userDirectoryRepository;
+        this.userWriteRepository = userWriteRepository;
+        this.userIdentityService = userIdentityService;
+        this.auditLogService = auditLogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueuedJobs),
+            runnable -> {
+                Thread thread = new Thread(runnable, "bulk-user-jobs");
+                thread.setDaemon(true);
+                return thread;
+            });
+        logger.info("BulkUserOperationService initialized successfully");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelRequested = true);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a job that sets enabled = targetEnabled on the selected users.
+     * onChanged receives each chunk of users whose status actually changed (with their previous state).
+     */
+    public BulkUserJobStatus submitStatusChange(BulkStatusSpec spec, String requestedBy,
+                                                BiConsumer<List<UserDto>, Boolean> onChanged) {
+        validate(spec);
+        if (!spec.targetEnabled()) {
+            checkLeavesAnotherAdmin(spec, requestedBy);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), spec, requestedBy, onChanged);
+        job.update(status -> status.setTotalRequested(spec.userIds() != null ? (long) spec.userIds().size() : null));
+        evictFinishedJobs();
+        jobs.put(job.id, job);
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new ServiceUnavailableException("Too many bulk user jobs are queued, please retry later");
+        }
+
+        logger.info("Queued bulk job {} ({}) for {}", job.id, job.status.getOperation(), requestedBy);
+        return getStatus(job.id);
+    }
+
+    public BulkUserJobStatus getStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Bulk job", jobId);
+        }
+        return job.snapshot();
+    }
+
+    public List<BulkUserJobStatus> getJobs() {
+        return jobs.values().stream()
+            .map(Job::snapshot)
+            .sorted((a, b) -> b.getSubmittedAt().compareTo(a.getSubmittedAt()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Stop a queued or running job after its current chunk
+     */
+    public BulkUserJobStatus cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Bulk job", jobId);
+        }
+        job.cancelRequested = true;
+        return job.snapshot();
+    }
+
+    private void run(Job job) {
+        job.update(status -> {
+            status.setState(State.RUNNING);
+            status.setStartedAt(LocalDateTime.now());
+        });
+        logger.info("Starting bulk job {}", job.id);
+
+        try {
+            if (job.spec.userIds() != null) {
+                runForIds(job);
+            } else {
+                runForFilter(job);
+            }
+            job.update(status -> {
+                status.setState(job.cancelRequested ? State.CANCELLED : State.COMPLETED);
+                status.setFinishedAt(LocalDateTime.now());
+            });
+            BulkUserJobStatus finished = job.snapshot();
+            logger.info("Bulk job {} {}: {} processed, {} changed, {} skipped", job.id, finished.getState(),
+                finished.getProcessed(), finished.getChanged(), finished.getSkipped());
+        } catch (Exception e) {
+            logger.error("Bulk job {} failed", job.id, e);
+            job.update(status -> {
+                status.setState(State.FAILED);
+                status.setError(e.getMessage());
+                status.setFinishedAt(LocalDateTime.now());
+            });
+            auditLogService.logFailedAdminAction(job.requestedBy, "BULK_USER_STATUS_CHANGE", "USER", null,
+                String.format("Bulk job %s failed: %s", job.id, e.getMessage()), job.auditContext);
+        }
+    }
+
+    private void runForIds(Job job) throws InterruptedException {
+        List<Long> ids = job.spec.userIds();
+        for (int from = 0; from < ids.size() && !job.cancelRequested; from += chunkSize) {
+            List<Long> chunkIds = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            List<UserDto> users = userDirectoryRepository.findByIds(job.spec.role(), chunkIds);
+            // Ids that do not exist count as processed but skipped
+            applyChunk(job, users, chunkIds.size());
+            pauseBetweenChunks();
+        }
+    }
+
+    private void runForFilter(Job job) throws InterruptedException {
+        String afterRole = null;
+        Long afterId = null;
+        while (!job.cancelRequested) {
+            List<UserDto> users = userDirectoryRepository.findMatchingAfter(job.spec.role(), job.spec.enabledFilter(),
+                job.spec.createdFrom(), job.spec.createdTo(), afterRole, afterId, chunkSize);
+            if (users.isEmpty()) {
+                return;
+            }
+            applyChunk(job, users, users.size());
+
+            UserDto last = users.get(users.size() - 1);
+            afterRole = last.getRole();
+            afterId = last.getId();
+            if (users.size() < chunkSize) {
+                return;
+            }
+            pauseBetweenChunks();
+        }
+    }
+
+    private void applyChunk(Job job, List<UserDto> users, int requested) {
+        boolean target = job.spec.targetEnabled();
+        List<UserDto> candidates = users.stream()
+            .filter(user -> user.isEnabled() != target)
+            // Never let an admin lock themselves out with a broad filter
+            .filter(user -> target || !(ADMIN.equals(user.getRole()) && user.getUsername().equals(job.requestedBy)))
+            .toList();
+        List<UserDto> toChange = target ? candidates : keepAnotherAdminEnabled(job, candidates);
+
+        Map<String, List<UserDto>> byRole = toChange.stream()
+            .collect(Collectors.groupingBy(UserDto::getRole, LinkedHashMap::new, Collectors.toList()));
+        int updated = 0;
+        if (!byRole.isEmpty()) {
+            Integer count = transactionTemplate.execute(status -> {
+                int total = 0;
+                for (Map.Entry<String, List<UserDto>> entry : byRole.entrySet()) {
+                    List<Long> ids = entry.getValue().stream().map(UserDto::getId).toList();
+                    total += userWriteRepository.updateEnabled(entry.getKey(), ids, target);
+                    // Versions move with the status change, so stale profile edits are rejected
+                    userIdentityService.bumpVersions(entry.getKey(), ids);
+                }
+                return total;
+            });
+            updated = count != null ? count : 0;
+            // UserDtos still carry the previous state, which the hooks use to adjust counters
+            job.onChanged.accept(toChange, target);
+        }
+
+        int changed = updated;
+        job.update(status -> {
+            status.setProcessed(status.getProcessed() + requested);
+            status.setChanged(status.getChanged() + changed);
+            status.setSkipped(status.getSkipped() + requested - changed);
+            status.setChunksCompleted(status.getChunksCompleted() + 1);
+        });
+
+        if (changed > 0) {
+            BulkUserJobStatus progress = job.snapshot();
+            auditLogService.logAdminAction(job.requestedBy, "BULK_USER_STATUS_CHANGE", "USER", null,
+                String.format("Bulk job %s chunk %d: %s %d user(s) - %s", job.id, progress.getChunksCompleted(),
+                    target ? "enabled" : "disabled", changed, describeIds(byRole)),
+                job.auditContext);
+        }
+    }
+
+    /**
+     * Refuse a disable job whose selection covers every enabled admin other than the requester
+     */
+    private void checkLeavesAnotherAdmin(BulkStatusSpec spec, String requestedBy) {
+        if ((spec.role() != null && !ADMIN.equals(spec.role())) || Boolean.FALSE.equals(spec.enabledFilter())) {
+            return;
+        }
+        List<UserDto> otherAdmins = enabledAdminsExcept(requestedBy);
+        Set<Long> ids = spec.userIds() != null ? new HashSet<>(spec.userIds()) : null;
+        long selected = otherAdmins.stream()
+            .filter(admin -> ids != null ? ids.contains(admin.getId()) : isCreatedInRange(admin, spec))
+            .count();
+        if (selected > 0 && selected >= otherAdmins.size()) {
+            throw new BusinessRuleException("Bulk disable would leave no enabled admin other than " + requestedBy);
+        }
+    }
+
+    // Admins may have been enabled or disabled since the job was accepted, so the guard is re-checked per chunk
+    private List<UserDto> keepAnotherAdminEnabled(Job job, List<UserDto> candidates) {
+        List<UserDto> admins = candidates.stream().filter(user -> ADMIN.equals(user.getRole())).toList();
+        if (admins.isEmpty()) {
+            return candidates;
+        }
+        int allowed = Math.max(0, enabledAdminsExcept(job.requestedBy).size() - 1);
+        if (admins.size() <= allowed) {
+            return candidates;
+        }
+        Set<UserDto> refused = new HashSet<>(admins.subList(allowed, admins.size()));
+        logger.warn("Bulk job {} skipped disabling {} admin(s) to keep another admin enabled", job.id, refused.size());
+        return candidates.stream().filter(user -> !refused.contains(user)).toList();
+    }
+
+    private List<UserDto> enabledAdminsExcept(String username) {
+        List<UserDto> admins = new ArrayList<>();
+        String afterRole = null;
+        Long afterId = null;
+        while (true) {
+            List<UserDto> page = userDirectoryRepository.findMatchingAfter(ADMIN, true, null, null, afterRole, afterId,
+                chunkSize);
+            page.stream().filter(admin -> !admin.getUsername().equals(username)).forEach(admins::add);
+            if (page.size() < chunkSize) {
+                return admins;
+            }
+            UserDto last = page.get(page.size() - 1);
+            afterRole = last.getRole();
+            afterId = last.getId();
+        }
+    }
+
+    // Same bounds as the directory filter: createdFrom inclusive, createdTo exclusive
+    private static boolean isCreatedInRange(UserDto user, BulkStatusSpec spec) {
+        if (spec.createdFrom() == null && spec.createdTo() == null) {
+            return true;
+        }
+        LocalDateTime createdAt = user.getCreatedAt();
+        return createdAt != null
+            && (spec.createdFrom() == null || !createdAt.isBefore(spec.createdFrom()))
+            && (spec.createdTo() == null || createdAt.isBefore(spec.createdTo()));
+    }
+
+    private static String describeIds(Map<String, List<UserDto>> byRole) {
+        return byRole.entrySet().stream()
+            .map(entry -> entry.getKey() + entry.getValue().stream().map(user -> String.valueOf(user.getId()))
+                .collect(Collectors.joining(",", "[", "]")))
+            .collect(Collectors.joining(" "));
+    }
+
+    private void pauseBetweenChunks() throws InterruptedException {
+        // Gives other writers a chance at the same tables between chunks
+        if (chunkPauseMs > 0) {
+            Thread.sleep(chunkPauseMs);
+        }
+    }
+
+    private static void validate(BulkStatusSpec spec) {
+        if (spec.userIds() != null) {
+            if (spec.userIds().isEmpty()) {
+                throw new ValidationException("User id list cannot be empty");
+            }
+            if (spec.role() == null || spec.role().trim().isEmpty()) {
+                // Ids are only unique within one role table
+                throw new ValidationException("Role is required when selecting users by id");
+            }
+        }
+        if (spec.role() != null && !spec.role().trim().isEmpty()
+                && !UserDirectoryRepository.ROLES.contains(UserDirectoryRepository.normalizeRole(spec.role()))) {
+            throw new ValidationException("Invalid role: " + spec.role());
+        }
+        if (spec.createdFrom() != null && spec.createdTo() != null && spec.createdFrom().isAfter(spec.createdTo())) {
+            throw new ValidationException("createdFrom cannot be after createdTo");
+        }
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() < MAX_RETAINED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+            .map(Job::snapshot)
+            .filter(status -> status.getFinishedAt() != null)
+            .sorted((a, b) -> a.getFinishedAt().compareTo(b.getFinishedAt()))
+            .limit(jobs.size() - MAX_RETAINED_JOBS + 1L)
+            .forEach(status -> jobs.remove(status.getJobId()));
+    }
+
+    /**
+     * What a status job should touch: an id list for one role, or a filter (all fields optional)
+     */
+    public record BulkStatusSpec(String role, List<Long> userIds, Boolean enabledFilter,
+                                 LocalDateTime createdFrom, LocalDateTime createdTo, boolean targetEnabled) {
+        public BulkStatusSpec {
+            role = role != null && !role.trim().isEmpty() ? UserDirectoryRepository.normalizeRole(role) : null;
+            userIds = userIds != null ? userIds.stream().filter(Objects::nonNull).distinct().toList() : null;
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final BulkStatusSpec spec;
+        private final String requestedBy;
+        private final BiConsumer<List<UserDto>, Boolean> onChanged;
+        // Context of the submitting request, so chunk audit entries share its correlation id
+        private final AuditContext auditContext = AuditContext.current();
+        private final BulkUserJobStatus status = new BulkUserJobStatus();
+        private volatile boolean cancelRequested;
+
+        private Job(String id, BulkStatusSpec spec, String requestedBy, BiConsumer<List<UserDto>, Boolean> onChanged) {
+            this.id = id;
+            this.spec = spec;
+            this.requestedBy = requestedBy;
+            this.onChanged = onChanged;
+            status.setJobId(id);
+            status.setOperation(spec.targetEnabled() ? "ENABLE" : "DISABLE");
+            status.setRequestedBy(requestedBy);
+            status.setState(State.QUEUED);
+            status.setSubmittedAt(LocalDateTime.now());
+        }
+
+        private synchronized void update(Consumer<BulkUserJobStatus> change) {
+            change.accept(status);
+        }
+
+        private synchronized BulkUserJobStatus snapshot() {
+            BulkUserJobStatus copy = new BulkUserJobStatus();
+            copy.setJobId(status.getJobId());
+            copy.setOperation(status.getOperation());
+            copy.setRequestedBy(status.getRequestedBy());
+            copy.setState(status.getState());
+            copy.setTotalRequested(status.getTotalRequested());
+            copy.setProcessed(status.getProcessed());
+            copy.setChanged(status.getChanged());
+            copy.setSkipped(status.getSkipped());
+            copy.setChunksCompleted(status.getChunksCompleted());
+            copy.setSubmittedAt(status.getSubmittedAt());
+            copy.setStartedAt(status.getStartedAt());
+            copy.setFinishedAt(status.getFinishedAt());
+            copy.setError(status.getError());
+            return copy;
+        }
+    }
+}
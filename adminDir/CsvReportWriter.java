@@ -0,0 +1,47 @@
+package com.music.musicstore.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes report rows as RFC 4180 CSV with a section,metric,value header.
+ */
+public final class CsvReportWriter {
+
+    private CsvReportWriter() {
+    }
+
+    public static void write(List<ReportRows.Row> rows, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("section,metric,value\r\n");
+        for (ReportRows.Row row : rows) {
+            writeField(writer, row.section(), false);
+            writer.write(',');
+            writeField(writer, row.metric(), false);
+            writer.write(',');
+            writeField(writer, row.value(), row.numeric());
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    // Same quoting as the user export: a leading formula character is prefixed so spreadsheets don't evaluate
+    // it; numbers are written as is so negative values stay numeric
+    private static void writeField(Writer writer, String value, boolean numeric) throws IOException {
+        String safe = !numeric && !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        boolean needsQuotes = safe.indexOf(',') >= 0 || safe.indexOf('"') >= 0
+            || safe.indexOf('\n') >= 0 || safe.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(safe);
+            return;
+        }
+        writer.write('"');
+        writer.write(safe.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
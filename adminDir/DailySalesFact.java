@@ -0,0 +1,140 @@
+package com.music.musicstore.models;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Units sold, revenue and refunds for one track on one day. Artist and genre are copied from
+ * the track when the row is created so sales can be grouped by them without joining music.
+ * Maintained as orders complete and are refunded, and re-derivable from orders.
+ */
+@Entity
+@Table(name = "daily_sales_facts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_sales_fact", columnNames = {"sales_date", "music_id"}),
+       indexes = {
+           @Index(name = "idx_daily_sales_date", columnList = "sales_date"),
+           @Index(name = "idx_daily_sales_artist_date", columnList = "artist_username, sales_date"),
+           @Index(name = "idx_daily_sales_genre_date", columnList = "genre, sales_date")
+       })
+public class DailySalesFact {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "music_id", nullable = false)
+    private Long musicId;
+
+    @Column(name = "artist_username", nullable = false)
+    private String artistUsername;
+
+    // Genre name, or Unknown for tracks without one
+    @Column(name = "genre", nullable = false)
+    private String genre;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    // Refunds count against the day of the sale they reverse, not the day of the refund
+    @Column(name = "refunded_units", nullable = false)
+    private long refundedUnits;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal refundedAmount;
+
+    // Constructors
+    public DailySalesFact() {
+    }
+
+    public DailySalesFact(LocalDate salesDate, Long musicId, String artistUsername, String genre, long units,
+                          BigDecimal revenue, long refundedUnits, BigDecimal refundedAmount) {
+        this.salesDate = salesDate;
+        this.musicId = musicId;
+        this.artistUsername = artistUsername;
+        this.genre = genre;
+        this.units = units;
+        this.revenue = revenue;
+        this.refundedUnits = refundedUnits;
+        this.refundedAmount = refundedAmount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+
+    public Long getMusicId() {
+        return musicId;
+    }
+
+    public void setMusicId(Long musicId) {
+        this.musicId = musicId;
+    }
+
+    public String getArtistUsername() {
+        return artistUsername;
+    }
+
+    public void setArtistUsername(String artistUsername) {
+        this.artistUsername = artistUsername;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getRefundedUnits() {
+        return refundedUnits;
+    }
+
+    public void setRefundedUnits(long refundedUnits) {
+        this.refundedUnits = refundedUnits;
+    }
+
+    public BigDecimal getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    public void setRefundedAmount(BigDecimal refundedAmount) {
+        this.refundedAmount = refundedAmount;
+    }
+}
@@ -0,0 +1,94 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.DailySalesFact;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Daily sales facts. Every range below is [start, end) on sales_date, so queries read
+ * at most one row per track per day and never touch orders.
+ */
+@Repository
+public interface DailySalesFactRepository extends JpaRepository<DailySalesFact, Long> {
+
+    // Increment an existing fact; returns 0 when the row for that day and track does not exist yet
+    @Modifying
+    @Query("UPDATE DailySalesFact f SET f.units = f.units + :units, f.revenue = f.revenue + :revenue, " +
+           "f.refundedUnits = f.refundedUnits + :refundedUnits, f.refundedAmount = f.refundedAmount + :refundedAmount " +
+           "WHERE f.salesDate = :salesDate AND f.musicId = :musicId")
+    int increment(@Param("salesDate") LocalDate salesDate,
+                  @Param("musicId") Long musicId,
+                  @Param("units") long units,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("refundedUnits") long refundedUnits,
+                  @Param("refundedAmount") BigDecimal refundedAmount);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesFact f WHERE f.salesDate >= :start AND f.salesDate < :end")
+    int deleteRange(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT MIN(f.salesDate) FROM DailySalesFact f")
+    Optional<LocalDate> findOldestSalesDate();
+
+    // [units, revenue, refundedUnits, refundedAmount]
+    @Query("SELECT COALESCE(SUM(f.units), 0), COALESCE(SUM(f.revenue), 0), " +
+           "COALESCE(SUM(f.refundedUnits), 0), COALESCE(SUM(f.refundedAmount), 0) " +
+           "FROM DailySalesFact f WHERE f.salesDate >= :start AND f.salesDate < :end")
+    List<Object[]> sumRange(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // [salesDate, units, revenue, refundedUnits, refundedAmount], oldest first
+    @Query("SELECT f.salesDate, SUM(f.units), SUM(f.revenue), SUM(f.refundedUnits), SUM(f.refundedAmount) " +
+           "FROM DailySalesFact f WHERE f.salesDate >= :start AND f.salesDate < :end " +
+           "GROUP BY f.salesDate ORDER BY f.salesDate")
+    List<Object[]> sumByDay(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // [genre, units, revenue, refundedUnits, refundedAmount]
+    @Query("SELECT f.genre, SUM(f.units), SUM(f.revenue), SUM(f.refundedUnits), SUM(f.refundedAmount) " +
+           "FROM DailySalesFact f WHERE f.salesDate >= :start AND f.salesDate < :end GROUP BY f.genre")
+    List<Object[]> sumByGenre(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // [artistUsername, units, revenue, refundedUnits, refundedAmount]
+    @Query("SELECT f.artistUsername, SUM(f.units), SUM(f.revenue), SUM(f.refundedUnits), SUM(f.refundedAmount) " +
+           "FROM DailySalesFact f WHERE f.salesDate >= :start AND f.salesDate < :end GROUP BY f.artistUsername")
+    List<Object[]> sumByArtist(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // [units, revenue, refundedUnits, refundedAmount] for one artist, all time
+    @Query("SELECT COALESCE(SUM(f.units), 0), COALESCE(SUM(f.revenue), 0), " +
+           "COALESCE(SUM(f.refundedUnits), 0), COALESCE(SUM(f.refundedAmount), 0) " +
+           "FROM DailySalesFact f WHERE f.artistUsername = :artistUsername")
+    List<Object[]> sumForArtist(@Param("artistUsername") String artistUsername);
+
+    // [musicId, netUnits, netRevenue], best sellers first; the page size is the N of top-N
+    @Query("SELECT f.musicId, SUM(f.units - f.refundedUnits), SUM(f.revenue - f.refundedAmount) " +
+           "FROM DailySalesFact f WHERE f.salesDate >= :start AND f.salesDate < :end " +
+           "GROUP BY f.musicId " +
+           "ORDER BY SUM(f.units - f.refundedUnits) DESC, SUM(f.revenue - f.refundedAmount) DESC")
+    List<Object[]> findTopMusic(@Param("start") LocalDate start, @Param("end") LocalDate end, Pageable pageable);
+
+    @Query("SELECT f.musicId, SUM(f.units - f.refundedUnits), SUM(f.revenue - f.refundedAmount) " +
+           "FROM DailySalesFact f WHERE f.genre = :genre " +
+           "AND f.salesDate >= :start AND f.salesDate < :end " +
+           "GROUP BY f.musicId " +
+           "ORDER BY SUM(f.units - f.refundedUnits) DESC, SUM(f.revenue - f.refundedAmount) DESC")
+    List<Object[]> findTopMusicForGenre(@Param("genre") String genre,
+                                        @Param("start") LocalDate start, @Param("end") LocalDate end,
+                                        Pageable pageable);
+
+    @Query("SELECT f.musicId, SUM(f.units - f.refundedUnits), SUM(f.revenue - f.refundedAmount) " +
+           "FROM DailySalesFact f WHERE f.artistUsername = :artistUsername " +
+           "AND f.salesDate >= :start AND f.salesDate < :end " +
+           "GROUP BY f.musicId " +
+           "ORDER BY SUM(f.units - f.refundedUnits) DESC, SUM(f.revenue - f.refundedAmount) DESC")
+    List<Object[]> findTopMusicForArtist(@Param("artistUsername") String artistUsername,
+                                         @Param("start") LocalDate start, @Param("end") LocalDate end,
+                                         Pageable pageable);
+}
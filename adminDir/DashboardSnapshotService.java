@@ -0,0 +1,230 @@
+package com.music.musicstore.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Precomputed admin dashboard payloads.
+ *
+ * The overview and the default detailed analytics are recomputed on a schedule and every
+ * request is served the last snapshot together with its age, so dashboard database load is
+ * the same whether one admin or fifty are watching. A refresh asked for while one is already
+ * running joins that run instead of starting another; a snapshot that is younger than the
+ * minimum refresh interval is returned as is.
+ *
+ * Metrics listed under "unavailableMetrics" keep their value from the previous snapshot, listed
+ * with its age under "staleMetrics"; only those with no earlier value stay null and listed. A refresh in which most metrics are unavailable (say the
+ * database is briefly unreachable) is discarded and the previous snapshot is kept as a whole.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardSnapshotService.class);
+
+    public static final String OVERVIEW = "overview";
+    public static final String DETAILED = "detailed";
+
+    private final Map<String, Dashboard> dashboards = new LinkedHashMap<>();
+    private final ExecutorService refresher;
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder recomputed = new LongAdder();
+    private final LongAdder joinedRefreshes = new LongAdder();
+    private final LongAdder rejectedRefreshes = new LongAdder();
+
+    @Value("${app.admin.dashboard.min-refresh-interval-ms:5000}")
+    private long minRefreshIntervalMs;
+
+    @Autowired
+    public DashboardSnapshotService(AdminAnalyticsService adminAnalyticsService) {
+        dashboards.put(OVERVIEW, new Dashboard(OVERVIEW, adminAnalyticsService::getSystemOverview));
+        dashboards.put(DETAILED, new Dashboard(DETAILED, () -> adminAnalyticsService.getDetailedAnalytics(null, null)));
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("DashboardSnapshotService initialized for {}", dashboards.keySet());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * The last snapshot of a dashboard with its age. Only the very first request after startup
+     * waits for a computation; forceRefresh recomputes unless the snapshot is very recent.
+     */
+    public Map<String, Object> get(String name, boolean forceRefresh) {
+        Dashboard dashboard = dashboards.get(name);
+        if (dashboard == null) {
+            throw new IllegalArgumentException("Unknown dashboard: " + name);
+        }
+        served.increment();
+
+        Snapshot snapshot = dashboard.current.get();
+        if (snapshot == null || (forceRefresh && snapshot.ageMillis() >= minRefreshIntervalMs)) {
+            try {
+                snapshot = dashboard.refresh().join();
+            } catch (CompletionException e) {
+                if (snapshot == null) {
+                    throw e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException : e;
+                }
+                // Keep serving the previous snapshot; its age shows it is behind
+            }
+        }
+        return snapshot.toResponse();
+    }
+
+    @Scheduled(initialDelayString = "${app.admin.dashboard.initial-delay-ms:10000}",
+               fixedDelayString = "${app.admin.dashboard.refresh-interval-ms:60000}")
+    public void refreshAll() {
+        for (Dashboard dashboard : dashboards.values()) {
+            try {
+                dashboard.refresh().join();
+            } catch (CompletionException e) {
+                logger.error("Failed to refresh {} dashboard snapshot", dashboard.name, e.getCause());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        dashboards.forEach((name, dashboard) -> {
+            Snapshot snapshot = dashboard.current.get();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("computedAt", snapshot != null ? snapshot.computedAt : null);
+            entry.put("ageSeconds", snapshot != null ? snapshot.ageMillis() / 1000 : null);
+            entry.put("computeMs", snapshot != null ? snapshot.computeMillis : null);
+            entry.put("refreshing", dashboard.inFlight.get() != null);
+            stats.put(name, entry);
+        });
+        stats.put("served", served.sum());
+        stats.put("recomputed", recomputed.sum());
+        stats.put("joinedRefreshes", joinedRefreshes.sum());
+        stats.put("rejectedRefreshes", rejectedRefreshes.sum());
+        return stats;
+    }
+
+    private final class Dashboard {
+        private final String name;
+        private final Supplier<Map<String, Object>> source;
+        private final AtomicReference<Snapshot> current = new AtomicReference<>();
+        private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+
+        private Dashboard(String name, Supplier<Map<String, Object>> source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        // Single flight: only the caller that installs the future starts a computation
+        private CompletableFuture<Snapshot> refresh() {
+            CompletableFuture<Snapshot> running = inFlight.get();
+            if (running != null) {
+                joinedRefreshes.increment();
+                return running;
+            }
+            CompletableFuture<Snapshot> next = new CompletableFuture<>();
+            if (!inFlight.compareAndSet(null, next)) {
+                // Lost the race to another caller; join its run, or retry if it already finished
+                CompletableFuture<Snapshot> winner = inFlight.get();
+                if (winner == null) {
+                    return refresh();
+                }
+                joinedRefreshes.increment();
+                return winner;
+            }
+            refresher.execute(() -> {
+                try {
+                    // Age counts from the start of the computation, the oldest data the snapshot can hold
+                    LocalDateTime startedAt = LocalDateTime.now();
+                    long started = System.currentTimeMillis();
+                    Map<String, Object> payload = source.get();
+                    Snapshot snapshot = merge(current.get(), payload, startedAt, started,
+                        System.currentTimeMillis() - started);
+                    current.set(snapshot);
+                    recomputed.increment();
+                    next.complete(snapshot);
+                } catch (RuntimeException e) {
+                    next.completeExceptionally(e);
+                } finally {
+                    inFlight.set(null);
+                }
+            });
+            return next;
+        }
+    }
+
+    /**
+     * Fill unavailable metrics from the previous snapshot, or reject the refresh when most of them failed
+     */
+    private Snapshot merge(Snapshot previous, Map<String, Object> payload, LocalDateTime computedAt,
+                           long computedAtMillis, long computeMillis) {
+        List<String> unavailable = AdminAnalyticsService.unavailableMetrics(payload);
+        int metricCount = payload.size() - (payload.containsKey(AdminAnalyticsService.UNAVAILABLE_METRICS) ? 1 : 0);
+        if (previous != null && unavailable.size() * 2 > metricCount) {
+            rejectedRefreshes.increment();
+            throw new IllegalStateException(unavailable.size() + " of " + metricCount +
+                " dashboard metrics unavailable; keeping the previous snapshot");
+        }
+
+        Map<String, Object> merged = new LinkedHashMap<>(payload);
+        Map<String, LocalDateTime> stale = new LinkedHashMap<>();
+        if (previous != null && !unavailable.isEmpty()) {
+            // A metric still null in the previous snapshot was unavailable there too, so it stays listed
+            List<String> stillUnavailable = new ArrayList<>();
+            for (String metric : unavailable) {
+                Object kept = previous.payload.get(metric);
+                if (kept != null) {
+                    merged.put(metric, kept);
+                    stale.put(metric, previous.staleMetrics.getOrDefault(metric, previous.computedAt));
+                } else {
+                    stillUnavailable.add(metric);
+                }
+            }
+            merged.put(AdminAnalyticsService.UNAVAILABLE_METRICS, stillUnavailable);
+        }
+        return new Snapshot(merged, stale, computedAt, computedAtMillis, computeMillis);
+    }
+
+    // staleMetrics maps each metric carried over from an earlier snapshot to when its value was computed
+    private record Snapshot(Map<String, Object> payload, Map<String, LocalDateTime> staleMetrics,
+                            LocalDateTime computedAt, long computedAtMillis, long computeMillis) {
+
+        private long ageMillis() {
+            return System.currentTimeMillis() - computedAtMillis;
+        }
+
+        private Map<String, Object> toResponse() {
+            Map<String, Object> response = new LinkedHashMap<>(payload);
+            Map<String, Object> meta = new LinkedHashMap<>();
+            meta.put("computedAt", computedAt);
+            meta.put("ageSeconds", Duration.ofMillis(ageMillis()).toSeconds());
+            meta.put("computeMs", computeMillis);
+            meta.put("staleMetrics", staleMetrics);
+            response.put("snapshot", meta);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.music.musicstore.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by FailedActionDetector when an admin's failed actions within the sliding window
+ * reach the alert threshold. Raised at most once per window per admin.
+ */
+public class FailedActionAlertEvent {
+
+    private final String adminUsername;
+    private final long failures;
+    private final long windowSeconds;
+    private final String lastAction;
+    private final LocalDateTime detectedAt;
+
+    public FailedActionAlertEvent(String adminUsername, long failures, long windowSeconds, String lastAction,
+                                  LocalDateTime detectedAt) {
+        this.adminUsername = adminUsername;
+        this.failures = failures;
+        this.windowSeconds = windowSeconds;
+        this.lastAction = lastAction;
+        this.detectedAt = detectedAt;
+    }
+
+    public String getAdminUsername() {
+        return adminUsername;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public String getLastAction() {
+        return lastAction;
+    }
+
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+}
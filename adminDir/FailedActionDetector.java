@@ -0,0 +1,174 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.events.FailedActionAlertEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming detector for repeated failed admin actions.
+ *
+ * Each admin has a ring of time slots covering the sliding window. A slot is one long holding
+ * its slot number and its count, updated with compare-and-set, so recording a failure takes
+ * no lock and no database read. When the failures in the window reach the threshold, a
+ * FailedActionAlertEvent is published, at most once per window per admin.
+ */
+@Service
+public class FailedActionDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailedActionDetector.class);
+
+    // Low bits of a slot hold its count, the rest its slot number
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final long slotMillis;
+    private final int slots;
+    private final long windowSeconds;
+
+    private final LongAdder recordedFailures = new LongAdder();
+    private final LongAdder alertsRaised = new LongAdder();
+
+    @Value("${app.security.failed-actions.threshold:10}")
+    private int threshold;
+
+    @Autowired
+    public FailedActionDetector(ApplicationEventPublisher eventPublisher,
+                                @Value("${app.security.failed-actions.window-seconds:300}") long windowSeconds,
+                                @Value("${app.security.failed-actions.slots:30}") int slots) {
+        this.eventPublisher = eventPublisher;
+        this.windowSeconds = windowSeconds;
+        this.slots = slots;
+        this.slotMillis = Math.max(1, windowSeconds * 1000 / slots);
+        logger.info("FailedActionDetector initialized with a {}s window in {} slots", windowSeconds, slots);
+    }
+
+    /**
+     * Count one failed action. Called on the request thread for every failure.
+     */
+    public void recordFailure(String adminUsername, String action) {
+        if (adminUsername == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long slot = now / slotMillis;
+        Counter counter = counters.computeIfAbsent(adminUsername, name -> new Counter(slots));
+        counter.increment(slot);
+        counter.lastFailureAt = now;
+        counter.lastAction = action;
+        recordedFailures.increment();
+
+        long failures = counter.sum(slot);
+        if (failures >= threshold && counter.claimAlert(slot)) {
+            alertsRaised.increment();
+            logger.warn("SECURITY_ALERT: {} failed {} admin actions within {}s (last: {})",
+                adminUsername, failures, windowSeconds, action);
+            eventPublisher.publishEvent(new FailedActionAlertEvent(adminUsername, failures, windowSeconds, action,
+                LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Failures in the current window for each tracked admin, highest first
+     */
+    public Map<String, Object> getState() {
+        long slot = System.currentTimeMillis() / slotMillis;
+        List<Map<String, Object>> admins = new ArrayList<>();
+        counters.forEach((username, counter) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("adminUsername", username);
+            entry.put("failuresInWindow", counter.sum(slot));
+            entry.put("lastAction", counter.lastAction);
+            entry.put("lastFailureAt", toLocalDateTime(counter.lastFailureAt));
+            entry.put("alerted", slot - counter.lastAlertSlot.get() < slots);
+            admins.add(entry);
+        });
+        admins.sort(Comparator.comparing((Map<String, Object> entry) -> (Long) entry.get("failuresInWindow")).reversed());
+
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("windowSeconds", windowSeconds);
+        state.put("threshold", threshold);
+        state.put("trackedAdmins", counters.size());
+        state.put("recordedFailures", recordedFailures.sum());
+        state.put("alertsRaised", alertsRaised.sum());
+        state.put("admins", admins);
+        return state;
+    }
+
+    // A failure racing with eviction can land on a dropped counter; it is older than the window anyway
+    @Scheduled(fixedDelayString = "${app.security.failed-actions.cleanup-interval-ms:60000}")
+    public void evictIdleCounters() {
+        long slot = System.currentTimeMillis() / slotMillis;
+        counters.values().removeIf(counter -> counter.sum(slot) == 0 && slot - counter.lastAlertSlot.get() >= slots);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static final class Counter {
+        private final AtomicLongArray cells;
+        private final AtomicLong lastAlertSlot = new AtomicLong(Long.MIN_VALUE / 2);
+        private volatile long lastFailureAt;
+        private volatile String lastAction;
+
+        private Counter(int slots) {
+            this.cells = new AtomicLongArray(slots);
+        }
+
+        private void increment(long slot) {
+            int index = (int) (slot % cells.length());
+            while (true) {
+                long current = cells.get(index);
+                long next;
+                if (current >>> COUNT_BITS == slot) {
+                    // Saturate rather than overflow into the slot number
+                    next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+                } else {
+                    // The cell still holds a slot from an earlier lap of the ring; start it over
+                    next = (slot << COUNT_BITS) | 1;
+                }
+                if (cells.compareAndSet(index, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        private long sum(long slot) {
+            long total = 0;
+            for (int i = 0; i < cells.length(); i++) {
+                long cell = cells.get(i);
+                long cellSlot = cell >>> COUNT_BITS;
+                if (cellSlot <= slot && slot - cellSlot < cells.length()) {
+                    total += cell & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+
+        // Only the thread that moves lastAlertSlot forward raises the alert
+        private boolean claimAlert(long slot) {
+            long previous = lastAlertSlot.get();
+            return slot - previous >= cells.length() && lastAlertSlot.compareAndSet(previous, slot);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.dto.AuditContext;
+import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.events.FailedActionAlertEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optionally disables an admin account when FailedActionDetector raises an alert for it.
+ * Off by default; the last enabled admin is never locked so the system cannot lock itself out,
+ * and nothing is locked when the admin counts cannot be read. Alerts are raised on the request
+ * thread that logged the failure, so the lock itself runs on a single background thread.
+ */
+@Service
+public class FailedActionLockoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailedActionLockoutService.class);
+
+    private final UnifiedUserService unifiedUserService;
+    private final AuditLogService auditLogService;
+    private final ThreadPoolExecutor executor;
+
+    @Value("${app.security.failed-actions.lock-account:false}")
+    private boolean lockAccount;
+
+    @Autowired
+    public FailedActionLockoutService(UnifiedUserService unifiedUserService, AuditLogService auditLogService,
+                                      @Value("${app.security.failed-actions.lock-queue-size:100}") int queueSize) {
+        this.unifiedUserService = unifiedUserService;
+        this.auditLogService = auditLogService;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "failed-action-lockout");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @EventListener
+    public void onFailedActionAlert(FailedActionAlertEvent event) {
+        if (!lockAccount) {
+            return;
+        }
+        try {
+            executor.execute(() -> lock(event));
+        } catch (RejectedExecutionException e) {
+            logger.error("Lockout queue full, not locking admin account {}", event.getAdminUsername());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void lock(FailedActionAlertEvent event) {
+        try {
+            UserDto admin = unifiedUserService.findUserByUsername(event.getAdminUsername(), "ADMIN");
+            if (!admin.isEnabled()) {
+                return;
+            }
+            Map<String, Long> adminCounts = unifiedUserService.getUserStatusCountsByRole().get("ADMIN");
+            // No counts means the guard cannot tell whether this is the last admin, so do not lock
+            if (adminCounts == null || adminCounts.get("enabled") == null) {
+                logger.warn("Not locking {}: enabled admin count is unavailable", event.getAdminUsername());
+                return;
+            }
+            if (adminCounts.get("enabled") <= 1) {
+                logger.warn("Not locking {}: it is the only enabled admin account", event.getAdminUsername());
+                return;
+            }
+
+            // Writes only the admin row's enabled column and evicts the cached UserDetails, so the lock
+            // takes effect at once; the role is explicit because a customer can share the admin's id
+            unifiedUserService.updateUserStatus(admin.getId(), "ADMIN", false);
+            logger.warn("Locked admin account {} after {} failed actions within {}s",
+                event.getAdminUsername(), event.getFailures(), event.getWindowSeconds());
+
+            auditLogService.logAdminAction(
+                "system",
+                "AUTO_LOCK_ADMIN",
+                "USER",
+                admin.getId(),
+                String.format("Locked %s after %d failed actions within %ds (last: %s)",
+                    event.getAdminUsername(), event.getFailures(), event.getWindowSeconds(), event.getLastAction()),
+                AuditContext.NONE
+            );
+        } catch (Exception e) {
+            logger.error("Failed to lock admin account {} after failed action alert", event.getAdminUsername(), e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.music.musicstore.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size HyperLogLog cardinality sketch.
+ *
+ * Uses 2^12 six-bit registers stored one per byte (4 KB) with a standard error of
+ * about 1.6%. Registers are packed four to an int and updated with CAS, so add()
+ * is lock-free and safe to call from request threads.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final AtomicIntegerArray packed = new AtomicIntegerArray(REGISTER_COUNT / 4);
+
+    public HyperLogLog() {
+    }
+
+    public static HyperLogLog fromBytes(byte[] registers) {
+        if (registers == null || registers.length != REGISTER_COUNT) {
+            throw new IllegalArgumentException("Expected " + REGISTER_COUNT + " registers");
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            sketch.raise(i, registers[i]);
+        }
+        return sketch;
+    }
+
+    public void add(String value) {
+        addHash(hash64(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Rank of the first set bit in the remaining 52 bits, capped so it fits a register
+        long remaining = (hash << PRECISION) | (1L << (PRECISION - 1));
+        int rank = Long.numberOfLeadingZeros(remaining) + 1;
+        raise(index, rank);
+    }
+
+    /**
+     * Fold another sketch into this one (register-wise max)
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            raise(i, other.register(i));
+        }
+        return this;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            int value = register(i);
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            // Small-range correction: linear counting is more accurate for sparse sketches
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        byte[] registers = new byte[REGISTER_COUNT];
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            registers[i] = (byte) register(i);
+        }
+        return registers;
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog().merge(this);
+    }
+
+    private int register(int index) {
+        int shift = (index & 3) * 8;
+        return (packed.get(index >> 2) >>> shift) & 0xFF;
+    }
+
+    private void raise(int index, int value) {
+        int slot = index >> 2;
+        int shift = (index & 3) * 8;
+        while (true) {
+            int word = packed.get(slot);
+            int current = (word >>> shift) & 0xFF;
+            if (value <= current) {
+                return;
+            }
+            int updated = (word & ~(0xFF << shift)) | (value << shift);
+            if (packed.compareAndSet(slot, word, updated)) {
+                return;
+            }
+        }
+    }
+
+    // 64-bit FNV-1a followed by the MurmurHash3 finalizer for good bit dispersion
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,33 @@
+package com.music.musicstore.events;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by OrderService when an order completes. Listeners use @TransactionalEventListener,
+ * so they see the event only once the order's transaction has committed.
+ */
+public class OrderCompletedEvent {
+
+    private final Long orderId;
+    private final LocalDateTime orderDate;
+    private final List<SaleLine> lines;
+
+    public OrderCompletedEvent(Long orderId, LocalDateTime orderDate, List<SaleLine> lines) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.lines = List.copyOf(lines);
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public List<SaleLine> getLines() {
+        return lines;
+    }
+}
@@ -0,0 +1,40 @@
+package com.music.musicstore.events;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by OrderService when a completed order is refunded. Carries the original order
+ * date as well as the refund time, since sales figures attribute a refund to the day of the
+ * sale it reverses.
+ */
+public class OrderRefundedEvent {
+
+    private final Long orderId;
+    private final LocalDateTime orderDate;
+    private final LocalDateTime refundedAt;
+    private final List<SaleLine> lines;
+
+    public OrderRefundedEvent(Long orderId, LocalDateTime orderDate, LocalDateTime refundedAt, List<SaleLine> lines) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.refundedAt = refundedAt;
+        this.lines = List.copyOf(lines);
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public LocalDateTime getRefundedAt() {
+        return refundedAt;
+    }
+
+    public List<SaleLine> getLines() {
+        return lines;
+    }
+}
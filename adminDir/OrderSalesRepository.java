@@ -0,0 +1,48 @@
+package com.music.musicstore.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Read-only JDBC access to sold order lines, used to rebuild the daily sales facts and to
+ * warm up the best-seller tracker. Lines are streamed with a fetch size so a rebuild over years
+ * of orders stays in constant memory; the driver only honours it inside a transaction.
+ */
+@Repository
+public class OrderSalesRepository {
+
+    // One row per order item of a completed or refunded order. Items carry no quantity, each
+    // is one copy of the track; artist and genre come from the track as it is now.
+    private static final String SOLD_LINES =
+        "SELECT o.order_date, o.status, oi.music_id, oi.price, m.artist_username, m.genre" +
+        " FROM orders o JOIN order_items oi ON oi.order_id = o.id LEFT JOIN music m ON m.id = oi.music_id" +
+        " WHERE o.order_date >= ? AND o.order_date < ? AND o.status IN ('COMPLETED', 'REFUNDED')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    public OrderSalesRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${app.sales.facts.stream-fetch-size:1000}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(streamFetchSize);
+    }
+
+    public Optional<LocalDateTime> findOldestOrderDate() {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+            "SELECT MIN(order_date) FROM orders WHERE status IN ('COMPLETED', 'REFUNDED')", Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+
+    public void streamSoldLines(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(SOLD_LINES, handler, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
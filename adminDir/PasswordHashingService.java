@@ -0,0 +1,205 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.exceptions.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, fixed-size pool with a bounded queue.
+ *
+ * A burst of signups can then use at most the pool's threads worth of CPU; once the queue is
+ * full further requests fail fast with ServiceUnavailableException (HTTP 503) instead of
+ * piling up on Tomcat workers that also serve cheap catalog reads. Background jobs hash
+ * through encodeAll, which keeps at most one hash per pool thread queued and waits for
+ * room instead of failing, so an import cannot take the whole queue from logins.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final long BATCH_RETRY_MS = 50;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    @Autowired
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${app.security.password-hashing.threads:0}") int threads,
+                                  @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.password-hashing.max-wait-ms:5000}") long maxWaitMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWaitMs = maxWaitMs;
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        logger.info("PasswordHashingService initialized with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hash passwords for a background job, in order. A password that fails to hash gets null.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int window = executor.getCorePoolSize();
+        List<String> encoded = new ArrayList<>(Collections.nCopies(rawPasswords.size(), null));
+        Deque<Integer> pendingIndexes = new ArrayDeque<>();
+        Deque<Future<String>> pending = new ArrayDeque<>();
+
+        try {
+            for (int i = 0; i < rawPasswords.size(); i++) {
+                CharSequence rawPassword = rawPasswords.get(i);
+                Future<String> future = null;
+                while (future == null) {
+                    if (pending.size() >= window) {
+                        encoded.set(pendingIndexes.poll(), await(pending.poll()));
+                        continue;
+                    }
+                    try {
+                        future = submit(() -> passwordEncoder.encode(rawPassword));
+                    } catch (RejectedExecutionException e) {
+                        // Interactive requests filled the queue; let them through and try again
+                        if (pending.isEmpty()) {
+                            Thread.sleep(BATCH_RETRY_MS);
+                        } else {
+                            encoded.set(pendingIndexes.poll(), await(pending.poll()));
+                        }
+                    }
+                }
+                pending.add(future);
+                pendingIndexes.add(i);
+            }
+            while (!pending.isEmpty()) {
+                encoded.set(pendingIndexes.poll(), await(pending.poll()));
+            }
+        } catch (InterruptedException e) {
+            pending.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted", e);
+        }
+        return encoded;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long count = hashes.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("poolSize", executor.getPoolSize());
+        metrics.put("activeThreads", executor.getActiveCount());
+        metrics.put("queueDepth", executor.getQueue().size());
+        metrics.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        metrics.put("completed", count);
+        metrics.put("rejected", rejected.sum());
+        metrics.put("timedOut", timedOut.sum());
+        metrics.put("avgHashMs", count == 0 ? 0.0 : hashNanos.sum() / (double) count / 1_000_000);
+        metrics.put("maxHashMs", maxHashNanos.get() / 1_000_000.0);
+        metrics.put("avgQueueWaitMs", count == 0 ? 0.0 : queueWaitNanos.sum() / (double) count / 1_000_000);
+        return metrics;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Password hashing pool saturated ({} queued), rejecting request", executor.getQueue().size());
+            throw new ServiceUnavailableException("Server is busy, please retry shortly");
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            logger.warn("Password hashing did not complete within {} ms", maxWaitMs);
+            throw new ServiceUnavailableException("Server is busy, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        long submitted = System.nanoTime();
+        return executor.submit(() -> {
+            long started = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                long elapsed = System.nanoTime() - started;
+                hashes.increment();
+                hashNanos.add(elapsed);
+                queueWaitNanos.add(started - submitted);
+                maxHashNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        });
+    }
+
+    // Batch hashing has no deadline; a failed hash is reported as null rather than failing the batch
+    private String await(Future<String> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.warn("Password hashing failed in batch", e.getCause());
+            return null;
+        }
+    }
+}
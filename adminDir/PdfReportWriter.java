@@ -0,0 +1,175 @@
+package com.music.musicstore.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes report rows as a plain-text PDF (PDF 1.4, built-in Helvetica, A4 pages).
+ *
+ * Just enough of the format for a printable report without a PDF library: one content
+ * stream per page, written as soon as the page is full, and a cross-reference table at the
+ * end. Text outside Latin-1 is replaced with '?', as the built-in fonts cannot show it.
+ */
+public final class PdfReportWriter {
+
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+    private static final int MARGIN = 50;
+    private static final int FONT_SIZE = 9;
+    private static final int LEADING = 12;
+    private static final int LINES_PER_PAGE = (PAGE_HEIGHT - 2 * MARGIN) / LEADING;
+    private static final int MAX_LINE_CHARS = 110;
+
+    // Fixed object numbers; pages and their content streams follow from 4 onwards
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT = 3;
+
+    private final CountingOutput out;
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> pageObjects = new ArrayList<>();
+    private final List<String> pageLines = new ArrayList<>();
+    private int nextObject = 4;
+
+    private PdfReportWriter(OutputStream output) {
+        this.out = new CountingOutput(output);
+    }
+
+    public static void write(String title, List<ReportRows.Row> rows, OutputStream output) throws IOException {
+        PdfReportWriter writer = new PdfReportWriter(output);
+        writer.writeDocument(title, rows);
+    }
+
+    private void writeDocument(String title, List<ReportRows.Row> rows) throws IOException {
+        // The binary comment marks the file as binary for transfer tools
+        out.write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+        beginObject(FONT);
+        out.write("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+
+        addLine(title);
+        addLine("");
+        String section = null;
+        for (ReportRows.Row row : rows) {
+            if (!row.section().equals(section)) {
+                if (section != null) {
+                    addLine("");
+                }
+                section = row.section();
+                addLine("== " + section + " ==");
+            }
+            addLine(row.metric() + ": " + row.value());
+        }
+        flushPage();
+
+        beginObject(PAGES);
+        StringBuilder kids = new StringBuilder();
+        for (int page : pageObjects) {
+            kids.append(page).append(" 0 R ");
+        }
+        out.write("<< /Type /Pages /Kids [" + kids + "] /Count " + pageObjects.size() + " >>\nendobj\n");
+        beginObject(CATALOG);
+        out.write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+        long xref = out.count;
+        int objects = nextObject;
+        out.write("xref\n0 " + objects + "\n0000000000 65535 f \n");
+        for (int i = 1; i < objects; i++) {
+            out.write(String.format("%010d 00000 n \n", offsets.get(i)));
+        }
+        out.write("trailer\n<< /Size " + objects + " /Root " + CATALOG + " 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        out.flush();
+    }
+
+    private void addLine(String text) throws IOException {
+        String line = text.length() > MAX_LINE_CHARS ? text.substring(0, MAX_LINE_CHARS - 3) + "..." : text;
+        pageLines.add(line);
+        if (pageLines.size() == LINES_PER_PAGE) {
+            flushPage();
+        }
+    }
+
+    private void flushPage() throws IOException {
+        if (pageLines.isEmpty() && !pageObjects.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        StringBuilder text = new StringBuilder();
+        text.append("BT /F1 ").append(FONT_SIZE).append(" Tf ").append(LEADING).append(" TL ")
+            .append(MARGIN).append(' ').append(PAGE_HEIGHT - MARGIN).append(" Td\n");
+        for (String line : pageLines) {
+            text.append('(').append(escape(line)).append(") Tj T*\n");
+        }
+        text.append("ET\n");
+        content.write(text.toString().getBytes(StandardCharsets.ISO_8859_1));
+        pageLines.clear();
+
+        int contentObject = nextObject++;
+        beginObject(contentObject);
+        out.write("<< /Length " + content.size() + " >>\nstream\n");
+        content.writeTo(out);
+        out.write("endstream\nendobj\n");
+
+        int pageObject = nextObject++;
+        beginObject(pageObject);
+        out.write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "]"
+            + " /Resources << /Font << /F1 " + FONT + " 0 R >> >> /Contents " + contentObject + " 0 R >>\nendobj\n");
+        pageObjects.add(pageObject);
+    }
+
+    private void beginObject(int number) throws IOException {
+        while (offsets.size() <= number) {
+            offsets.add(0L);
+        }
+        offsets.set(number, out.count);
+        out.write(number + " 0 obj\n");
+    }
+
+    private static String escape(String line) {
+        StringBuilder escaped = new StringBuilder(line.length());
+        for (char c : line.toCharArray()) {
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 32 || c > 255) {
+                escaped.append(c == '\t' ? ' ' : '?');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    // Tracks the byte offset of everything written, for the cross-reference table
+    private static final class CountingOutput extends OutputStream {
+        private final OutputStream delegate;
+        private long count;
+
+        private CountingOutput(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        private void write(String text) throws IOException {
+            write(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+}
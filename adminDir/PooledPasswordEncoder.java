@@ -0,0 +1,39 @@
+package com.music.musicstore.configs;
+
+import com.music.musicstore.exceptions.ServiceUnavailableException;
+import com.music.musicstore.services.PasswordHashingService;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder for the authentication provider that runs encode and matches on
+ * PasswordHashingService's bounded pool, so login checks share the hashing budget with
+ * signups and imports. Built inside SecurityConfig and deliberately not a bean:
+ * PasswordHashingService itself wraps the application's PasswordEncoder bean.
+ *
+ * A saturated pool fails the login with an AuthenticationServiceException whose cause is the
+ * ServiceUnavailableException, so the AuthenticationManager reports it as an authentication
+ * error; the login endpoint can map that cause to 503.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordHashingService passwordHashingService;
+
+    public PooledPasswordEncoder(PasswordHashingService passwordHashingService) {
+        this.passwordHashingService = passwordHashingService;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordHashingService.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try {
+            return passwordHashingService.matches(rawPassword, encodedPassword);
+        } catch (ServiceUnavailableException e) {
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+}
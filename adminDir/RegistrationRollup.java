@@ -0,0 +1,89 @@
+package com.music.musicstore.models.users;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_registration_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_registration_rollup_bucket",
+                                             columnNames = {"granularity", "bucket_start", "role"}),
+       indexes = @Index(name = "idx_registration_rollup_range", columnList = "granularity, bucket_start"))
+public class RegistrationRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private Granularity granularity;
+
+    // Start of the day or hour this bucket covers
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "role", nullable = false, length = 16)
+    private String role;
+
+    @Column(name = "registrations", nullable = false)
+    private long registrations;
+
+    // Constructors
+    public RegistrationRollup() {
+    }
+
+    public RegistrationRollup(Granularity granularity, LocalDateTime bucketStart, String role, long registrations) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.role = role;
+        this.registrations = registrations;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public long getRegistrations() {
+        return registrations;
+    }
+
+    public void setRegistrations(long registrations) {
+        this.registrations = registrations;
+    }
+
+    public enum Granularity {
+        DAY,
+        HOUR,
+        // Marker row written with the backfill's buckets; bucketStart is the backfill cutoff
+        BACKFILL
+    }
+}
@@ -0,0 +1,41 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.users.RegistrationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RegistrationRollupRepository extends JpaRepository<RegistrationRollup, Long> {
+
+    // Buckets of one granularity in [start, end), oldest first
+    List<RegistrationRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+        RegistrationRollup.Granularity granularity, LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT COALESCE(SUM(r.registrations), 0) FROM RegistrationRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end")
+    long sumRegistrations(@Param("granularity") RegistrationRollup.Granularity granularity,
+                          @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("DELETE FROM RegistrationRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end")
+    int deleteRange(@Param("granularity") RegistrationRollup.Granularity granularity,
+                    @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    boolean existsByGranularity(RegistrationRollup.Granularity granularity);
+
+    // Increment an existing bucket; returns 0 when the bucket row does not exist yet
+    @Modifying
+    @Query("UPDATE RegistrationRollup r SET r.registrations = r.registrations + :delta " +
+           "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart AND r.role = :role")
+    int increment(@Param("granularity") RegistrationRollup.Granularity granularity,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("role") String role,
+                  @Param("delta") long delta);
+}
@@ -0,0 +1,293 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.models.users.RegistrationRollup;
+import com.music.musicstore.models.users.RegistrationRollup.Granularity;
+import com.music.musicstore.repositories.RegistrationRollupRepository;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Daily and hourly registration counts per role, so growth analytics scan a few
+ * hundred rollup rows instead of the user tables.
+ *
+ * Users created through UnifiedUserService and artist self-signup are counted live. Other
+ * create paths (customer self-signup, seeded admins) are picked up by the periodic rebuild
+ * of the trailing day once their hour has closed.
+ */
+@Service
+public class RegistrationRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationRollupService.class);
+
+    private static final String BACKFILL_ROLE = "ALL";
+
+    private final RegistrationRollupRepository registrationRollupRepository;
+    private final UserDirectoryRepository userDirectoryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean backfillDone = false;
+
+    @Autowired
+    public RegistrationRollupService(RegistrationRollupRepository registrationRollupRepository,
+                                     UserDirectoryRepository userDirectoryRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.registrationRollupRepository = registrationRollupRepository;
+        this.userDirectoryRepository = userDirectoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        logger.info("RegistrationRollupService initialized successfully");
+    }
+
+    /**
+     * Count one new registration in its day and hour buckets
+     */
+    public void recordRegistration(String role, LocalDateTime createdAt) {
+        recordRegistrations(role, createdAt, 1);
+    }
+
+    /**
+     * Count several registrations that share a creation time (bulk import)
+     */
+    public void recordRegistrations(String role, LocalDateTime createdAt, long count) {
+        LocalDateTime when = createdAt != null ? createdAt : LocalDateTime.now();
+        String normalizedRole = UserDirectoryRepository.normalizeRole(role);
+        try {
+            addToBucket(Granularity.DAY, when.truncatedTo(ChronoUnit.DAYS), normalizedRole, count);
+            addToBucket(Granularity.HOUR, when.truncatedTo(ChronoUnit.HOURS), normalizedRole, count);
+        } catch (Exception e) {
+            // A rebuild re-derives the buckets from created_at, so a missed increment is recoverable
+            logger.warn("Failed to record {} registration(s) for role {} at {}", count, role, when, e);
+        }
+    }
+
+    public long getRegistrationsCount(LocalDate startDate, LocalDate endDate) {
+        return registrationRollupRepository.sumRegistrations(
+            Granularity.DAY, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * New users, growth rate, per-role split, daily series and weekly cohorts for a date range.
+     * Both dates are inclusive.
+     */
+    public Map<String, Object> getGrowthAnalytics(LocalDate startDate, LocalDate endDate) {
+        List<RegistrationRollup> current = dailyBuckets(startDate, endDate);
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long previousUsers = getRegistrationsCount(startDate.minusDays(days), startDate.minusDays(1));
+
+        long newUsers = 0;
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        UserDirectoryRepository.ROLES.forEach(role -> byRole.put(role, 0L));
+        Map<LocalDate, Map<String, Long>> daily = new TreeMap<>();
+        Map<LocalDate, Long> weeklyCohorts = new TreeMap<>();
+
+        for (RegistrationRollup bucket : current) {
+            LocalDate day = bucket.getBucketStart().toLocalDate();
+            newUsers += bucket.getRegistrations();
+            byRole.merge(bucket.getRole(), bucket.getRegistrations(), Long::sum);
+            daily.computeIfAbsent(day, d -> new LinkedHashMap<>())
+                .merge(bucket.getRole(), bucket.getRegistrations(), Long::sum);
+            weeklyCohorts.merge(day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                bucket.getRegistrations(), Long::sum);
+        }
+
+        List<Map<String, Object>> dailySeries = new ArrayList<>();
+        daily.forEach((day, roles) -> {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("date", day);
+            point.put("total", roles.values().stream().mapToLong(Long::longValue).sum());
+            point.put("byRole", roles);
+            dailySeries.add(point);
+        });
+
+        List<Map<String, Object>> cohorts = new ArrayList<>();
+        weeklyCohorts.forEach((weekStart, count) -> {
+            Map<String, Object> cohort = new LinkedHashMap<>();
+            cohort.put("weekStart", weekStart);
+            cohort.put("registrations", count);
+            cohorts.add(cohort);
+        });
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("startDate", startDate);
+        analytics.put("endDate", endDate);
+        analytics.put("newUsers", newUsers);
+        analytics.put("previousPeriodNewUsers", previousUsers);
+        analytics.put("growthRate", previousUsers > 0 ? (newUsers - previousUsers) * 100.0 / previousUsers : 0.0);
+        analytics.put("newUsersByRole", byRole);
+        analytics.put("daily", dailySeries);
+        analytics.put("weeklyCohorts", cohorts);
+        return analytics;
+    }
+
+    /**
+     * Hourly registration buckets in [start, end)
+     */
+    public List<RegistrationRollup> getHourlyBuckets(LocalDateTime start, LocalDateTime end) {
+        return registrationRollupRepository
+            .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                Granularity.HOUR, start.truncatedTo(ChronoUnit.HOURS), end);
+    }
+
+    /**
+     * One-off backfill of every registration before the current hour. Completion is recorded by
+     * a marker row committed with the buckets, so a failed backfill is retried on the next run
+     * and live increments made before the backfill ran do not count as one.
+     */
+    @Scheduled(initialDelayString = "${app.users.registrations.backfill-initial-delay-ms:15000}",
+               fixedDelayString = "${app.users.registrations.backfill-retry-ms:300000}")
+    public void backfillIfNeeded() {
+        if (backfillDone) {
+            return;
+        }
+        if (registrationRollupRepository.existsByGranularity(Granularity.BACKFILL)) {
+            backfillDone = true;
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Object> result = rebuildInTransaction(LocalDate.EPOCH.atStartOfDay(), cutoff);
+                registrationRollupRepository.save(new RegistrationRollup(Granularity.BACKFILL, cutoff, BACKFILL_ROLE,
+                    (Long) result.get("usersScanned")));
+            });
+            backfillDone = true;
+            logger.info("Registration rollup backfill finished for users created before {}", cutoff);
+        } catch (Exception e) {
+            logger.error("Registration rollup backfill failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Re-derive yesterday and today's closed hours, for registrations that were not counted live
+     */
+    @Scheduled(initialDelayString = "${app.users.registrations.refresh-initial-delay-ms:600000}",
+               fixedDelayString = "${app.users.registrations.refresh-interval-ms:600000}")
+    public void refreshRecentBuckets() {
+        if (!backfillDone) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            rebuild(now.minusDays(1), now);
+        } catch (Exception e) {
+            logger.error("Registration rollup refresh failed", e);
+        }
+    }
+
+    /**
+     * Replace the buckets covering [from, to) with counts re-derived from created_at.
+     * from is widened to the start of its day and to is cut back to the start of its hour (at
+     * most the current one); buckets after that are left to live increments.
+     */
+    public Map<String, Object> rebuild(LocalDateTime from, LocalDateTime to) {
+        return transactionTemplate.execute(status -> rebuildInTransaction(from, to));
+    }
+
+    // Streams and rewrites in one transaction, so the fetch size applies and a failure leaves the old buckets
+    private Map<String, Object> rebuildInTransaction(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.DAYS);
+        // The current hour is still being incremented live and is never replaced
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime end = (to.isAfter(now) ? now : to).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime lastDay = end.truncatedTo(ChronoUnit.DAYS);
+        logger.info("Rebuilding registration rollups for [{}, {})", start, end);
+        long started = System.currentTimeMillis();
+
+        Map<BucketKey, Long> buckets = new HashMap<>();
+        long[] scanned = {0};
+
+        // Memory is proportional to the number of buckets, not the number of users
+        userDirectoryRepository.streamRegistrations(start, end, rs -> {
+            String role = rs.getString("role");
+            LocalDateTime when = rs.getTimestamp("created_at").toLocalDateTime();
+            buckets.merge(new BucketKey(Granularity.DAY, when.truncatedTo(ChronoUnit.DAYS), role), 1L, Long::sum);
+            buckets.merge(new BucketKey(Granularity.HOUR, when.truncatedTo(ChronoUnit.HOURS), role), 1L, Long::sum);
+            scanned[0]++;
+        });
+
+        // The day holding `end` also counts live registrations after it, so it is adjusted, not replaced:
+        // by the re-derived count minus what its replaced hours held
+        Map<String, Long> lastDayDeltas = new HashMap<>();
+        if (end.isAfter(lastDay)) {
+            for (RegistrationRollup hour : getHourlyBuckets(lastDay, end)) {
+                lastDayDeltas.merge(hour.getRole(), -hour.getRegistrations(), Long::sum);
+            }
+            buckets.entrySet().removeIf(entry -> {
+                BucketKey key = entry.getKey();
+                if (key.granularity() == Granularity.DAY && key.bucketStart().equals(lastDay)) {
+                    lastDayDeltas.merge(key.role(), entry.getValue(), Long::sum);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        registrationRollupRepository.deleteRange(Granularity.DAY, start, lastDay);
+        registrationRollupRepository.deleteRange(Granularity.HOUR, start, end);
+        List<RegistrationRollup> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((key, count) ->
+            rows.add(new RegistrationRollup(key.granularity(), key.bucketStart(), key.role(), count)));
+        registrationRollupRepository.saveAll(rows);
+
+        lastDayDeltas.forEach((role, delta) -> {
+            if (delta != 0 && registrationRollupRepository.increment(Granularity.DAY, lastDay, role, delta) == 0
+                    && delta > 0) {
+                registrationRollupRepository.save(new RegistrationRollup(Granularity.DAY, lastDay, role, delta));
+            }
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start);
+        result.put("to", end);
+        result.put("usersScanned", scanned[0]);
+        result.put("buckets", buckets.size() + lastDayDeltas.size());
+        result.put("durationMs", System.currentTimeMillis() - started);
+        logger.info("Registration rollup rebuild finished: {}", result);
+        return result;
+    }
+
+    private List<RegistrationRollup> dailyBuckets(LocalDate startDate, LocalDate endDate) {
+        return registrationRollupRepository
+            .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                Granularity.DAY, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+    }
+
+    // Increment-or-insert; a concurrent insert of the same bucket is resolved by retrying the increment
+    private void addToBucket(Granularity granularity, LocalDateTime bucketStart, String role, long delta) {
+        Integer updated = transactionTemplate.execute(status ->
+            registrationRollupRepository.increment(granularity, bucketStart, role, delta));
+        if (updated != null && updated > 0) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                registrationRollupRepository.save(new RegistrationRollup(granularity, bucketStart, role, delta)));
+        } catch (DataIntegrityViolationException e) {
+            transactionTemplate.execute(status ->
+                registrationRollupRepository.increment(granularity, bucketStart, role, delta));
+        }
+    }
+
+    private record BucketKey(Granularity granularity, LocalDateTime bucketStart, String role) {
+    }
+}
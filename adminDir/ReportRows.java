@@ -0,0 +1,47 @@
+package com.music.musicstore.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattens a report (a JSON tree of sections) into (section, metric, value) rows for the
+ * tabular report formats. Nested objects become dotted metric names, arrays get [index].
+ */
+public final class ReportRows {
+
+    public record Row(String section, String metric, String value, boolean numeric) {
+    }
+
+    private ReportRows() {
+    }
+
+    public static List<Row> flatten(JsonNode report) {
+        List<Row> rows = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> sections = report.fields();
+        while (sections.hasNext()) {
+            Map.Entry<String, JsonNode> section = sections.next();
+            flatten(section.getKey(), "", section.getValue(), rows);
+        }
+        return rows;
+    }
+
+    private static void flatten(String section, String path, JsonNode node, List<Row> rows) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                flatten(section, path.isEmpty() ? field.getKey() : path + "." + field.getKey(), field.getValue(), rows);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                flatten(section, path + "[" + i + "]", node.get(i), rows);
+            }
+        } else {
+            rows.add(new Row(section, path.isEmpty() ? section : path, node.isNull() ? "" : node.asText(), node.isNumber()));
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.music.musicstore.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.musicstore.dto.ReportJobStatus;
+import com.music.musicstore.dto.ReportJobStatus.State;
+import com.music.musicstore.exceptions.BusinessRuleException;
+import com.music.musicstore.exceptions.ResourceNotFoundException;
+import com.music.musicstore.exceptions.ServiceUnavailableException;
+import com.music.musicstore.exceptions.ValidationException;
+import com.music.musicstore.utils.CsvReportWriter;
+import com.music.musicstore.utils.PdfReportWriter;
+import com.music.musicstore.utils.ReportRows;
+import com.music.musicstore.utils.XlsxReportWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Background generation of the comprehensive admin report.
+ *
+ * A report is submitted as a job and built on a small worker pool: its overview, detailed
+ * analytics and performance sections are computed concurrently, then written to a file in the
+ * report directory as PDF, CSV, XLSX or JSON. Callers poll the job or watch it for state
+ * changes and download the file when it is done. A report submitted with the same format
+ * and period as a recent one, or one still being built, reuses that job instead of
+ * recomputing. Job state is kept in memory; files older than the retention are deleted.
+ */
+@Service
+public class ReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+
+    public enum ReportFormat {
+        PDF("pdf", "application/pdf"),
+        CSV("csv", "text/csv;charset=UTF-8"),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        JSON("json", "application/json");
+
+        private final String extension;
+        private final String contentType;
+
+        ReportFormat(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static ReportFormat parse(String format) {
+            String normalized = format == null ? "pdf" : format.trim().toLowerCase(Locale.ROOT);
+            for (ReportFormat candidate : values()) {
+                if (candidate.extension.equals(normalized)) {
+                    return candidate;
+                }
+            }
+            throw new ValidationException("Unsupported report format: " + format);
+        }
+    }
+
+    /**
+     * A finished report on disk, ready to be streamed to the client
+     */
+    public record ReportFile(Path path, String filename, String contentType, long sizeBytes) {
+    }
+
+    private final AdminAnalyticsService adminAnalyticsService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService sectionExecutor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Report parameters -> job that built (or is building) them
+    private final Map<String, String> jobsByParameters = new ConcurrentHashMap<>();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Value("${app.reports.directory:reports}")
+    private String reportDirectory;
+
+    @Value("${app.reports.cache-ttl-minutes:15}")
+    private long cacheTtlMinutes;
+
+    @Value("${app.reports.retention-minutes:120}")
+    private long retentionMinutes;
+
+    @Autowired
+    public ReportService(AdminAnalyticsService adminAnalyticsService,
+                         ObjectMapper objectMapper,
+                         @Value("${app.reports.threads:2}") int threads,
+                         @Value("${app.reports.max-queued-jobs:10}") int maxQueuedJobs) {
+        this.adminAnalyticsService = adminAnalyticsService;
+        this.objectMapper = objectMapper;
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(maxQueuedJobs),
+            runnable -> {
+                Thread thread = new Thread(runnable, "report-worker-" + workerNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        // Three sections per running report; separate from the workers so a report never waits on its own pool
+        AtomicInteger sectionNumber = new AtomicInteger();
+        this.sectionExecutor = Executors.newFixedThreadPool(threads * 3, runnable -> {
+            Thread thread = new Thread(runnable, "report-section-" + sectionNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("ReportService initialized with {} workers", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        sectionExecutor.shutdownNow();
+    }
+
+    /**
+     * Queue a comprehensive report, or return the job that already has (or is building) the same report
+     */
+    public ReportJobStatus submit(String format, LocalDate startDate, LocalDate endDate, String requestedBy) {
+        ReportFormat reportFormat = ReportFormat.parse(format);
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new ValidationException("startDate cannot be after endDate");
+        }
+
+        String parameters = reportFormat + "|" + startDate + "|" + endDate;
+        Job[] created = {null};
+        Job[] reused = {null};
+        jobsByParameters.compute(parameters, (key, existingId) -> {
+            Job existing = existingId != null ? jobs.get(existingId) : null;
+            if (existing != null && isReusable(existing)) {
+                reused[0] = existing;
+                return existingId;
+            }
+            Job job = new Job(UUID.randomUUID().toString(), parameters, reportFormat, startDate, endDate, requestedBy);
+            jobs.put(job.id, job);
+            created[0] = job;
+            return job.id;
+        });
+
+        if (reused[0] != null) {
+            cacheHits.increment();
+            logger.info("Report for {} served from job {}", parameters, reused[0].id);
+            ReportJobStatus status = reused[0].snapshot();
+            status.setCached(true);
+            return status;
+        }
+
+        Job job = created[0];
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            jobsByParameters.remove(parameters, job.id);
+            throw new ServiceUnavailableException("Too many reports are being generated, please retry later");
+        }
+        logger.info("Queued report job {} ({}) for {}", job.id, parameters, requestedBy);
+        return job.snapshot();
+    }
+
+    public ReportJobStatus getStatus(String jobId) {
+        return findJob(jobId).snapshot();
+    }
+
+    public List<ReportJobStatus> getJobs() {
+        return jobs.values().stream()
+            .map(Job::snapshot)
+            .sorted((a, b) -> b.getSubmittedAt().compareTo(a.getSubmittedAt()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Call listener with the job's current status and again on every state change until it finishes.
+     * A listener that throws is dropped.
+     */
+    public void watch(String jobId, Consumer<ReportJobStatus> listener) {
+        Job job = findJob(jobId);
+        job.listeners.add(listener);
+        // The job may have finished before the listener was added; it then still gets the final state
+        ReportJobStatus current = job.snapshot();
+        job.deliver(listener, current);
+        if (current.isFinished()) {
+            job.listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Stop calling a listener registered with watch, e.g. when its client disconnects
+     */
+    public void unwatch(String jobId, Consumer<ReportJobStatus> listener) {
+        Job job = jobs.get(jobId);
+        if (job != null) {
+            job.listeners.remove(listener);
+        }
+    }
+
+    public ReportFile getReportFile(String jobId) {
+        Job job = findJob(jobId);
+        ReportJobStatus status = job.snapshot();
+        if (status.getState() != State.COMPLETED) {
+            throw new BusinessRuleException("Report " + jobId + " is not ready (" + status.getState() + ")");
+        }
+        if (!Files.exists(job.file)) {
+            throw new ResourceNotFoundException("Report file", jobId);
+        }
+        String filename = "report-" + (job.startDate != null ? job.startDate : "all") + "-"
+            + (job.endDate != null ? job.endDate : LocalDate.now()) + "." + job.format.getExtension();
+        return new ReportFile(job.file, filename, job.format.getContentType(), status.getSizeBytes());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("retainedJobs", jobs.size());
+        stats.put("generated", generated.sum());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-interval-ms:600000}")
+    public void evictExpiredReports() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        for (Job job : jobs.values()) {
+            ReportJobStatus status = job.snapshot();
+            if (status.getFinishedAt() == null || status.getFinishedAt().isAfter(cutoff)) {
+                continue;
+            }
+            jobsByParameters.remove(job.parameters, job.id);
+            jobs.remove(job.id);
+            try {
+                Files.deleteIfExists(job.file);
+            } catch (IOException e) {
+                logger.warn("Could not delete expired report {}", job.file, e);
+            }
+        }
+    }
+
+    private void run(Job job) {
+        job.update(status -> {
+            status.setState(State.RUNNING);
+            status.setStartedAt(LocalDateTime.now());
+        });
+        Path temp = job.file.resolveSibling(job.file.getFileName() + ".tmp");
+        try {
+            Map<String, Object> report = buildReport(job);
+            List<String> unavailable = unavailableMetrics(report);
+
+            Files.createDirectories(job.file.getParent());
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                writeReport(job.format, report, output);
+            }
+            Files.move(temp, job.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long size = Files.size(job.file);
+            generated.increment();
+            if (!unavailable.isEmpty()) {
+                // A degraded report is delivered to whoever asked for it, but the next request builds a fresh one
+                jobsByParameters.remove(job.parameters, job.id);
+                logger.warn("Report job {} is missing metrics {}; it will not be reused", job.id, unavailable);
+            }
+            job.update(status -> {
+                status.setState(State.COMPLETED);
+                status.setUnavailableMetrics(unavailable);
+                status.setSizeBytes(size);
+                status.setFinishedAt(LocalDateTime.now());
+            });
+            logger.info("Report job {} completed: {} bytes of {}", job.id, size, job.format.getExtension());
+        } catch (Exception e) {
+            failed.increment();
+            jobsByParameters.remove(job.parameters, job.id);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Best effort; the directory only holds report files
+            }
+            job.update(status -> {
+                status.setState(State.FAILED);
+                status.setError(e.getMessage());
+                status.setFinishedAt(LocalDateTime.now());
+            });
+            logger.error("Report job {} failed", job.id, e);
+        }
+    }
+
+    // The sections are independent, so they are built at the same time
+    private Map<String, Object> buildReport(Job job) {
+        CompletableFuture<Map<String, Object>> overview =
+            CompletableFuture.supplyAsync(adminAnalyticsService::getSystemOverview, sectionExecutor);
+        CompletableFuture<Map<String, Object>> detailed = CompletableFuture.supplyAsync(
+            () -> adminAnalyticsService.getDetailedAnalytics(job.startDate, job.endDate), sectionExecutor);
+        CompletableFuture<Map<String, Object>> performance =
+            CompletableFuture.supplyAsync(adminAnalyticsService::getPerformanceMetrics, sectionExecutor);
+
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("generated_at", LocalDateTime.now());
+        info.put("period_start", job.startDate);
+        info.put("period_end", job.endDate);
+        info.put("format", job.format.getExtension());
+        info.put("requested_by", job.requestedBy);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("report", info);
+        report.put("overview", overview.join());
+        report.put("detailed_analytics", detailed.join());
+        report.put("performance_metrics", performance.join());
+        return report;
+    }
+
+    // Analytics sections name the metrics that failed or timed out in their own unavailableMetrics list
+    @SuppressWarnings("unchecked")
+    private static List<String> unavailableMetrics(Map<String, Object> report) {
+        List<String> unavailable = new ArrayList<>();
+        report.forEach((section, content) -> {
+            if (content instanceof Map<?, ?> metrics) {
+                AdminAnalyticsService.unavailableMetrics((Map<String, Object>) metrics)
+                    .forEach(metric -> unavailable.add(section + "." + metric));
+            }
+        });
+        return unavailable;
+    }
+
+    private void writeReport(ReportFormat format, Map<String, Object> report, OutputStream output) throws IOException {
+        if (format == ReportFormat.JSON) {
+            objectMapper.writeValue(output, report);
+            return;
+        }
+        // Entities and dates are converted the same way the JSON endpoints render them
+        List<ReportRows.Row> rows = ReportRows.flatten(objectMapper.valueToTree(report));
+        switch (format) {
+            case CSV -> CsvReportWriter.write(rows, output);
+            case XLSX -> XlsxReportWriter.write(rows, output);
+            default -> PdfReportWriter.write("Comprehensive report", rows, output);
+        }
+    }
+
+    private boolean isReusable(Job job) {
+        ReportJobStatus status = job.snapshot();
+        if (status.getState() == State.QUEUED || status.getState() == State.RUNNING) {
+            return true;
+        }
+        return status.getState() == State.COMPLETED
+            && (status.getUnavailableMetrics() == null || status.getUnavailableMetrics().isEmpty())
+            && status.getFinishedAt().isAfter(LocalDateTime.now().minusMinutes(cacheTtlMinutes))
+            && Files.exists(job.file);
+    }
+
+    private Job findJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job", jobId);
+        }
+        return job;
+    }
+
+    private final class Job {
+        private final String id;
+        private final String parameters;
+        private final ReportFormat format;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final String requestedBy;
+        private final Path file;
+        private final ReportJobStatus status = new ReportJobStatus();
+        private final List<Consumer<ReportJobStatus>> listeners = new CopyOnWriteArrayList<>();
+
+        private Job(String id, String parameters, ReportFormat format, LocalDate startDate, LocalDate endDate,
+                    String requestedBy) {
+            this.id = id;
+            this.parameters = parameters;
+            this.format = format;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.requestedBy = requestedBy;
+            this.file = Paths.get(reportDirectory).resolve("report-" + id + "." + format.getExtension());
+            status.setJobId(id);
+            status.setFormat(format.getExtension());
+            status.setStartDate(startDate);
+            status.setEndDate(endDate);
+            status.setRequestedBy(requestedBy);
+            status.setState(State.QUEUED);
+            status.setSubmittedAt(LocalDateTime.now());
+        }
+
+        private void update(Consumer<ReportJobStatus> change) {
+            synchronized (this) {
+                change.accept(status);
+            }
+            ReportJobStatus current = snapshot();
+            for (Consumer<ReportJobStatus> listener : listeners) {
+                deliver(listener, current);
+            }
+            if (current.isFinished()) {
+                listeners.clear();
+            }
+        }
+
+        private void deliver(Consumer<ReportJobStatus> listener, ReportJobStatus current) {
+            try {
+                listener.accept(current);
+            } catch (RuntimeException e) {
+                // Typically a client that disconnected from the event stream
+                listeners.remove(listener);
+            }
+        }
+
+        private synchronized ReportJobStatus snapshot() {
+            ReportJobStatus copy = new ReportJobStatus();
+            copy.setJobId(status.getJobId());
+            copy.setFormat(status.getFormat());
+            copy.setStartDate(status.getStartDate());
+            copy.setEndDate(status.getEndDate());
+            copy.setRequestedBy(status.getRequestedBy());
+            copy.setState(status.getState());
+            copy.setSizeBytes(status.getSizeBytes());
+            copy.setSubmittedAt(status.getSubmittedAt());
+            copy.setStartedAt(status.getStartedAt());
+            copy.setFinishedAt(status.getFinishedAt());
+            copy.setError(status.getError());
+            copy.setUnavailableMetrics(status.getUnavailableMetrics());
+            return copy;
+        }
+    }
+}
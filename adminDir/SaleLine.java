@@ -0,0 +1,11 @@
+package com.music.musicstore.events;
+
+import java.math.BigDecimal;
+
+/**
+ * One order line as carried by the order events: the track, how many copies, the amount
+ * charged for the line (unit price times quantity, after discounts) and the track's artist
+ * and genre at the time of the order.
+ */
+public record SaleLine(Long musicId, int quantity, BigDecimal amount, String artistUsername, String genre) {
+}
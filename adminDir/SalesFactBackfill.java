@@ -0,0 +1,70 @@
+package com.music.musicstore.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marks the one-off backfill of daily_sales_facts as done. Saved in the transaction that
+ * writes the backfilled facts, so the facts and the marker commit or fail together.
+ */
+@Entity
+@Table(name = "sales_fact_backfills")
+public class SalesFactBackfill {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Orders before this time were read by the backfill
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "order_lines_scanned", nullable = false)
+    private long orderLinesScanned;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public SalesFactBackfill() {
+    }
+
+    public SalesFactBackfill(LocalDateTime cutoff, long orderLinesScanned) {
+        this.cutoff = cutoff;
+        this.orderLinesScanned = orderLinesScanned;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getCutoff() {
+        return cutoff;
+    }
+
+    public void setCutoff(LocalDateTime cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    public long getOrderLinesScanned() {
+        return orderLinesScanned;
+    }
+
+    public void setOrderLinesScanned(long orderLinesScanned) {
+        this.orderLinesScanned = orderLinesScanned;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
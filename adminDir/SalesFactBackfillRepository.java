@@ -0,0 +1,9 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.SalesFactBackfill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SalesFactBackfillRepository extends JpaRepository<SalesFactBackfill, Long> {
+}
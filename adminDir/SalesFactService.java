@@ -0,0 +1,467 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.events.OrderCompletedEvent;
+import com.music.musicstore.events.OrderRefundedEvent;
+import com.music.musicstore.events.SaleLine;
+import com.music.musicstore.models.DailySalesFact;
+import com.music.musicstore.models.SalesFactBackfill;
+import com.music.musicstore.repositories.DailySalesFactRepository;
+import com.music.musicstore.repositories.OrderSalesRepository;
+import com.music.musicstore.repositories.SalesFactBackfillRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Daily sales facts per track (units, revenue and refunds by day, with the track's artist
+ * and genre), so revenue and best-seller analytics read one row per track per day instead
+ * of grouping orders and order items.
+ *
+ * Facts are incremented per order from the OrderCompletedEvent and OrderRefundedEvent that
+ * OrderService publishes after commit. A missed increment is recoverable: a nightly reconcile
+ * re-derives the closed days of the last month from the orders table, and rebuild does the
+ * same for any range. Refunds are booked against the day of the sale, which is the only date
+ * the orders table keeps for them, so increments and rebuilds agree.
+ */
+@Service
+public class SalesFactService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesFactService.class);
+
+    private static final String UNKNOWN_GENRE = "Unknown";
+    private static final String UNKNOWN_ARTIST = "unknown";
+    private static final String REFUNDED = "REFUNDED";
+
+    private final DailySalesFactRepository dailySalesFactRepository;
+    private final OrderSalesRepository orderSalesRepository;
+    private final SalesFactBackfillRepository salesFactBackfillRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate deltaTemplate;
+
+    // Net revenue of all days before the cached date; only today's facts are summed per request.
+    // Refunds of past sales and rebuilds bump the version, which makes the cached total stale.
+    private final AtomicReference<RevenueBeforeDay> revenueBeforeToday = new AtomicReference<>();
+    private final AtomicLong revenueVersion = new AtomicLong();
+
+    private volatile boolean backfillDone = false;
+
+    // Closed days the nightly reconcile rebuilds, for increments that were missed
+    @Value("${app.sales.facts.reconcile-days:30}")
+    private int reconcileDays;
+
+    // Default window for best-seller lists that are not given a date range
+    @Value("${app.sales.facts.top-selling-days:365}")
+    private int topSellingDays;
+
+    // Default window for period analytics called without dates
+    @Value("${app.sales.facts.default-period-days:30}")
+    private int defaultPeriodDays;
+
+    @Autowired
+    public SalesFactService(DailySalesFactRepository dailySalesFactRepository,
+                            OrderSalesRepository orderSalesRepository,
+                            SalesFactBackfillRepository salesFactBackfillRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.dailySalesFactRepository = dailySalesFactRepository;
+        this.orderSalesRepository = orderSalesRepository;
+        this.salesFactBackfillRepository = salesFactBackfillRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Listeners run after the order's transaction commits, while it is still bound to the thread;
+        // joining it would silently drop the increments
+        this.deltaTemplate = new TransactionTemplate(transactionManager);
+        this.deltaTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        logger.info("SalesFactService initialized successfully");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCompleted(OrderCompletedEvent event) {
+        record(event.getOrderId(), event.getOrderDate().toLocalDate(), event.getLines(), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderRefunded(OrderRefundedEvent event) {
+        LocalDate salesDate = event.getOrderDate().toLocalDate();
+        record(event.getOrderId(), salesDate, event.getLines(), true);
+        if (salesDate.isBefore(LocalDate.now())) {
+            revenueVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Net revenue over all time: a cached total for the days before today plus today's facts
+     */
+    public BigDecimal getTotalRevenue() {
+        LocalDate today = LocalDate.now();
+        long version = revenueVersion.get();
+        RevenueBeforeDay cached = revenueBeforeToday.get();
+        if (cached == null || !cached.day().equals(today) || cached.version() != version) {
+            cached = new RevenueBeforeDay(today, version, totals(LocalDate.EPOCH, today).netRevenue());
+            revenueBeforeToday.set(cached);
+        }
+        return cached.amount().add(getTodayRevenue());
+    }
+
+    public BigDecimal getTodayRevenue() {
+        LocalDate today = LocalDate.now();
+        return totals(today, today.plusDays(1)).netRevenue();
+    }
+
+    /**
+     * Units, revenue and refunds per day between the dates (inclusive), oldest first
+     */
+    public List<Map<String, Object>> getRevenueByPeriod(LocalDate startDate, LocalDate endDate) {
+        DateRange range = resolveRange(startDate, endDate, defaultPeriodDays);
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (Object[] row : dailySalesFactRepository.sumByDay(range.start(), range.end())) {
+            SalesTotals totals = toTotals(row, 1);
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("date", row[0]);
+            point.put("unitsSold", totals.units());
+            point.put("revenue", totals.revenue());
+            point.put("refundedUnits", totals.refundedUnits());
+            point.put("refunds", totals.refundedAmount());
+            point.put("netRevenue", totals.netRevenue());
+            series.add(point);
+        }
+        return series;
+    }
+
+    /**
+     * Sales totals between the dates (inclusive) with breakdowns by genre and artist
+     */
+    public Map<String, Object> getSalesSummary(LocalDate startDate, LocalDate endDate) {
+        DateRange range = resolveRange(startDate, endDate, defaultPeriodDays);
+        SalesTotals totals = totals(range.start(), range.end());
+        long days = range.end().toEpochDay() - range.start().toEpochDay();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startDate", range.start());
+        summary.put("endDate", range.end().minusDays(1));
+        summary.put("unitsSold", totals.units());
+        summary.put("refundedUnits", totals.refundedUnits());
+        summary.put("netUnits", totals.netUnits());
+        summary.put("grossRevenue", totals.revenue());
+        summary.put("refunds", totals.refundedAmount());
+        summary.put("netRevenue", totals.netRevenue());
+        summary.put("averageDailyRevenue", days > 0
+            ? totals.netRevenue().divide(BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
+        summary.put("revenueByGenre", netRevenueBy(dailySalesFactRepository.sumByGenre(range.start(), range.end())));
+        summary.put("revenueByArtist", netRevenueBy(dailySalesFactRepository.sumByArtist(range.start(), range.end())));
+        return summary;
+    }
+
+    /**
+     * Best-selling tracks by net units between the dates (inclusive)
+     */
+    public List<TopSeller> getTopSelling(LocalDate startDate, LocalDate endDate, int limit) {
+        DateRange range = resolveRange(startDate, endDate, topSellingDays);
+        return toTopSellers(dailySalesFactRepository.findTopMusic(range.start(), range.end(), PageRequest.of(0, limit)));
+    }
+
+    public List<TopSeller> getTopSellingForGenre(String genre, LocalDate startDate, LocalDate endDate, int limit) {
+        DateRange range = resolveRange(startDate, endDate, topSellingDays);
+        return toTopSellers(dailySalesFactRepository.findTopMusicForGenre(genre, range.start(), range.end(),
+            PageRequest.of(0, limit)));
+    }
+
+    public List<TopSeller> getTopSellingForArtist(String artistUsername, LocalDate startDate, LocalDate endDate,
+                                                  int limit) {
+        DateRange range = resolveRange(startDate, endDate, topSellingDays);
+        return toTopSellers(dailySalesFactRepository.findTopMusicForArtist(artistUsername, range.start(), range.end(),
+            PageRequest.of(0, limit)));
+    }
+
+    public SalesTotals getArtistTotals(String artistUsername) {
+        List<Object[]> rows = dailySalesFactRepository.sumForArtist(artistUsername);
+        return rows.isEmpty() ? SalesTotals.EMPTY : toTotals(rows.get(0), 0);
+    }
+
+    /**
+     * All-time totals for every artist with sales
+     */
+    public Map<String, SalesTotals> getTotalsByArtist() {
+        return dailySalesFactRepository.sumByArtist(LocalDate.EPOCH, LocalDate.now().plusDays(1)).stream()
+            .collect(Collectors.toMap(row -> (String) row[0], row -> toTotals(row, 1)));
+    }
+
+    /**
+     * Net units and revenue per genre between the dates (inclusive), best-selling genre first
+     */
+    public List<Map<String, Object>> getGenreSales(LocalDate startDate, LocalDate endDate) {
+        DateRange range = resolveRange(startDate, endDate, defaultPeriodDays);
+        List<Map<String, Object>> genres = new ArrayList<>();
+        for (Object[] row : dailySalesFactRepository.sumByGenre(range.start(), range.end())) {
+            SalesTotals totals = toTotals(row, 1);
+            Map<String, Object> genre = new LinkedHashMap<>();
+            genre.put("genre", row[0]);
+            genre.put("sales", totals.netUnits());
+            genre.put("revenue", totals.netRevenue());
+            genres.add(genre);
+        }
+        genres.sort((a, b) -> Long.compare((Long) b.get("sales"), (Long) a.get("sales")));
+        return genres;
+    }
+
+    /**
+     * Replace the facts for the days covering [from, to) with totals re-derived from orders.
+     * Rebuilds are serialized, so the reconcile and a manual rebuild of the same days cannot
+     * interleave their deletes and inserts.
+     */
+    public synchronized Map<String, Object> rebuild(LocalDateTime from, LocalDateTime to) {
+        // Reading and replacing in one transaction lets the driver honour the fetch size while streaming
+        Map<String, Object> result = transactionTemplate.execute(status -> rebuildInTransaction(from, to));
+        revenueVersion.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Nightly rebuild of the closed days of the last month, for increments that were missed.
+     * Today is left to the increments, so orders completing now never wait on the rebuild.
+     */
+    @Scheduled(cron = "${app.sales.facts.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        if (!backfillDone) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            rebuild(today.minusDays(reconcileDays).atStartOfDay(), today.atStartOfDay());
+        } catch (Exception e) {
+            logger.error("Daily sales fact reconcile failed", e);
+        }
+    }
+
+    /**
+     * One-off backfill of every order up to now. Completion is recorded by a marker row
+     * committed with the facts, so a failed backfill is retried on the next run and increments
+     * made before the backfill ran do not count as one.
+     */
+    @Scheduled(initialDelayString = "${app.sales.facts.backfill-initial-delay-ms:30000}",
+               fixedDelayString = "${app.sales.facts.backfill-retry-ms:300000}")
+    public synchronized void backfillIfNeeded() {
+        if (backfillDone) {
+            return;
+        }
+        if (salesFactBackfillRepository.count() > 0) {
+            backfillDone = true;
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime oldest = orderSalesRepository.findOldestOrderDate().orElse(cutoff);
+                Map<String, Object> result = rebuildInTransaction(oldest, cutoff);
+                salesFactBackfillRepository.save(new SalesFactBackfill(cutoff, (Long) result.get("orderLinesScanned")));
+            });
+            revenueVersion.incrementAndGet();
+            backfillDone = true;
+            logger.info("Daily sales fact backfill finished for orders before {}", cutoff);
+        } catch (Exception e) {
+            logger.error("Daily sales fact backfill failed, retrying on the next run", e);
+        }
+    }
+
+    private Map<String, Object> rebuildInTransaction(LocalDateTime from, LocalDateTime to) {
+        LocalDate start = from.toLocalDate();
+        LocalDate end = to.toLocalDate().atStartOfDay().equals(to) ? to.toLocalDate() : to.toLocalDate().plusDays(1);
+        logger.info("Rebuilding daily sales facts for [{}, {})", start, end);
+        long started = System.currentTimeMillis();
+
+        // Memory is proportional to the number of (day, track) pairs sold, not the number of orders
+        Map<FactKey, FactDelta> facts = new HashMap<>();
+        long[] scanned = {0};
+        orderSalesRepository.streamSoldLines(start.atStartOfDay(), end.atStartOfDay(), rs -> {
+            long musicId = rs.getLong("music_id");
+            BigDecimal price = rs.getBigDecimal("price");
+            BigDecimal amount = price != null ? price : BigDecimal.ZERO;
+            boolean refunded = REFUNDED.equals(rs.getString("status"));
+            FactKey key = new FactKey(rs.getTimestamp("order_date").toLocalDateTime().toLocalDate(), musicId);
+            String artistUsername = rs.getString("artist_username");
+            String genre = rs.getString("genre");
+            FactDelta delta = facts.computeIfAbsent(key, k -> new FactDelta(artistOrUnknown(artistUsername),
+                genreOrUnknown(genre)));
+            delta.add(1, amount, false);
+            if (refunded) {
+                delta.add(1, amount, true);
+            }
+            scanned[0]++;
+        });
+
+        dailySalesFactRepository.deleteRange(start, end);
+        List<DailySalesFact> rows = new ArrayList<>(facts.size());
+        facts.forEach((key, delta) -> rows.add(delta.toFact(key)));
+        dailySalesFactRepository.saveAll(rows);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start);
+        result.put("to", end);
+        result.put("orderLinesScanned", scanned[0]);
+        result.put("facts", facts.size());
+        result.put("durationMs", System.currentTimeMillis() - started);
+        logger.info("Daily sales fact rebuild finished: {}", result);
+        return result;
+    }
+
+    private void record(Long orderId, LocalDate salesDate, List<SaleLine> lines, boolean refund) {
+        try {
+            // An order can hold the same track more than once; one increment per track
+            Map<Long, FactDelta> deltas = new LinkedHashMap<>();
+            for (SaleLine line : lines) {
+                FactDelta delta = deltas.computeIfAbsent(line.musicId(), id -> new FactDelta(
+                    artistOrUnknown(line.artistUsername()), genreOrUnknown(line.genre())));
+                delta.add(line.quantity(), line.amount() != null ? line.amount() : BigDecimal.ZERO, refund);
+            }
+            deltas.forEach((musicId, delta) -> addToFact(new FactKey(salesDate, musicId), delta));
+        } catch (Exception e) {
+            // The reconcile re-derives the facts from orders, so a missed increment is recoverable
+            logger.warn("Failed to update daily sales facts for order {}", orderId, e);
+        }
+    }
+
+    // Increment-or-insert; a concurrent insert of the same fact is resolved by retrying the increment
+    private void addToFact(FactKey key, FactDelta delta) {
+        Integer updated = deltaTemplate.execute(status -> dailySalesFactRepository.increment(key.salesDate(),
+            key.musicId(), delta.units, delta.revenue, delta.refundedUnits, delta.refundedAmount));
+        if (updated != null && updated > 0) {
+            return;
+        }
+
+        try {
+            deltaTemplate.executeWithoutResult(status -> dailySalesFactRepository.save(delta.toFact(key)));
+        } catch (DataIntegrityViolationException e) {
+            deltaTemplate.execute(status -> dailySalesFactRepository.increment(key.salesDate(),
+                key.musicId(), delta.units, delta.revenue, delta.refundedUnits, delta.refundedAmount));
+        }
+    }
+
+    private SalesTotals totals(LocalDate start, LocalDate end) {
+        List<Object[]> rows = dailySalesFactRepository.sumRange(start, end);
+        return rows.isEmpty() ? SalesTotals.EMPTY : toTotals(rows.get(0), 0);
+    }
+
+    // Inclusive API dates to a [start, end) range; a missing start looks back the given number of days
+    private static DateRange resolveRange(LocalDate startDate, LocalDate endDate, int defaultDays) {
+        LocalDate end = (endDate != null ? endDate : LocalDate.now()).plusDays(1);
+        LocalDate start = startDate != null ? startDate : end.minusDays(defaultDays);
+        return new DateRange(start, end);
+    }
+
+    private static Map<String, BigDecimal> netRevenueBy(List<Object[]> rows) {
+        Map<String, BigDecimal> revenue = new TreeMap<>();
+        for (Object[] row : rows) {
+            revenue.put((String) row[0], toTotals(row, 1).netRevenue());
+        }
+        return revenue;
+    }
+
+    private static List<TopSeller> toTopSellers(List<Object[]> rows) {
+        return rows.stream()
+            .map(row -> new TopSeller((Long) row[0], toLong(row[1]), toBigDecimal(row[2])))
+            .toList();
+    }
+
+    // Reads units, revenue, refundedUnits and refundedAmount starting at the given column
+    private static SalesTotals toTotals(Object[] row, int offset) {
+        return new SalesTotals(toLong(row[offset]), toBigDecimal(row[offset + 1]),
+            toLong(row[offset + 2]), toBigDecimal(row[offset + 3]));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value instanceof Number number ? new BigDecimal(number.toString()) : BigDecimal.ZERO;
+    }
+
+    private static String artistOrUnknown(String artistUsername) {
+        return artistUsername != null ? artistUsername : UNKNOWN_ARTIST;
+    }
+
+    private static String genreOrUnknown(String genre) {
+        return genre != null && !genre.isBlank() ? genre : UNKNOWN_GENRE;
+    }
+
+    public record SalesTotals(long units, BigDecimal revenue, long refundedUnits, BigDecimal refundedAmount) {
+
+        static final SalesTotals EMPTY = new SalesTotals(0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+
+        public long netUnits() {
+            return units - refundedUnits;
+        }
+
+        public BigDecimal netRevenue() {
+            return revenue.subtract(refundedAmount);
+        }
+    }
+
+    // netRevenue is null when the source only counts units, as the best-seller tracker does
+    public record TopSeller(Long musicId, long netUnits, BigDecimal netRevenue) {
+    }
+
+    private record FactKey(LocalDate salesDate, Long musicId) {
+    }
+
+    private record DateRange(LocalDate start, LocalDate end) {
+    }
+
+    private record RevenueBeforeDay(LocalDate day, long version, BigDecimal amount) {
+    }
+
+    private static final class FactDelta {
+        private final String artistUsername;
+        private final String genre;
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long refundedUnits;
+        private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+        private FactDelta(String artistUsername, String genre) {
+            this.artistUsername = artistUsername;
+            this.genre = genre;
+        }
+
+        // A refund only adds to the refund columns; the sale itself stays counted on its day
+        private void add(long quantity, BigDecimal amount, boolean refund) {
+            if (refund) {
+                refundedUnits += quantity;
+                refundedAmount = refundedAmount.add(amount);
+            } else {
+                units += quantity;
+                revenue = revenue.add(amount);
+            }
+        }
+
+        private DailySalesFact toFact(FactKey key) {
+            return new DailySalesFact(key.salesDate(), key.musicId(), artistUsername, genre, units, revenue,
+                refundedUnits, refundedAmount);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.music.musicstore.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters summary over long keys with weighted increments.
+ *
+ * Keeps at most capacity counters. When a new key arrives and the summary is full, the key
+ * takes over the smallest counter and inherits its count as error, so every reported count
+ * overestimates the true count by at most its error. Any key whose true count exceeds
+ * total / capacity is guaranteed to be present. Counters live in a map and the minimum is
+ * found by a scan, which is cheap at the small capacities used here and only happens when
+ * an unseen key arrives at a full summary.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class SpaceSaving {
+
+    public record Estimate(long key, long count, long error) {
+    }
+
+    private final int capacity;
+    private final Map<Long, long[]> counters;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+    }
+
+    public void add(long key, long weight) {
+        add(key, weight, 0);
+    }
+
+    /**
+     * Add every counter of another summary, keeping its error bounds
+     */
+    public void addAll(SpaceSaving other) {
+        for (Map.Entry<Long, long[]> entry : other.counters.entrySet()) {
+            add(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    public SpaceSaving copy() {
+        SpaceSaving copy = new SpaceSaving(capacity);
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            copy.counters.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    /**
+     * The largest counters, highest count first
+     */
+    public List<Estimate> top(int limit) {
+        List<Estimate> estimates = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> estimates.add(new Estimate(key, counter[0], counter[1])));
+        estimates.sort((a, b) -> a.count() != b.count()
+            ? Long.compare(b.count(), a.count()) : Long.compare(a.error(), b.error()));
+        return estimates.size() > limit ? estimates.subList(0, limit) : estimates;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    public void clear() {
+        counters.clear();
+    }
+
+    /**
+     * Take weight back from a key, e.g. for a refunded sale. Only a tracked key is lowered; an
+     * untracked one was already counted below the smallest counter. A counter that reaches
+     * zero is dropped, and the error never exceeds the count.
+     */
+    public void subtract(long key, long weight) {
+        long[] counter = counters.get(key);
+        if (counter == null) {
+            return;
+        }
+        counter[0] = Math.max(0, counter[0] - weight);
+        if (counter[0] == 0) {
+            counters.remove(key);
+        } else {
+            counter[1] = Math.min(counter[1], counter[0]);
+        }
+    }
+
+    private void add(long key, long weight, long error) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            counter[1] += error;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[] {weight, error});
+            return;
+        }
+
+        Long minKey = null;
+        long[] min = null;
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min[0]) {
+                minKey = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[] {min[0] + weight, min[0] + error});
+    }
+}
@@ -1,28 +1,45 @@
 package com.music.musicstore.services;
 
+import com.music.musicstore.dto.ArtistPatchDto;
+import com.music.musicstore.dto.BulkUserJobStatus;
 import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.dto.UserImportJobStatus;
+import com.music.musicstore.dto.UserPatchDto;
 import com.music.musicstore.models.users.*;
 import com.music.musicstore.exceptions.ValidationException;
 import com.music.musicstore.exceptions.BusinessRuleException;
+import com.music.musicstore.exceptions.ResourceNotFoundException;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import com.music.musicstore.repositories.UserWriteRepository;
+import com.music.musicstore.services.BulkUserOperationService.BulkStatusSpec;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.HashMap;
 
 @Service
 public class UnifiedUserService {
     private static final Logger logger = LoggerFactory.getLogger(UnifiedUserService.class);
 
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 50;
+
     @Autowired
     private CustomerService customerService;
 
@@ -36,7 +53,43 @@ public class UnifiedUserService {
     private StaffService staffService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserDirectoryRepository userDirectoryRepository;
+
+    @Autowired
+    private UserIdentityService userIdentityService;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private UserCounterService userCounterService;
+
+    @Autowired
+    private RegistrationRollupService registrationRollupService;
+
+    @Autowired
+    private ActiveUserTracker activeUserTracker;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private BulkUserOperationService bulkUserOperationService;
+
+    @Autowired
+    private UserWriteRepository userWriteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserDeletionService userDeletionService;
 
     public UnifiedUserService() {
         logger.info("UnifiedUserService initialized successfully");
@@ -62,7 +115,7 @@ public class UnifiedUserService {
         }
 
         try {
-            String encodedPassword = passwordEncoder.encode(password);
+            String encodedPassword = passwordHashingService.encode(password);
 
             switch (role.toUpperCase()) {
                 case "CUSTOMER":
@@ -75,7 +128,7 @@ public class UnifiedUserService {
                     customer.setRole("ROLE_CUSTOMER"); // Explicitly set the role
                     Customer savedCustomer = customerService.createCustomer(customer);
                     logger.info("Successfully created customer: {}", username);
-                    return convertCustomerToDto(savedCustomer);
+                    return onUserCreated(convertCustomerToDto(savedCustomer));
 
                 case "ARTIST":
                     Artist artist = new Artist();
@@ -88,7 +141,7 @@ public class UnifiedUserService {
                     artist.setPhotoUrl(photoUrl);
                     Artist savedArtist = artistService.createArtist(artist);
                     logger.info("Successfully created artist: {}", username);
-                    return convertArtistToDto(savedArtist);
+                    return onUserCreated(convertArtistToDto(savedArtist));
 
                 case "ADMIN":
                     Admin admin = new Admin();
@@ -99,7 +152,7 @@ public class UnifiedUserService {
                     admin.setLastName(lastName);
                     Admin savedAdmin = adminService.createAdmin(admin);
                     logger.info("Successfully created admin: {}", username);
-                    return convertAdminToDto(savedAdmin);
+                    return onUserCreated(convertAdminToDto(savedAdmin));
 
                 case "STAFF":
                     Staff staff = new Staff();
@@ -110,7 +163,7 @@ public class UnifiedUserService {
                     staff.setLastName(lastName);
                     Staff savedStaff = staffService.createStaff(staff);
                     logger.info("Successfully created staff: {}", username);
-                    return convertStaffToDto(savedStaff);
+                    return onUserCreated(convertStaffToDto(savedStaff));
 
                 default:
                     logger.error("Invalid role: {}", role);
@@ -122,6 +175,28 @@ public class UnifiedUserService {
         }
     }
 
+    /**
+     * Bulk-create customers and artists from a CSV or NDJSON stream in a background job;
+     * poll getImportJobStatus for progress and the per-row report
+     */
+    public UserImportJobStatus startUserImport(InputStream input, String format, String requestedBy) {
+        logger.debug("Importing users from {} stream requested by {}", format, requestedBy);
+        try {
+            return userImportService.submitImport(input, format, requestedBy, this::onUsersImported);
+        } catch (Exception e) {
+            logger.error("Error starting user import requested by {}", requestedBy, e);
+            throw e;
+        }
+    }
+
+    public UserImportJobStatus getImportJobStatus(String jobId) {
+        return userImportService.getStatus(jobId);
+    }
+
+    public List<UserImportJobStatus> getImportJobs() {
+        return userImportService.getJobs();
+    }
+
     public UserDetails loadUserByUsername(String username, String role) {
         logger.debug("Loading user by username: {} with role: {}", username, role);
 
@@ -152,15 +227,19 @@ public class UnifiedUserService {
         }
     }
 
+    public Map<String, Object> getUserDetailsCacheStats() {
+        return userDetailsCache.getStats();
+    }
+
     public Map<String, Long> getUserCounts() {
         logger.debug("Getting user counts");
 
         try {
             Map<String, Long> counts = new HashMap<>();
-            counts.put("customers", customerService.count());
-            counts.put("artists", artistService.count());
-            counts.put("admins", adminService.count());
-            counts.put("staff", staffService.count());
+            counts.put("customers", userCounterService.getTotal("CUSTOMER"));
+            counts.put("artists", userCounterService.getTotal("ARTIST"));
+            counts.put("admins", userCounterService.getTotal("ADMIN"));
+            counts.put("staff", userCounterService.getTotal("STAFF"));
 
             long totalUsers = counts.values().stream().mapToLong(Long::longValue).sum();
             counts.put("total", totalUsers);
@@ -217,7 +296,7 @@ public class UnifiedUserService {
 
     // Additional methods for admin functionality
     public long getTotalUsersCount() {
-        return customerService.count() + artistService.count() + staffService.count() + adminService.count();
+        return userCounterService.getTotal();
     }
 
     public UserDto getUserById(Long id) {
@@ -229,45 +308,23 @@ public class UnifiedUserService {
         }
 
         try {
-            // Try to find user in all repositories
-            try {
-                Customer customer = customerService.findById(id);
-                if (customer != null) {
-                    logger.info("Found customer with ID: {}", id);
-                    return convertCustomerToDto(customer);
+            Optional<UserIdentity> identity = userIdentityService.findByUserId(id);
+            if (identity.isPresent()) {
+                Optional<UserDto> user = userDirectoryRepository.findOne(identity.get().getRole(), id);
+                if (user.isPresent()) {
+                    logger.info("Found {} with ID: {}", identity.get().getRole().toLowerCase(), id);
+                    user.get().setVersion(identity.get().getVersion());
+                    return user.get();
                 }
-            } catch (Exception e) {
-                logger.debug("Customer not found with ID: {}", id);
+                logger.warn("Stale identity entry for {} {}, falling back to role probe", identity.get().getRole(), id);
             }
 
-            try {
-                Artist artist = artistService.findById(id);
-                if (artist != null) {
-                    logger.info("Found artist with ID: {}", id);
-                    return convertArtistToDto(artist);
-                }
-            } catch (Exception e) {
-                logger.debug("Artist not found with ID: {}", id);
-            }
-
-            try {
-                Staff staff = staffService.findById(id);
-                if (staff != null) {
-                    logger.info("Found staff with ID: {}", id);
-                    return convertStaffToDto(staff);
-                }
-            } catch (Exception e) {
-                logger.debug("Staff not found with ID: {}", id);
-            }
-
-            try {
-                Admin admin = adminService.findById(id);
-                if (admin != null) {
-                    logger.info("Found admin with ID: {}", id);
-                    return convertAdminToDto(admin);
-                }
-            } catch (Exception e) {
-                logger.debug("Admin not found with ID: {}", id);
+            // Users created outside UnifiedUserService (self-signup, seeded admins) only reach the
+            // registry with the next backfill, so a miss is checked against the role tables
+            UserDto user = probeUserById(id);
+            if (user != null) {
+                userIdentityService.register(user);
+                return user;
             }
 
             logger.error("User not found with ID: {}", id);
@@ -278,7 +335,57 @@ public class UnifiedUserService {
         }
     }
 
-    public UserDto updateUser(Long id, Object updateRequest) {
+    // Role-table lookup for users the identity registry does not know (yet)
+    private UserDto probeUserById(Long id) {
+        try {
+            Customer customer = customerService.findById(id);
+            if (customer != null) {
+                logger.info("Found customer with ID: {}", id);
+                return convertCustomerToDto(customer);
+            }
+        } catch (Exception e) {
+            logger.debug("Customer not found with ID: {}", id);
+        }
+
+        try {
+            Artist artist = artistService.findById(id);
+            if (artist != null) {
+                logger.info("Found artist with ID: {}", id);
+                return convertArtistToDto(artist);
+            }
+        } catch (Exception e) {
+            logger.debug("Artist not found with ID: {}", id);
+        }
+
+        try {
+            Staff staff = staffService.findById(id);
+            if (staff != null) {
+                logger.info("Found staff with ID: {}", id);
+                return convertStaffToDto(staff);
+            }
+        } catch (Exception e) {
+            logger.debug("Staff not found with ID: {}", id);
+        }
+
+        try {
+            Admin admin = adminService.findById(id);
+            if (admin != null) {
+                logger.info("Found admin with ID: {}", id);
+                return convertAdminToDto(admin);
+            }
+        } catch (Exception e) {
+            logger.debug("Admin not found with ID: {}", id);
+        }
+
+        return null;
+    }
+
+    /**
+     * Apply a partial update: only fields present in the patch are written, with one targeted
+     * UPDATE. When the patch carries expectedVersion, a concurrent change fails with
+     * OptimisticLockingFailureException instead of being silently overwritten.
+     */
+    public UserDto updateUser(Long id, UserPatchDto patch) {
         logger.debug("Updating user with ID: {}", id);
 
         if (id == null) {
@@ -286,7 +393,7 @@ public class UnifiedUserService {
             throw new ValidationException("User ID cannot be null");
         }
 
-        if (updateRequest == null) {
+        if (patch == null) {
             logger.error("Update request is null");
             throw new ValidationException("Update request cannot be null");
         }
@@ -294,50 +401,103 @@ public class UnifiedUserService {
         try {
             // First find the user to determine their type
             UserDto existingUser = getUserById(id);
-            String role = existingUser.getRole();
+            String role = UserDirectoryRepository.normalizeRole(existingUser.getRole());
 
             logger.debug("Updating user with role: {}", role);
 
-            switch (role.toUpperCase()) {
-                case "CUSTOMER":
-                    Customer customer = customerService.findById(id);
-                    updateCustomerFromRequest(customer, updateRequest);
-                    customerService.updateCustomer(customer);
-                    logger.info("Successfully updated customer with ID: {}", id);
-                    return convertCustomerToDto(customer);
+            Map<String, Object> columns = dirtyColumns(role, patch);
+            if (columns.isEmpty()) {
+                logger.debug("No fields to update for user ID: {}", id);
+                return existingUser;
+            }
 
-                case "ARTIST":
-                    Artist artist = artistService.findById(id);
-                    updateArtistFromRequest(artist, updateRequest);
-                    artistService.updateArtist(artist);
-                    logger.info("Successfully updated artist with ID: {}", id);
-                    return convertArtistToDto(artist);
+            // Version bump and column update commit together, so a failed write does not consume a version
+            Long newVersion = new TransactionTemplate(transactionManager).execute(status -> {
+                Long version = userIdentityService.bumpVersion(role, id, patch.getExpectedVersion());
+                if (userWriteRepository.updateColumns(role, id, columns) == 0) {
+                    throw new ResourceNotFoundException("User", id.toString());
+                }
+                return version;
+            });
+
+            UserDto updatedUser = userDirectoryRepository.findOne(role, id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", id.toString()));
+            updatedUser.setVersion(newVersion);
+            logger.info("Successfully updated {} with ID: {} (columns: {})", role.toLowerCase(), id,
+                columns.keySet().stream().filter(column -> !column.equals("password")).toList());
+            return onUserUpdated(existingUser, updatedUser);
+        } catch (DataIntegrityViolationException e) {
+            logger.error("Constraint violation updating user with ID: {}", id, e);
+            throw constraintViolation(e, patch);
+        } catch (Exception e) {
+            logger.error("Error updating user with ID: {}", id, e);
+            throw e;
+        }
+    }
 
-                case "ADMIN":
-                    Admin admin = adminService.findById(id);
-                    updateAdminFromRequest(admin, updateRequest);
-                    adminService.updateAdmin(admin);
-                    logger.info("Successfully updated admin with ID: {}", id);
-                    return convertAdminToDto(admin);
+    // Only an email unique constraint means the email is taken; anything else is reported as what it is
+    private static BusinessRuleException constraintViolation(DataIntegrityViolationException e, UserPatchDto patch) {
+        String constraint = null;
+        for (Throwable cause = e; cause != null && constraint == null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                constraint = violation.getConstraintName();
+            }
+        }
+        // Generated constraint names (@Column(unique = true)) say nothing, but the driver message names the column
+        String detail = ((constraint != null ? constraint : "") + " " + e.getMostSpecificCause().getMessage())
+            .toLowerCase(Locale.ROOT);
+        if (patch.isPresent("email") && detail.contains("email")) {
+            return new BusinessRuleException("Email already exists: " + patch.getEmail());
+        }
+        if (patch instanceof ArtistPatchDto artistPatch && artistPatch.isPresent("artistName")
+                && detail.contains("artist_name")) {
+            return new BusinessRuleException("Artist name already exists: " + artistPatch.getArtistName());
+        }
+        return new BusinessRuleException(constraint != null
+            ? "Update violates constraint " + constraint : "Update violates a user data constraint");
+    }
 
-                case "STAFF":
-                    Staff staff = staffService.findById(id);
-                    updateStaffFromRequest(staff, updateRequest);
-                    staffService.updateStaff(staff);
-                    logger.info("Successfully updated staff with ID: {}", id);
-                    return convertStaffToDto(staff);
+    // Maps the fields present in the patch to column values for the user's role table
+    private Map<String, Object> dirtyColumns(String role, UserPatchDto patch) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (patch.isPresent("firstName")) {
+            columns.put("first_name", patch.getFirstName());
+        }
+        if (patch.isPresent("lastName")) {
+            columns.put("last_name", patch.getLastName());
+        }
+        if (patch.isPresent("email")) {
+            if (patch.getEmail() == null || patch.getEmail().trim().isEmpty()) {
+                throw new ValidationException("Email cannot be null or empty");
+            }
+            columns.put("email", patch.getEmail().trim());
+        }
 
-                default:
-                    logger.error("Invalid role for user update: {}", role);
-                    throw new ValidationException("Invalid role: " + role);
+        if (patch instanceof ArtistPatchDto artistPatch) {
+            boolean hasArtistFields = artistPatch.isPresent("artistName") || artistPatch.isPresent("photoUrl");
+            if (hasArtistFields && !"ARTIST".equals(role)) {
+                throw new ValidationException("artistName and photoUrl can only be updated for artists");
             }
-        } catch (Exception e) {
-            logger.error("Error updating user with ID: {}", id, e);
-            throw e;
+            if (artistPatch.isPresent("artistName")) {
+                columns.put("artist_name", artistPatch.getArtistName());
+            }
+            if (artistPatch.isPresent("photoUrl")) {
+                columns.put("photo_url", artistPatch.getPhotoUrl());
+            }
+        }
+
+        // Hash last, after validation, and outside the update transaction
+        if (patch.isPresent("password") && patch.getPassword() != null && !patch.getPassword().trim().isEmpty()) {
+            columns.put("password", passwordHashingService.encode(patch.getPassword()));
         }
+        return columns;
     }
 
-    public void deleteUser(Long id) {
+    /**
+     * Deletes a user. Admins and staff are removed directly; customers and artists are tombstoned and
+     * their data is removed in the background, in which case the deletion job is returned.
+     */
+    public Optional<UserDeletionJob> deleteUser(Long id) {
         logger.debug("Deleting user with ID: {}", id);
 
         if (id == null) {
@@ -354,23 +514,18 @@ public class UnifiedUserService {
 
             switch (role.toUpperCase()) {
                 case "CUSTOMER":
-                    customerService.deleteCustomer(id);
-                    logger.info("Successfully deleted customer with ID: {}", id);
-                    break;
-
                 case "ARTIST":
-                    // Note: Artist deletion might need special handling for their music
-                    logger.warn("Artist deletion may affect associated music content");
-                    // artistService.deleteArtist(id); // Would need to be implemented
-                    throw new BusinessRuleException("Artist deletion not fully implemented - requires handling of associated music");
+                    return Optional.of(userDeletionService.requestDeletion(existingUser, this::onUserTombstoned));
 
                 case "ADMIN":
                     adminService.deleteAdmin(id);
+                    onUserDeleted(existingUser);
                     logger.info("Successfully deleted admin with ID: {}", id);
                     break;
 
                 case "STAFF":
                     staffService.deleteStaff(id);
+                    onUserDeleted(existingUser);
                     logger.info("Successfully deleted staff with ID: {}", id);
                     break;
 
@@ -378,6 +533,7 @@ public class UnifiedUserService {
                     logger.error("Invalid role for user deletion: {}", role);
                     throw new ValidationException("Invalid role: " + role);
             }
+            return Optional.empty();
         } catch (Exception e) {
             logger.error("Error deleting user with ID: {}", id, e);
             throw e;
@@ -395,57 +551,103 @@ public class UnifiedUserService {
         try {
             // First find the user to determine their type
             UserDto existingUser = getUserById(id);
-            String role = existingUser.getRole();
+            String role = UserDirectoryRepository.normalizeRole(existingUser.getRole());
 
             logger.debug("Updating status for user with role: {}", role);
 
-            switch (role.toUpperCase()) {
-                case "CUSTOMER":
-                    Customer customer = customerService.findById(id);
-                    customer.setEnabled(active);
-                    customerService.updateCustomer(customer);
-                    logger.info("Successfully updated customer status for ID: {} to {}", id, active);
-                    break;
+            if (!UserDirectoryRepository.ROLES.contains(role)) {
+                logger.error("Invalid role for status update: {}", role);
+                throw new ValidationException("Invalid role: " + role);
+            }
 
-                case "ARTIST":
-                    Artist artist = artistService.findById(id);
-                    artist.setEnabled(active);
-                    artistService.updateArtist(artist);
-                    logger.info("Successfully updated artist status for ID: {} to {}", id, active);
-                    break;
+            applyUserStatus(existingUser, role, active);
+        } catch (Exception e) {
+            logger.error("Error updating user status for ID: {}", id, e);
+            throw e;
+        }
+    }
 
-                case "ADMIN":
-                    Admin admin = adminService.findById(id);
-                    admin.setEnabled(active);
-                    adminService.updateAdmin(admin);
-                    logger.info("Successfully updated admin status for ID: {} to {}", id, active);
-                    break;
+    /**
+     * Enable or disable the user with this id in the given role's table. Ids are only unique
+     * per role, so callers that know the role use this instead of resolving the id.
+     */
+    public void updateUserStatus(Long id, String role, boolean active) {
+        logger.debug("Updating {} status for ID: {} to active: {}", role, id, active);
 
-                case "STAFF":
-                    Staff staff = staffService.findById(id);
-                    staff.setEnabled(active);
-                    staffService.updateStaff(staff);
-                    logger.info("Successfully updated staff status for ID: {} to {}", id, active);
-                    break;
+        if (id == null) {
+            logger.error("User ID is null");
+            throw new ValidationException("User ID cannot be null");
+        }
 
-                default:
-                    logger.error("Invalid role for status update: {}", role);
-                    throw new ValidationException("Invalid role: " + role);
+        String normalizedRole = UserDirectoryRepository.normalizeRole(role);
+        if (!UserDirectoryRepository.ROLES.contains(normalizedRole)) {
+            logger.error("Invalid role for status update: {}", role);
+            throw new ValidationException("Invalid role: " + role);
+        }
+
+        try {
+            UserDto existingUser = userDirectoryRepository.findOne(normalizedRole, id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", id.toString()));
+            applyUserStatus(existingUser, normalizedRole, active);
+        } catch (Exception e) {
+            logger.error("Error updating {} status for ID: {}", normalizedRole.toLowerCase(), id, e);
+            throw e;
+        }
+    }
+
+    private void applyUserStatus(UserDto existingUser, String role, boolean active) {
+        Long id = existingUser.getId();
+        // Only the enabled column is written, so the stored password hash is never re-encoded;
+        // the version bump commits with it
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (userWriteRepository.updateEnabled(role, List.of(id), active) > 0) {
+                userIdentityService.bumpVersion(role, id, null);
             }
+        });
+        logger.info("Successfully updated {} status for ID: {} to {}", role.toLowerCase(), id, active);
+
+        onUserStatusChanged(existingUser, active);
+    }
+
+    /**
+     * Enable or disable many users in a chunked background job; poll getBulkJobStatus for progress
+     */
+    public BulkUserJobStatus startBulkStatusChange(BulkStatusSpec spec, String requestedBy) {
+        logger.debug("Starting bulk status change to {} requested by {}", spec.targetEnabled(), requestedBy);
+        try {
+            return bulkUserOperationService.submitStatusChange(spec, requestedBy, this::onUsersStatusChanged);
         } catch (Exception e) {
-            logger.error("Error updating user status for ID: {}", id, e);
+            logger.error("Error starting bulk status change requested by {}", requestedBy, e);
             throw e;
         }
     }
 
+    public BulkUserJobStatus getBulkJobStatus(String jobId) {
+        return bulkUserOperationService.getStatus(jobId);
+    }
+
+    public List<BulkUserJobStatus> getBulkJobs() {
+        return bulkUserOperationService.getJobs();
+    }
+
+    public BulkUserJobStatus cancelBulkJob(String jobId) {
+        return bulkUserOperationService.cancel(jobId);
+    }
+
+    public UserDeletionJob getDeletionJob(Long jobId) {
+        return userDeletionService.getJob(jobId);
+    }
+
+    public List<UserDeletionJob> getDeletionJobs() {
+        return userDeletionService.getRecentJobs();
+    }
+
     // NEW: Missing methods for admin analytics
     public long getTodayRegistrationsCount() {
         logger.debug("Getting today's registration count");
         try {
             LocalDate today = LocalDate.now();
-            // This would need proper date filtering in the repositories
-            // For now, return a placeholder value
-            return 0; // Placeholder
+            return registrationRollupService.getRegistrationsCount(today, today);
         } catch (Exception e) {
             logger.error("Error getting today's registration count", e);
             return 0;
@@ -455,10 +657,14 @@ public class UnifiedUserService {
     public Map<String, Object> getUserGrowthAnalytics(LocalDate startDate, LocalDate endDate) {
         logger.debug("Getting user growth analytics from {} to {}", startDate, endDate);
         try {
-            Map<String, Object> analytics = new HashMap<>();
-            analytics.put("newUsers", 0); // Placeholder
-            analytics.put("growthRate", 0.0); // Placeholder
-            analytics.put("activeUsers", 0); // Placeholder
+            LocalDate end = endDate != null ? endDate : LocalDate.now();
+            LocalDate start = startDate != null ? startDate : end.minusDays(29);
+            if (start.isAfter(end)) {
+                throw new ValidationException("Start date cannot be after end date");
+            }
+
+            Map<String, Object> analytics = registrationRollupService.getGrowthAnalytics(start, end);
+            analytics.put("activeUsers", activeUserTracker.getActiveUsers(start, end, null));
             return analytics;
         } catch (Exception e) {
             logger.error("Error getting user growth analytics", e);
@@ -470,10 +676,9 @@ public class UnifiedUserService {
         logger.debug("Getting user count by role");
         try {
             Map<String, Long> counts = new HashMap<>();
-            counts.put("CUSTOMER", customerService.count());
-            counts.put("ARTIST", artistService.count());
-            counts.put("ADMIN", adminService.count());
-            counts.put("STAFF", staffService.count());
+            for (String role : UserDirectoryRepository.ROLES) {
+                counts.put(role, userCounterService.getTotal(role));
+            }
             return counts;
         } catch (Exception e) {
             logger.error("Error getting user count by role", e);
@@ -481,18 +686,37 @@ public class UnifiedUserService {
         }
     }
 
+    public Map<String, Map<String, Long>> getUserStatusCountsByRole() {
+        logger.debug("Getting enabled/disabled user counts by role");
+        try {
+            return userCounterService.getStatusCounts();
+        } catch (Exception e) {
+            logger.error("Error getting user status counts by role", e);
+            return new HashMap<>();
+        }
+    }
+
     public long getActiveUsersCount() {
         logger.debug("Getting active users count");
         try {
-            // This would need proper activity tracking
-            // For now, return total users as placeholder
-            return getTotalUsersCount();
+            // Approximate distinct users seen today (HyperLogLog, ~1.6% error)
+            return activeUserTracker.getDailyActiveUsers(LocalDate.now());
         } catch (Exception e) {
             logger.error("Error getting active users count", e);
             return 0;
         }
     }
 
+    public Map<String, Object> getActiveUserMetrics() {
+        logger.debug("Getting DAU/WAU/MAU metrics");
+        try {
+            return activeUserTracker.getActiveUserMetrics();
+        } catch (Exception e) {
+            logger.error("Error getting active user metrics", e);
+            return new HashMap<>();
+        }
+    }
+
     public Page<UserDto> getAllUsers(int page, int size, String role) {
         logger.debug("Getting paginated users: page={}, size={}, role={}", page, size, role);
 
@@ -506,46 +730,26 @@ public class UnifiedUserService {
             throw new ValidationException("Page size must be positive");
         }
 
+        String roleFilter = null;
+        if (role != null && !role.trim().isEmpty()) {
+            roleFilter = role.trim().toUpperCase();
+            if (!UserDirectoryRepository.ROLES.contains(roleFilter)) {
+                logger.error("Invalid role filter: {}", role);
+                throw new ValidationException("Invalid role: " + role);
+            }
+        }
+
         try {
             Pageable pageable = PageRequest.of(page, size);
-            final List<UserDto> allUsers = new java.util.ArrayList<>();
-
-            // Filter by role if specified
-            if (role != null && !role.trim().isEmpty()) {
-                switch (role.toUpperCase()) {
-                    case "CUSTOMER":
-                        customerService.getAllCustomers().forEach(customer ->
-                            allUsers.add(convertCustomerToDto(customer)));
-                        break;
-                    case "ARTIST":
-                        artistService.getAllArtists().forEach(artist ->
-                            allUsers.add(convertArtistToDto(artist)));
-                        break;
-                    case "ADMIN":
-                        adminService.getAllAdmins().forEach(admin ->
-                            allUsers.add(convertAdminToDto(admin)));
-                        break;
-                    case "STAFF":
-                        staffService.getAllStaff().forEach(staff ->
-                            allUsers.add(convertStaffToDto(staff)));
-                        break;
-                    default:
-                        logger.error("Invalid role filter: {}", role);
-                        throw new ValidationException("Invalid role: " + role);
-                }
-            } else {
-                // Get all users
-                List<UserDto> allUsersList = getAllUsers();
-                allUsers.addAll(allUsersList);
-            }
 
-            // Manual pagination
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), allUsers.size());
-            List<UserDto> pageContent = allUsers.subList(start, end);
+            // Role filter, ordering and offset/limit are pushed into SQL so only one page is loaded
+            long total = userDirectoryRepository.count(roleFilter);
+            List<UserDto> pageContent = pageable.getOffset() < total
+                ? userDirectoryRepository.findPage(roleFilter, pageable.getOffset(), pageable.getPageSize())
+                : List.of();
 
             Page<UserDto> result = new org.springframework.data.domain.PageImpl<>(
-                pageContent, pageable, allUsers.size());
+                pageContent, pageable, total);
 
             logger.info("Successfully retrieved {} users (page {} of total {})",
                        pageContent.size(), page, result.getTotalPages());
@@ -557,116 +761,49 @@ public class UnifiedUserService {
     }
 
     // Helper methods for updating user entities from request objects
-    private void updateCustomerFromRequest(Customer customer, Object updateRequest) {
-        // This would need proper DTO mapping based on your update request structure
-        // For now, implementing basic field updates if the request is a map
-        if (updateRequest instanceof Map) {
-            Map<String, Object> updates = (Map<String, Object>) updateRequest;
-
-            if (updates.containsKey("firstName")) {
-                customer.setFirstName((String) updates.get("firstName"));
-            }
-            if (updates.containsKey("lastName")) {
-                customer.setLastName((String) updates.get("lastName"));
-            }
-            if (updates.containsKey("email")) {
-                customer.setEmail((String) updates.get("email"));
-            }
-            if (updates.containsKey("password") && updates.get("password") != null) {
-                customer.setPassword(passwordEncoder.encode((String) updates.get("password")));
-            }
-        }
-    }
-
-    private void updateArtistFromRequest(Artist artist, Object updateRequest) {
-        if (updateRequest instanceof Map) {
-            Map<String, Object> updates = (Map<String, Object>) updateRequest;
-
-            if (updates.containsKey("firstName")) {
-                artist.setFirstName((String) updates.get("firstName"));
-            }
-            if (updates.containsKey("lastName")) {
-                artist.setLastName((String) updates.get("lastName"));
-            }
-            if (updates.containsKey("email")) {
-                artist.setEmail((String) updates.get("email"));
-            }
-            if (updates.containsKey("artistName")) {
-                artist.setArtistName((String) updates.get("artistName"));
-            }
-            if (updates.containsKey("photoUrl")) {
-                artist.setPhotoUrl((String) updates.get("photoUrl"));
-            }
-            if (updates.containsKey("password") && updates.get("password") != null) {
-                artist.setPassword(passwordEncoder.encode((String) updates.get("password")));
-            }
-        }
+    // Additional utility methods
+    /**
+     * First page of a user search, at most DEFAULT_SEARCH_PAGE_SIZE users; use the paged overload for more
+     */
+    public List<UserDto> searchUsers(String searchTerm) {
+        return searchUsers(searchTerm, 0, DEFAULT_SEARCH_PAGE_SIZE).getContent();
     }
 
-    private void updateAdminFromRequest(Admin admin, Object updateRequest) {
-        if (updateRequest instanceof Map) {
-            Map<String, Object> updates = (Map<String, Object>) updateRequest;
+    public Page<UserDto> searchUsers(String searchTerm, int page, int size) {
+        logger.debug("Searching users with term: {}, page={}, size={}", searchTerm, page, size);
 
-            if (updates.containsKey("firstName")) {
-                admin.setFirstName((String) updates.get("firstName"));
-            }
-            if (updates.containsKey("lastName")) {
-                admin.setLastName((String) updates.get("lastName"));
-            }
-            if (updates.containsKey("email")) {
-                admin.setEmail((String) updates.get("email"));
-            }
-            if (updates.containsKey("password") && updates.get("password") != null) {
-                admin.setPassword(passwordEncoder.encode((String) updates.get("password")));
-            }
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            logger.error("Search term is null or empty");
+            throw new ValidationException("Search term cannot be null or empty");
         }
-    }
-
-    private void updateStaffFromRequest(Staff staff, Object updateRequest) {
-        if (updateRequest instanceof Map) {
-            Map<String, Object> updates = (Map<String, Object>) updateRequest;
 
-            if (updates.containsKey("firstName")) {
-                staff.setFirstName((String) updates.get("firstName"));
-            }
-            if (updates.containsKey("lastName")) {
-                staff.setLastName((String) updates.get("lastName"));
-            }
-            if (updates.containsKey("email")) {
-                staff.setEmail((String) updates.get("email"));
-            }
-            if (updates.containsKey("password") && updates.get("password") != null) {
-                staff.setPassword(passwordEncoder.encode((String) updates.get("password")));
-            }
+        if (page < 0) {
+            logger.error("Page number cannot be negative: {}", page);
+            throw new ValidationException("Page number cannot be negative");
         }
-    }
-
-    // Additional utility methods
-    public List<UserDto> searchUsers(String searchTerm) {
-        logger.debug("Searching users with term: {}", searchTerm);
 
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            logger.error("Search term is null or empty");
-            throw new ValidationException("Search term cannot be null or empty");
+        if (size <= 0) {
+            logger.error("Page size must be positive: {}", size);
+            throw new ValidationException("Page size must be positive");
         }
 
         try {
-            List<UserDto> results = new java.util.ArrayList<>();
-            String lowerSearchTerm = searchTerm.toLowerCase();
-
-            // Search in all user types
-            getAllUsers().stream()
-                .filter(user ->
-                    (user.getUsername() != null && user.getUsername().toLowerCase().contains(lowerSearchTerm)) ||
-                    (user.getEmail() != null && user.getEmail().toLowerCase().contains(lowerSearchTerm)) ||
-                    (user.getFirstName() != null && user.getFirstName().toLowerCase().contains(lowerSearchTerm)) ||
-                    (user.getLastName() != null && user.getLastName().toLowerCase().contains(lowerSearchTerm)) ||
-                    (user.getArtistName() != null && user.getArtistName().toLowerCase().contains(lowerSearchTerm))
-                )
-                .forEach(results::add);
-
-            logger.info("Found {} users matching search term: {}", results.size(), searchTerm);
-            return results;
+            if (userSearchIndex.isReady()) {
+                Page<UserDto> results = userSearchIndex.search(searchTerm, page, size);
+                logger.info("Found {} users matching search term: {}", results.getTotalElements(), searchTerm);
+                return results;
+            }
+
+            // Index still building after startup: search the role tables, one page at a time
+            logger.warn("User search index not ready, searching the user tables for term: {}", searchTerm);
+            Pageable pageable = PageRequest.of(page, size);
+            String term = searchTerm.trim();
+            long total = userDirectoryRepository.countMatching(term);
+            List<UserDto> results = pageable.getOffset() < total
+                ? userDirectoryRepository.search(term, pageable.getOffset(), size)
+                : List.of();
+            logger.info("Found {} users matching search term: {}", total, searchTerm);
+            return new org.springframework.data.domain.PageImpl<>(results, pageable, total);
         } catch (Exception e) {
             logger.error("Error searching users with term: {}", searchTerm, e);
             throw new RuntimeException("Failed to search users", e);
@@ -681,33 +818,12 @@ public class UnifiedUserService {
         }
 
         try {
-            // Check in all user types
-            try {
-                customerService.findByUsername(username);
-                return false; // Username found, not available
-            } catch (Exception e) {
-                // Username not found in customers, continue checking
-            }
-
-            try {
-                artistService.findByUsername(username);
-                return false; // Username found, not available
-            } catch (Exception e) {
-                // Username not found in artists, continue checking
-            }
-
-            try {
-                adminService.findByUsername(username);
+            if (userIdentityService.existsByUsername(username)) {
                 return false; // Username found, not available
-            } catch (Exception e) {
-                // Username not found in admins, continue checking
             }
 
-            try {
-                staffService.findByUsername(username);
-                return false; // Username found, not available
-            } catch (Exception e) {
-                // Username not found in staff, available
+            if (probeUsernameTaken(username)) {
+                return false; // Not registered yet, but present in a role table
             }
 
             logger.info("Username '{}' is available", username);
@@ -718,6 +834,75 @@ public class UnifiedUserService {
         }
     }
 
+    // Availability check against the role tables, for users the identity registry does not know (yet)
+    private boolean probeUsernameTaken(String username) {
+        return !userDirectoryRepository.findExistingUsernames(List.of(username)).isEmpty();
+    }
+
+    private UserDto registerIdentity(UserDto user) {
+        userIdentityService.register(user);
+        return user;
+    }
+
+    // Lifecycle hooks keeping derived user structures in step with the role tables
+    private UserDto onUserCreated(UserDto user) {
+        userIdentityService.register(user);
+        userSearchIndex.upsert(user);
+        userCounterService.onUserCreated(user.getRole(), user.isEnabled());
+        registrationRollupService.recordRegistration(user.getRole(), user.getCreatedAt());
+        return user;
+    }
+
+    private void onUsersImported(List<UserDto> users) {
+        userIdentityService.registerAll(users);
+        Map<String, Long> createdPerRole = new HashMap<>();
+        for (UserDto user : users) {
+            userSearchIndex.upsert(user);
+            userCounterService.onUserCreated(user.getRole(), user.isEnabled());
+            createdPerRole.merge(user.getRole(), 1L, Long::sum);
+        }
+        // Every user in an import chunk shares the same created_at
+        createdPerRole.forEach((role, count) ->
+            registrationRollupService.recordRegistrations(role, users.get(0).getCreatedAt(), count));
+    }
+
+    private UserDto onUserUpdated(UserDto previous, UserDto user) {
+        // Evict both names in case the username changed
+        userDetailsCache.invalidate(previous.getUsername(), previous.getRole());
+        userDetailsCache.invalidate(user.getUsername(), user.getRole());
+        userIdentityService.update(user);
+        userSearchIndex.upsert(user);
+        return user;
+    }
+
+    private void onUserStatusChanged(UserDto user, boolean active) {
+        userDetailsCache.invalidate(user.getUsername(), user.getRole());
+        boolean wasEnabled = user.isEnabled();
+        user.setEnabled(active);
+        userSearchIndex.upsert(user);
+        userCounterService.onStatusChanged(user.getRole(), wasEnabled, active);
+    }
+
+    private void onUsersStatusChanged(List<UserDto> users, boolean active) {
+        for (UserDto user : users) {
+            onUserStatusChanged(user, active);
+        }
+    }
+
+    // Account disabled pending background deletion; the identity registry keeps the username until the job finishes
+    private void onUserTombstoned(UserDto user) {
+        userDetailsCache.invalidate(user.getUsername(), user.getRole());
+        userSearchIndex.remove(user.getRole(), user.getId());
+        userCounterService.onUserDeleted(user.getRole(), user.isEnabled());
+    }
+
+    private void onUserDeleted(UserDto user) {
+        userDetailsCache.invalidate(user.getUsername(), user.getRole());
+        userIdentityService.unregister(user.getRole(), user.getId());
+        userSearchIndex.remove(user.getRole(), user.getId());
+        userCounterService.onUserDeleted(user.getRole(), user.isEnabled());
+    }
+
     // Helper methods to convert entities to DTOs
     private UserDto convertCustomerToDto(Customer customer) {
         UserDto dto = new UserDto();
@@ -795,7 +980,7 @@ public class UnifiedUserService {
         }
     }
 
-    public void deleteUser(Long userId, String role) {
+    public Optional<UserDeletionJob> deleteUser(Long userId, String role) {
         logger.debug("Deleting user ID: {} with role: {}", userId, role);
 
         if (userId == null) {
@@ -809,15 +994,14 @@ public class UnifiedUserService {
         }
 
         try {
+            Optional<UserDto> existingUser = userDirectoryRepository.findOne(role, userId);
+
             switch (role.toUpperCase()) {
                 case "CUSTOMER":
-                    // Customer deletion would need to be implemented in CustomerService
-                    logger.warn("Customer deletion not implemented");
-                    throw new BusinessRuleException("Customer deletion not implemented");
                 case "ARTIST":
-                    // Artist deletion would need to be implemented in ArtistService
-                    logger.warn("Artist deletion not implemented");
-                    throw new BusinessRuleException("Artist deletion not implemented");
+                    UserDto user = existingUser
+                        .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
+                    return Optional.of(userDeletionService.requestDeletion(user, this::onUserTombstoned));
                 case "ADMIN":
                     adminService.deleteAdmin(userId);
                     break;
@@ -828,7 +1012,9 @@ public class UnifiedUserService {
                     logger.error("Invalid role for user deletion: {}", role);
                     throw new ValidationException("Invalid role: " + role);
             }
+            existingUser.ifPresent(this::onUserDeleted);
             logger.info("Successfully deleted user ID: {} with role: {}", userId, role);
+            return Optional.empty();
         } catch (Exception e) {
             logger.error("Error deleting user ID: {} with role: {}", userId, role, e);
             throw e;
@@ -846,11 +1032,21 @@ public class UnifiedUserService {
         try {
             String username = userDetails.getUsername();
 
-            // Try to find user in all repositories
+            Optional<UserIdentity> identity = userIdentityService.findByUsername(username);
+            if (identity.isPresent()) {
+                Optional<UserDto> user = userDirectoryRepository.findOneByUsername(identity.get().getRole(), username);
+                if (user.isPresent()) {
+                    logger.info("Found {} info for: {}", identity.get().getRole().toLowerCase(), username);
+                    return user.get();
+                }
+            }
+
+            // Registry miss or stale entry: fall back to probing each role table. Users created outside
+            // UnifiedUserService are missing from the registry until the next backfill.
             try {
                 Customer customer = customerService.findByUsername(username);
                 logger.info("Found customer info for: {}", username);
-                return convertCustomerToDto(customer);
+                return registerIdentity(convertCustomerToDto(customer));
             } catch (Exception e) {
                 logger.debug("Customer not found with username: {}", username);
             }
@@ -858,7 +1054,7 @@ public class UnifiedUserService {
             try {
                 Artist artist = artistService.findByUsername(username);
                 logger.info("Found artist info for: {}", username);
-                return convertArtistToDto(artist);
+                return registerIdentity(convertArtistToDto(artist));
             } catch (Exception e) {
                 logger.debug("Artist not found with username: {}", username);
             }
@@ -866,7 +1062,7 @@ public class UnifiedUserService {
             try {
                 Staff staff = staffService.findByUsername(username);
                 logger.info("Found staff info for: {}", username);
-                return convertStaffToDto(staff);
+                return registerIdentity(convertStaffToDto(staff));
             } catch (Exception e) {
                 logger.debug("Staff not found with username: {}", username);
             }
@@ -874,7 +1070,7 @@ public class UnifiedUserService {
             try {
                 Admin admin = adminService.findByUsername(username);
                 logger.info("Found admin info for: {}", username);
-                return convertAdminToDto(admin);
+                return registerIdentity(convertAdminToDto(admin));
             } catch (Exception e) {
                 logger.debug("Admin not found with username: {}", username);
             }
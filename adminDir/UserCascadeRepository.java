@@ -0,0 +1,145 @@
+package com.music.musicstore.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rows that hang off a customer or artist account, and how to get rid of them in
+ * small batches. Every step first selects a bounded set of keys and then deletes or
+ * updates exactly those rows by key, so no statement holds locks on more than one batch
+ * of catalog rows. Steps run in the order listed; children come before their parents.
+ */
+@Repository
+public class UserCascadeRepository {
+
+    /**
+     * Which value of the deleted account the step's select is keyed on
+     */
+    public enum Key {
+        USER_ID,
+        USERNAME
+    }
+
+    /**
+     * One cascade step. selectSql takes the account key and a limit and returns the keys of
+     * the next batch; those keys are then matched against keyColumn of table. With a null
+     * setClause the rows are deleted, otherwise they are updated with the tombstone username
+     * as the only parameter. A step is finished when its select returns nothing.
+     */
+    public record CascadeStep(String name, Key key, String selectSql, String table, String keyColumn, String setClause) {
+
+        static CascadeStep delete(String name, Key key, String selectSql, String table, String keyColumn) {
+            return new CascadeStep(name, key, selectSql, table, keyColumn, null);
+        }
+    }
+
+    // Orders and order items are financial records and are kept; the account row is anonymised instead of
+    // deleted while they still reference it
+    private static final List<CascadeStep> CUSTOMER_STEPS = List.of(
+        CascadeStep.delete("cart_items", Key.USER_ID,
+            "SELECT ci.id FROM cart_items ci JOIN carts c ON ci.cart_id = c.id WHERE c.customer_id = ? LIMIT ?",
+            "cart_items", "id"),
+        CascadeStep.delete("carts", Key.USER_ID,
+            "SELECT id FROM carts WHERE customer_id = ? LIMIT ?",
+            "carts", "id"),
+        CascadeStep.delete("playlist_entries", Key.USER_ID,
+            "SELECT DISTINCT pm.playlist_id FROM playlist_music pm JOIN playlists p ON pm.playlist_id = p.id " +
+            "WHERE p.customer_id = ? LIMIT ?",
+            "playlist_music", "playlist_id"),
+        CascadeStep.delete("playlists", Key.USER_ID,
+            "SELECT id FROM playlists WHERE customer_id = ? LIMIT ?",
+            "playlists", "id"),
+        CascadeStep.delete("reviews", Key.USER_ID,
+            "SELECT id FROM reviews WHERE customer_id = ? LIMIT ?",
+            "reviews", "id"),
+        CascadeStep.delete("ticket_messages", Key.USER_ID,
+            "SELECT tm.id FROM ticket_messages tm JOIN tickets t ON tm.ticket_id = t.id WHERE t.customer_id = ? LIMIT ?",
+            "ticket_messages", "id"),
+        CascadeStep.delete("tickets", Key.USER_ID,
+            "SELECT id FROM tickets WHERE customer_id = ? LIMIT ?",
+            "tickets", "id")
+    );
+
+    // Tracks that were bought stay so past orders keep resolving; they move to the tombstone username.
+    // Other users' reviews, playlist entries and cart items only go with the tracks that are deleted.
+    private static final String UNSOLD = " AND NOT EXISTS (SELECT 1 FROM order_items oi WHERE oi.music_id = m.id)";
+
+    private static final List<CascadeStep> ARTIST_STEPS = List.of(
+        CascadeStep.delete("music_reviews", Key.USERNAME,
+            "SELECT r.id FROM reviews r JOIN music m ON r.music_id = m.id WHERE m.artist_username = ?" + UNSOLD +
+            " LIMIT ?",
+            "reviews", "id"),
+        CascadeStep.delete("music_playlist_entries", Key.USERNAME,
+            "SELECT DISTINCT pm.music_id FROM playlist_music pm JOIN music m ON pm.music_id = m.id " +
+            "WHERE m.artist_username = ?" + UNSOLD + " LIMIT ?",
+            "playlist_music", "music_id"),
+        CascadeStep.delete("music_cart_items", Key.USERNAME,
+            "SELECT ci.id FROM cart_items ci JOIN music m ON ci.music_id = m.id WHERE m.artist_username = ?" + UNSOLD +
+            " LIMIT ?",
+            "cart_items", "id"),
+        CascadeStep.delete("unsold_music", Key.USERNAME,
+            "SELECT m.id FROM music m WHERE m.artist_username = ?" + UNSOLD + " LIMIT ?",
+            "music", "id"),
+        new CascadeStep("sold_music", Key.USERNAME,
+            "SELECT id FROM music WHERE artist_username = ? LIMIT ?",
+            "music", "id", "artist_username = ?")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserCascadeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static List<CascadeStep> stepsFor(String role) {
+        return switch (UserDirectoryRepository.normalizeRole(role)) {
+            case "CUSTOMER" -> CUSTOMER_STEPS;
+            case "ARTIST" -> ARTIST_STEPS;
+            default -> List.of();
+        };
+    }
+
+    // Username the account and any retained rows carry once the original name is released
+    public static String tombstoneUsername(String role, Long userId) {
+        return "deleted-" + UserDirectoryRepository.normalizeRole(role).toLowerCase() + "-" + userId;
+    }
+
+    /**
+     * Process one batch of a step; returns the number of rows removed or updated, 0 when the step is done
+     */
+    public int runBatch(CascadeStep step, Object key, String tombstoneUsername, int batchSize) {
+        List<Object> keys = jdbcTemplate.queryForList(step.selectSql(), Object.class, key, batchSize);
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        String where = " WHERE " + step.keyColumn() + " IN (" + UserDirectoryRepository.placeholders(keys.size()) + ")";
+        if (step.setClause() == null) {
+            return jdbcTemplate.update("DELETE FROM " + step.table() + where, keys.toArray());
+        }
+        List<Object> args = new ArrayList<>(keys.size() + 1);
+        args.add(tombstoneUsername);
+        args.addAll(keys);
+        return jdbcTemplate.update("UPDATE " + step.table() + " SET " + step.setClause() + where, args.toArray());
+    }
+
+    public int deleteAccount(String role, Long userId) {
+        return jdbcTemplate.update("DELETE FROM " + UserDirectoryRepository.tableFor(role) + " WHERE id = ?", userId);
+    }
+
+    // Strips personal data from an account row that must stay because other records still reference it
+    public int anonymiseAccount(String role, Long userId) {
+        String normalized = UserDirectoryRepository.normalizeRole(role);
+        String tombstone = tombstoneUsername(normalized, userId);
+        String artistColumns = "ARTIST".equals(normalized) ? ", artist_name = 'Deleted artist', photo_url = NULL" : "";
+        String sql = "UPDATE " + UserDirectoryRepository.tableFor(normalized) +
+                     " SET " + UserDirectoryRepository.usernameColumnFor(normalized) + " = ?, email = ?," +
+                     " first_name = 'Deleted', last_name = 'User', password = '!', enabled = ?" + artistColumns +
+                     " WHERE id = ?";
+        return jdbcTemplate.update(sql, tombstone, tombstone + "@deleted.invalid", false, userId);
+    }
+}
@@ -0,0 +1,136 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-role user totals with an enabled/disabled split, kept in memory so that
+ * overview endpoints read O(1) values instead of running four COUNT(*) queries.
+ *
+ * Counters are adjusted by the UnifiedUserService lifecycle methods and periodically
+ * reconciled against the database to absorb changes made outside that service.
+ */
+@Service
+public class UserCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCounterService.class);
+
+    private final UserDirectoryRepository userDirectoryRepository;
+
+    private final Map<String, AtomicReference<RoleCounts>> counters = new ConcurrentHashMap<>();
+    private volatile boolean initialized = false;
+
+    @Autowired
+    public UserCounterService(UserDirectoryRepository userDirectoryRepository) {
+        this.userDirectoryRepository = userDirectoryRepository;
+        for (String role : UserDirectoryRepository.ROLES) {
+            counters.put(role, new AtomicReference<>(new RoleCounts(0, 0)));
+        }
+        logger.info("UserCounterService initialized successfully");
+    }
+
+    public void onUserCreated(String role, boolean enabled) {
+        counterFor(role).updateAndGet(counts -> counts.add(enabled, 1));
+    }
+
+    public void onUserDeleted(String role, boolean enabled) {
+        counterFor(role).updateAndGet(counts -> counts.add(enabled, -1));
+    }
+
+    public void onStatusChanged(String role, boolean wasEnabled, boolean enabled) {
+        if (wasEnabled == enabled) {
+            return;
+        }
+        // Both halves move in one CAS so readers never see the user counted twice or not at all
+        counterFor(role).updateAndGet(counts -> counts.add(wasEnabled, -1).add(enabled, 1));
+    }
+
+    public long getTotal(String role) {
+        ensureInitialized();
+        return counterFor(role).get().total();
+    }
+
+    public long getTotal() {
+        ensureInitialized();
+        return counters.values().stream().mapToLong(counter -> counter.get().total()).sum();
+    }
+
+    /**
+     * Per-role total, enabled and disabled counts
+     */
+    public Map<String, Map<String, Long>> getStatusCounts() {
+        ensureInitialized();
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String role : UserDirectoryRepository.ROLES) {
+            RoleCounts counts = counterFor(role).get();
+            Map<String, Long> split = new LinkedHashMap<>();
+            split.put("total", counts.total());
+            split.put("enabled", counts.enabled());
+            split.put("disabled", counts.disabled());
+            result.put(role, split);
+        }
+        return result;
+    }
+
+    /**
+     * Replace the in-memory counters with fresh database counts
+     */
+    @Scheduled(initialDelayString = "${app.users.counters.reconcile-initial-delay-ms:0}",
+               fixedDelayString = "${app.users.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        logger.debug("Reconciling user counters against the database");
+        try {
+            for (String role : UserDirectoryRepository.ROLES) {
+                Map<Boolean, Long> split = userDirectoryRepository.countByEnabled(role);
+                RoleCounts fresh = new RoleCounts(split.getOrDefault(true, 0L), split.getOrDefault(false, 0L));
+                RoleCounts previous = counterFor(role).getAndSet(fresh);
+                if (initialized && !previous.equals(fresh)) {
+                    logger.info("User counter drift for {}: memory={} database={}", role, previous, fresh);
+                }
+            }
+            initialized = true;
+        } catch (Exception e) {
+            logger.error("Error reconciling user counters", e);
+        }
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    reconcile();
+                }
+            }
+        }
+    }
+
+    private AtomicReference<RoleCounts> counterFor(String role) {
+        AtomicReference<RoleCounts> counter = counters.get(UserDirectoryRepository.normalizeRole(role));
+        if (counter == null) {
+            throw new IllegalArgumentException("Invalid role: " + role);
+        }
+        return counter;
+    }
+
+    private record RoleCounts(long enabled, long disabled) {
+
+        long total() {
+            return enabled + disabled;
+        }
+
+        RoleCounts add(boolean enabledBucket, long delta) {
+            return enabledBucket
+                ? new RoleCounts(Math.max(0, enabled + delta), disabled)
+                : new RoleCounts(enabled, Math.max(0, disabled + delta));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.users.UserDeletionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserDeletionJobRepository extends JpaRepository<UserDeletionJob, Long> {
+
+    Optional<UserDeletionJob> findByRoleAndUserId(String role, Long userId);
+
+    // Oldest unfinished job first; RUNNING ones are jobs interrupted by a restart
+    Optional<UserDeletionJob> findFirstByStatusInOrderByRequestedAtAsc(Collection<UserDeletionJob.Status> statuses);
+
+    List<UserDeletionJob> findTop100ByOrderByRequestedAtDesc();
+}
@@ -0,0 +1,210 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.exceptions.ResourceNotFoundException;
+import com.music.musicstore.exceptions.ValidationException;
+import com.music.musicstore.models.users.UserDeletionJob;
+import com.music.musicstore.repositories.UserCascadeRepository;
+import com.music.musicstore.repositories.UserCascadeRepository.CascadeStep;
+import com.music.musicstore.repositories.UserDeletionJobRepository;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import com.music.musicstore.repositories.UserWriteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Deletes customers and artists without long-running statements.
+ *
+ * A request disables the account and records a job in one transaction, so the user is locked
+ * out straight away. A scheduled worker then runs the cascade steps from UserCascadeRepository
+ * one small batch per transaction, pausing between batches and saving its position after each,
+ * and finally deletes the account row (or anonymises it when orders still point at it).
+ */
+@Service
+public class UserDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDeletionService.class);
+
+    // Pseudo-step that removes or anonymises the account row once every dependent step is done
+    static final String ACCOUNT_STEP = "account";
+
+    private final UserDeletionJobRepository jobRepository;
+    private final UserCascadeRepository cascadeRepository;
+    private final UserWriteRepository userWriteRepository;
+    private final UserIdentityService userIdentityService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.users.deletion.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.users.deletion.batch-pause-ms:100}")
+    private long batchPauseMs;
+
+    // Bounds how long one scheduler tick spends on deletions; the job resumes on the next tick
+    @Value("${app.users.deletion.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.users.deletion.max-attempts:5}")
+    private int maxAttempts;
+
+    @Autowired
+    public UserDeletionService(UserDeletionJobRepository jobRepository,
+                               UserCascadeRepository cascadeRepository,
+                               UserWriteRepository userWriteRepository,
+                               UserIdentityService userIdentityService,
+                               PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.cascadeRepository = cascadeRepository;
+        this.userWriteRepository = userWriteRepository;
+        this.userIdentityService = userIdentityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        logger.info("UserDeletionService initialized successfully");
+    }
+
+    /**
+     * Tombstone a customer or artist and queue the removal of everything that belongs to them.
+     * onTombstoned runs once the account is disabled; asking again for the same user returns the existing job.
+     */
+    public UserDeletionJob requestDeletion(UserDto user, Consumer<UserDto> onTombstoned) {
+        String role = UserDirectoryRepository.normalizeRole(user.getRole());
+        if (!"CUSTOMER".equals(role) && !"ARTIST".equals(role)) {
+            throw new ValidationException("Deletion pipeline only handles customers and artists, not " + role);
+        }
+
+        Optional<UserDeletionJob> existing = jobRepository.findByRoleAndUserId(role, user.getId());
+        if (existing.isPresent()) {
+            UserDeletionJob job = existing.get();
+            if (job.getStatus() == UserDeletionJob.Status.FAILED) {
+                // Give a failed job a fresh set of attempts from its last checkpoint
+                job.setStatus(UserDeletionJob.Status.PENDING);
+                job.setAttempts(0);
+                job.setUpdatedAt(LocalDateTime.now());
+                job = jobRepository.save(job);
+                logger.info("Re-queued failed deletion job {} for {} {}", job.getId(), role, user.getId());
+            }
+            return job;
+        }
+
+        List<CascadeStep> steps = UserCascadeRepository.stepsFor(role);
+        String firstStep = steps.isEmpty() ? ACCOUNT_STEP : steps.get(0).name();
+        UserDeletionJob job = transactionTemplate.execute(status -> {
+            userWriteRepository.updateEnabled(role, List.of(user.getId()), false);
+            return jobRepository.save(new UserDeletionJob(role, user.getId(), user.getUsername(), firstStep));
+        });
+        onTombstoned.accept(user);
+
+        logger.info("Tombstoned {} {} ({}), deletion job {} queued", role, user.getId(), user.getUsername(), job.getId());
+        return job;
+    }
+
+    public UserDeletionJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+            .orElseThrow(() -> new ResourceNotFoundException("Deletion job", jobId.toString()));
+    }
+
+    public List<UserDeletionJob> getRecentJobs() {
+        return jobRepository.findTop100ByOrderByRequestedAtDesc();
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.deletion.poll-interval-ms:5000}",
+               initialDelayString = "${app.users.deletion.initial-delay-ms:30000}")
+    public void processPendingJobs() {
+        Optional<UserDeletionJob> next = jobRepository.findFirstByStatusInOrderByRequestedAtAsc(
+            EnumSet.of(UserDeletionJob.Status.PENDING, UserDeletionJob.Status.RUNNING));
+        next.ifPresent(this::runJob);
+    }
+
+    private void runJob(UserDeletionJob job) {
+        job.setStatus(UserDeletionJob.Status.RUNNING);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        logger.debug("Resuming deletion job {} at step {}", job.getId(), job.getCurrentStep());
+
+        try {
+            List<CascadeStep> steps = UserCascadeRepository.stepsFor(job.getRole());
+            String tombstone = UserCascadeRepository.tombstoneUsername(job.getRole(), job.getUserId());
+
+            for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+                if (ACCOUNT_STEP.equals(job.getCurrentStep())) {
+                    finish(job);
+                    return;
+                }
+                CascadeStep step = findStep(steps, job.getCurrentStep());
+                Object key = step.key() == UserCascadeRepository.Key.USERNAME ? job.getUsername() : job.getUserId();
+                UserDeletionJob current = job;
+
+                // The batch and its checkpoint commit together
+                job = transactionTemplate.execute(status -> {
+                    int rows = cascadeRepository.runBatch(step, key, tombstone, batchSize);
+                    if (rows == 0) {
+                        current.setCurrentStep(nextStep(steps, step));
+                    } else {
+                        current.setRowsProcessed(current.getRowsProcessed() + rows);
+                    }
+                    current.setUpdatedAt(LocalDateTime.now());
+                    return jobRepository.save(current);
+                });
+
+                Thread.sleep(batchPauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLastError(e.getMessage());
+            job.setStatus(job.getAttempts() >= maxAttempts ? UserDeletionJob.Status.FAILED : UserDeletionJob.Status.PENDING);
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            logger.error("Deletion job {} failed at step {} (attempt {})", job.getId(), job.getCurrentStep(), job.getAttempts(), e);
+        }
+    }
+
+    private void finish(UserDeletionJob job) {
+        boolean deleted;
+        try {
+            transactionTemplate.executeWithoutResult(status -> cascadeRepository.deleteAccount(job.getRole(), job.getUserId()));
+            deleted = true;
+        } catch (DataIntegrityViolationException e) {
+            // Still referenced (e.g. by orders); keep the row but strip everything personal from it
+            transactionTemplate.executeWithoutResult(status -> cascadeRepository.anonymiseAccount(job.getRole(), job.getUserId()));
+            deleted = false;
+        }
+        // The original username stays reserved until here so it cannot be re-registered mid-deletion
+        userIdentityService.unregister(job.getRole(), job.getUserId());
+
+        job.setStatus(UserDeletionJob.Status.COMPLETED);
+        job.setCurrentStep(null);
+        job.setLastError(null);
+        job.setCompletedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCompletedAt());
+        jobRepository.save(job);
+
+        logger.info("Deletion job {} completed for {} {}: {} dependent rows processed, account {}", job.getId(),
+            job.getRole(), job.getUserId(), job.getRowsProcessed(), deleted ? "deleted" : "anonymised");
+    }
+
+    private static CascadeStep findStep(List<CascadeStep> steps, String name) {
+        return steps.stream()
+            .filter(step -> step.name().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown deletion step: " + name));
+    }
+
+    private static String nextStep(List<CascadeStep> steps, CascadeStep step) {
+        int index = steps.indexOf(step);
+        return index + 1 < steps.size() ? steps.get(index + 1).name() : ACCOUNT_STEP;
+    }
+}
@@ -0,0 +1,129 @@
+package com.music.musicstore.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-based cache of resolved UserDetails keyed by (username, role).
+ *
+ * The JWT filter resolves the principal on every authenticated request through the role
+ * services' loadUserByUsername; with this cache only the first request per user per TTL
+ * window reaches the database. Entries are immutable User copies, never the JPA entities,
+ * and every hit returns a fresh copy, since authentication erases credentials on the
+ * principal it is handed. Entries are invalidated by the role services' writes and by
+ * UnifiedUserService's status, bulk and deletion hooks; the TTL bounds staleness for
+ * changes made through other paths.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final Map<CacheKey, CachedDetails> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public UserDetailsCache(@Value("${app.security.user-details-cache.ttl-ms:60000}") long ttlMillis,
+                            @Value("${app.security.user-details-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        logger.info("UserDetailsCache initialized with ttl {} ms and {} max entries", ttlMillis, maxEntries);
+    }
+
+    /**
+     * Return the cached details for (username, role), loading and caching them on a miss.
+     * Loader exceptions (e.g. UsernameNotFoundException) propagate and nothing is cached.
+     */
+    public UserDetails get(String username, String role, Supplier<UserDetails> loader) {
+        CacheKey key = CacheKey.of(username, role);
+        long now = System.currentTimeMillis();
+
+        CachedDetails cached = entries.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            hits.increment();
+            return copyOf(cached.details());
+        }
+
+        misses.increment();
+        UserDetails details = loader.get();
+        if (details == null) {
+            return null;
+        }
+        User snapshot = copyOf(details);
+        entries.put(key, new CachedDetails(snapshot, now + ttlMillis));
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        return copyOf(snapshot);
+    }
+
+    public void invalidate(String username, String role) {
+        if (username == null || role == null) {
+            return;
+        }
+        if (entries.remove(CacheKey.of(username, role)) != null) {
+            logger.debug("Invalidated cached user details for {} ({})", username, role);
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private static User copyOf(UserDetails details) {
+        return new User(details.getUsername(), details.getPassword() != null ? details.getPassword() : "",
+            details.isEnabled(), details.isAccountNonExpired(), details.isCredentialsNonExpired(),
+            details.isAccountNonLocked(), details.getAuthorities());
+    }
+
+    // Drop expired entries, then the ones closest to expiry, until 10% below the bound
+    private synchronized void evict(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        int target = maxEntries - maxEntries / 10;
+        int excess = entries.size() - target;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+        }
+    }
+
+    private record CacheKey(String username, String role) {
+        static CacheKey of(String username, String role) {
+            return new CacheKey(username, role.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private record CachedDetails(User details, long expiresAt) {
+    }
+}
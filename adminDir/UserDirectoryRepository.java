@@ -0,0 +1,295 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.dto.UserDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read-only view over the four user tables (customers, artists, admins, staff)
+ * projected into one UNION ALL so that filtering, ordering and paging run in SQL.
+ *
+ * Rows are ordered by role block (CUSTOMER, ARTIST, ADMIN, STAFF) and then by id,
+ * which matches the order the admin user list has always been returned in.
+ */
+@Repository
+public class UserDirectoryRepository {
+
+    public static final List<String> ROLES = List.of("CUSTOMER", "ARTIST", "ADMIN", "STAFF");
+
+    private static final String USER_COLUMNS =
+        "id, username, email, first_name, last_name, artist_name, enabled, created_at, role, role_order";
+
+    private static final String SEARCH_PREDICATE =
+        "(LOWER(username) LIKE ? ESCAPE '\\' OR LOWER(email) LIKE ? ESCAPE '\\'" +
+        " OR LOWER(first_name) LIKE ? ESCAPE '\\' OR LOWER(last_name) LIKE ? ESCAPE '\\'" +
+        " OR LOWER(artist_name) LIKE ? ESCAPE '\\')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Separate template so full scans can stream with a fetch size without affecting other queries
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    public UserDirectoryRepository(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.users.directory.stream-fetch-size:1000}") int streamFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(streamFetchSize);
+    }
+
+    // Page of users for one role (or all roles when role is null), ordered by role block then id
+    public List<UserDto> findPage(String role, long offset, int limit) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM (" + unionFor(role) + ") u" +
+                     " ORDER BY role_order, id LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, limit, offset);
+    }
+
+    // Keyset variant: users strictly after (afterRole, afterId) in directory order
+    public List<UserDto> findPageAfter(String role, String afterRole, Long afterId, int limit) {
+        if (afterRole == null || afterId == null) {
+            return findPage(role, 0, limit);
+        }
+        int afterOrder = roleOrder(afterRole);
+        String sql = "SELECT " + USER_COLUMNS + " FROM (" + unionFor(role) + ") u" +
+                     " WHERE role_order > ? OR (role_order = ? AND id > ?)" +
+                     " ORDER BY role_order, id LIMIT ?";
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, afterOrder, afterOrder, afterId, limit);
+    }
+
+    // Keyset page of users matching an optional enabled flag and creation window (bulk jobs)
+    public List<UserDto> findMatchingAfter(String role, Boolean enabled, LocalDateTime createdFrom,
+                                           LocalDateTime createdTo, String afterRole, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        List<String> selects = new ArrayList<>();
+        for (String r : rolesFor(role)) {
+            // Conditions go inside each branch so every table can use its own indexes
+            List<String> conditions = new ArrayList<>();
+            if (enabled != null) {
+                conditions.add("enabled = ?");
+                args.add(enabled);
+            }
+            if (createdFrom != null) {
+                conditions.add("created_at >= ?");
+                args.add(Timestamp.valueOf(createdFrom));
+            }
+            if (createdTo != null) {
+                conditions.add("created_at < ?");
+                args.add(Timestamp.valueOf(createdTo));
+            }
+            selects.add(conditions.isEmpty() ? selectFor(r) : selectFor(r) + " WHERE " + String.join(" AND ", conditions));
+        }
+
+        String sql = "SELECT " + USER_COLUMNS + " FROM (" + String.join(" UNION ALL ", selects) + ") u";
+        if (afterRole != null && afterId != null) {
+            int afterOrder = roleOrder(afterRole);
+            sql += " WHERE role_order > ? OR (role_order = ? AND id > ?)";
+            args.add(afterOrder);
+            args.add(afterOrder);
+            args.add(afterId);
+        }
+        sql += " ORDER BY role_order, id LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, args.toArray());
+    }
+
+    // Users of one role table by primary key
+    public List<UserDto> findByIds(String role, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = selectFor(normalizeRole(role)) + " WHERE id IN (" + placeholders(ids.size()) + ") ORDER BY id";
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, ids.toArray());
+    }
+
+    // Single user by primary key in the given role table
+    public Optional<UserDto> findOne(String role, Long id) {
+        String sql = selectFor(normalizeRole(role)) + " WHERE id = ?";
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, id).stream().findFirst();
+    }
+
+    // Single user by login name in the given role table
+    public Optional<UserDto> findOneByUsername(String role, String username) {
+        String sql = selectFor(normalizeRole(role)) + " WHERE " + usernameColumnFor(role) + " = ?";
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, username).stream().findFirst();
+    }
+
+    // Users of one role whose login name is in the given batch
+    public List<UserDto> findByUsernames(String role, Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return List.of();
+        }
+        String sql = selectFor(normalizeRole(role)) + " WHERE " + usernameColumnFor(role) +
+                     " IN (" + placeholders(usernames.size()) + ")";
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, usernames.toArray());
+    }
+
+    // Which of the given login names are taken in any role table (one indexed IN query per table)
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        Set<String> existing = new HashSet<>();
+        if (usernames.isEmpty()) {
+            return existing;
+        }
+        for (String role : ROLES) {
+            String column = usernameColumnFor(role);
+            String sql = "SELECT " + column + " FROM " + tableFor(role) +
+                         " WHERE " + column + " IN (" + placeholders(usernames.size()) + ")";
+            existing.addAll(jdbcTemplate.queryForList(sql, String.class, usernames.toArray()));
+        }
+        return existing;
+    }
+
+    // Which of the given emails are already used in one role table
+    public Set<String> findExistingEmails(String role, Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return new HashSet<>();
+        }
+        String sql = "SELECT email FROM " + tableFor(role) + " WHERE email IN (" + placeholders(emails.size()) + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, emails.toArray()));
+    }
+
+    // Users with the term in a searchable field (case-insensitive substring), in directory order
+    public List<UserDto> search(String term, long offset, int limit) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM (" + unionFor(null) + ") u WHERE " + SEARCH_PREDICATE +
+                     " ORDER BY role_order, id LIMIT ? OFFSET ?";
+        String pattern = likePattern(term);
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, pattern, pattern, pattern, pattern, pattern, limit, offset);
+    }
+
+    public long countMatching(String term) {
+        String sql = "SELECT COUNT(*) FROM (" + unionFor(null) + ") u WHERE " + SEARCH_PREDICATE;
+        String pattern = likePattern(term);
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, pattern, pattern, pattern, pattern, pattern);
+        return count != null ? count : 0;
+    }
+
+    // Total number of users for one role (or all roles when role is null)
+    public long count(String role) {
+        long total = 0;
+        for (String r : rolesFor(role)) {
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableFor(r), Long.class);
+            total += count != null ? count : 0;
+        }
+        return total;
+    }
+
+    // Enabled/disabled split for one role table
+    public Map<Boolean, Long> countByEnabled(String role) {
+        Map<Boolean, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT enabled, COUNT(*) AS total FROM " + tableFor(role) + " GROUP BY enabled",
+            (RowCallbackHandler) rs -> counts.merge(rs.getBoolean("enabled"), rs.getLong("total"), Long::sum));
+        return counts;
+    }
+
+    // Streams (role, created_at) for every user created in [from, to), without loading the rows into memory.
+    // Call inside a transaction: PostgreSQL only honours the fetch size when auto-commit is off.
+    public void streamRegistrations(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        String sql = "SELECT role, created_at FROM (" + unionFor(null) + ") u" +
+                     " WHERE created_at >= ? AND created_at < ?";
+        streamingJdbcTemplate.query(sql, handler, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    // Streams every user of one role (or all roles) in directory order through a cursor, one row at a time
+    public void streamUsers(String role, Consumer<UserDto> consumer) {
+        for (String r : rolesFor(role)) {
+            // One primary-key ordered scan per table instead of sorting the whole union
+            streamingJdbcTemplate.query(selectFor(r) + " ORDER BY id",
+                (RowCallbackHandler) rs -> consumer.accept(USER_ROW_MAPPER.mapRow(rs, rs.getRow())));
+        }
+    }
+
+    public static String tableFor(String role) {
+        return switch (normalizeRole(role)) {
+            case "CUSTOMER" -> "customers";
+            case "ARTIST" -> "artists";
+            case "ADMIN" -> "admins";
+            case "STAFF" -> "staff";
+            default -> throw new IllegalArgumentException("Invalid role: " + role);
+        };
+    }
+
+    public static String usernameColumnFor(String role) {
+        // Artist maps its login name to the userName property
+        return "ARTIST".equals(normalizeRole(role)) ? "user_name" : "username";
+    }
+
+    public static int roleOrder(String role) {
+        int order = ROLES.indexOf(normalizeRole(role));
+        if (order < 0) {
+            throw new IllegalArgumentException("Invalid role: " + role);
+        }
+        return order;
+    }
+
+    public static String normalizeRole(String role) {
+        return role == null ? null : role.trim().toUpperCase(Locale.ROOT);
+    }
+
+    static List<String> rolesFor(String role) {
+        if (role == null || role.trim().isEmpty()) {
+            return ROLES;
+        }
+        String normalized = normalizeRole(role);
+        if (!ROLES.contains(normalized)) {
+            throw new IllegalArgumentException("Invalid role: " + role);
+        }
+        return List.of(normalized);
+    }
+
+    static String likePattern(String term) {
+        String escaped = term.toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    static String selectFor(String role) {
+        String artistName = "ARTIST".equals(role) ? "artist_name" : "CAST(NULL AS VARCHAR(255))";
+        return "SELECT id, " + usernameColumnFor(role) + " AS username, email, first_name, last_name, " +
+               artistName + " AS artist_name, enabled, created_at, '" + role + "' AS role, " +
+               roleOrder(role) + " AS role_order FROM " + tableFor(role);
+    }
+
+    static String unionFor(String role) {
+        List<String> selects = new ArrayList<>();
+        for (String r : rolesFor(role)) {
+            selects.add(selectFor(r));
+        }
+        return String.join(" UNION ALL ", selects);
+    }
+
+    static final RowMapper<UserDto> USER_ROW_MAPPER = (rs, rowNum) -> {
+        UserDto dto = new UserDto();
+        dto.setId(rs.getLong("id"));
+        dto.setUsername(rs.getString("username"));
+        dto.setEmail(rs.getString("email"));
+        dto.setFirstName(rs.getString("first_name"));
+        dto.setLastName(rs.getString("last_name"));
+        dto.setArtistName(rs.getString("artist_name"));
+        dto.setEnabled(rs.getBoolean("enabled"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        dto.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        dto.setRole(rs.getString("role"));
+        return dto;
+    };
+}
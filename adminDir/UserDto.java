@@ -1,5 +1,7 @@
 package com.music.musicstore.dto;
 
+import java.time.LocalDateTime;
+
 public class UserDto {
     private Long id;
     private String username;
@@ -9,6 +11,9 @@ public class UserDto {
     private String lastName;
     private String artistName; // For artists
     private String cover; // For artists
+    private boolean enabled;
+    private LocalDateTime createdAt;
+    private Long version; // Optimistic lock version from the identity registry, null if unknown
 
     public UserDto() {}
 
@@ -62,4 +67,13 @@ public class UserDto {
 
     public String getCover() { return cover; }
     public void setCover(String cover) { this.cover = cover; }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,184 @@
+package com.music.musicstore.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.exceptions.ValidationException;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the user directory to an output stream as NDJSON or CSV.
+ *
+ * Rows come from a database cursor inside a read-only transaction (so drivers such as
+ * PostgreSQL honour the fetch size) and are written as they are read, so heap use does
+ * not grow with the number of users. Passwords are never exported.
+ */
+@Service
+public class UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final String[] CSV_HEADER =
+        {"id", "username", "email", "role", "firstName", "lastName", "artistName", "enabled", "createdAt"};
+
+    private final UserDirectoryRepository userDirectoryRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public UserExportService(UserDirectoryRepository userDirectoryRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.userDirectoryRepository = userDirectoryRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        logger.info("UserExportService initialized successfully");
+    }
+
+    public static String normalizeFormat(String format) {
+        String normalized = format == null ? "ndjson" : format.trim().toLowerCase(Locale.ROOT);
+        if (!normalized.equals("ndjson") && !normalized.equals("csv")) {
+            throw new ValidationException("Unsupported export format: " + format);
+        }
+        return normalized;
+    }
+
+    // A blank role exports every role
+    public static String normalizeRole(String role) {
+        if (role == null || role.trim().isEmpty()) {
+            return null;
+        }
+        String normalized = UserDirectoryRepository.normalizeRole(role);
+        if (!UserDirectoryRepository.ROLES.contains(normalized)) {
+            throw new ValidationException("Invalid role: " + role);
+        }
+        return normalized;
+    }
+
+    /**
+     * Write all users (optionally of one role) to the stream. Returns the number of rows written.
+     */
+    public long export(OutputStream output, String format, String role, boolean gzip) throws IOException {
+        String normalizedFormat = normalizeFormat(format);
+        long started = System.currentTimeMillis();
+
+        OutputStream target = gzip ? new GZIPOutputStream(output, 64 * 1024) : output;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+        long[] rows = {0};
+
+        try {
+            if (normalizedFormat.equals("csv")) {
+                writeCsvRow(writer, CSV_HEADER);
+                readOnlyTransaction.executeWithoutResult(status ->
+                    userDirectoryRepository.streamUsers(role, user -> {
+                        writeCsvRow(writer, csvValues(user));
+                        rows[0]++;
+                    }));
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                // One object per line; the generator only hands buffered output to the writer
+                generator.setRootValueSeparator(null);
+                generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                readOnlyTransaction.executeWithoutResult(status ->
+                    userDirectoryRepository.streamUsers(role, user -> {
+                        writeJsonRow(generator, user);
+                        rows[0]++;
+                    }));
+                generator.flush();
+            }
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        } catch (UncheckedIOException e) {
+            // Typically the client disconnected mid-download
+            logger.warn("User export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        logger.info("Exported {} users as {}{} in {} ms", rows[0], normalizedFormat, gzip ? " (gzip)" : "",
+            System.currentTimeMillis() - started);
+        return rows[0];
+    }
+
+    private static void writeJsonRow(JsonGenerator generator, UserDto user) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", user.getId());
+            generator.writeStringField("username", user.getUsername());
+            generator.writeStringField("email", user.getEmail());
+            generator.writeStringField("role", user.getRole());
+            generator.writeStringField("firstName", user.getFirstName());
+            generator.writeStringField("lastName", user.getLastName());
+            generator.writeStringField("artistName", user.getArtistName());
+            generator.writeBooleanField("enabled", user.isEnabled());
+            generator.writeStringField("createdAt", user.getCreatedAt() != null ? user.getCreatedAt().toString() : null);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] csvValues(UserDto user) {
+        return new String[] {
+            String.valueOf(user.getId()),
+            user.getUsername(),
+            user.getEmail(),
+            user.getRole(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getArtistName(),
+            String.valueOf(user.isEnabled()),
+            user.getCreatedAt() != null ? user.getCreatedAt().toString() : null
+        };
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, values[i]);
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // RFC 4180 quoting; a leading formula character is prefixed so spreadsheets don't evaluate it
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String safe = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        boolean needsQuotes = safe.indexOf(',') >= 0 || safe.indexOf('"') >= 0
+            || safe.indexOf('\n') >= 0 || safe.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(safe);
+            return;
+        }
+        writer.write('"');
+        writer.write(safe.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
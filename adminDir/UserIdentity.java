@@ -0,0 +1,123 @@
+package com.music.musicstore.models.users;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_identities",
+       uniqueConstraints = @UniqueConstraint(name = "uk_user_identity_role_user", columnNames = {"role", "user_id"}),
+       indexes = {
+           @Index(name = "idx_user_identity_username", columnList = "username"),
+           @Index(name = "idx_user_identity_user_id", columnList = "user_id"),
+           @Index(name = "idx_user_identity_email", columnList = "email")
+       })
+public class UserIdentity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Primary key of the row in the role table
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    @Column(name = "email")
+    private String email;
+
+    // CUSTOMER, ARTIST, ADMIN or STAFF
+    @Column(name = "role", nullable = false, length = 16)
+    private String role;
+
+    @Column(name = "source_table", nullable = false, length = 32)
+    private String sourceTable;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Bumped by every profile update; compared against the version a client read (optimistic locking)
+    @Column(name = "version")
+    private Long version;
+
+    // Constructors
+    public UserIdentity() {
+        this.createdAt = LocalDateTime.now();
+        this.version = 0L;
+    }
+
+    public UserIdentity(Long userId, String username, String email, String role, String sourceTable) {
+        this();
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+        this.sourceTable = sourceTable;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public String getSourceTable() {
+        return sourceTable;
+    }
+
+    public void setSourceTable(String sourceTable) {
+        this.sourceTable = sourceTable;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,50 @@
+package com.music.musicstore.repositories;
+
+import com.music.musicstore.models.users.UserIdentity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserIdentityRepository extends JpaRepository<UserIdentity, Long> {
+
+    // Cross-role lookups, each backed by a single index
+    List<UserIdentity> findByUsername(String username);
+
+    List<UserIdentity> findByUserId(Long userId);
+
+    boolean existsByUsername(String username);
+
+    Optional<UserIdentity> findByRoleAndUserId(String role, Long userId);
+
+    // Used by the backfill to find which rows of a directory page are already registered
+    @Query("SELECT i.userId FROM UserIdentity i WHERE i.role = :role AND i.userId IN :userIds")
+    List<Long> findRegisteredUserIds(@Param("role") String role, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM UserIdentity i WHERE i.role = :role AND i.userId = :userId")
+    int deleteByRoleAndUserId(@Param("role") String role, @Param("userId") Long userId);
+
+    // Optimistic lock: only bumps the version if it still matches what the client read
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserIdentity i SET i.version = COALESCE(i.version, 0) + 1" +
+           " WHERE i.role = :role AND i.userId = :userId AND COALESCE(i.version, 0) = :expectedVersion")
+    int incrementVersionIfCurrent(@Param("role") String role, @Param("userId") Long userId,
+                                  @Param("expectedVersion") long expectedVersion);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserIdentity i SET i.version = COALESCE(i.version, 0) + 1 WHERE i.role = :role AND i.userId = :userId")
+    int incrementVersion(@Param("role") String role, @Param("userId") Long userId);
+
+    // Bulk status changes bump every changed user in one statement; unregistered users are skipped
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserIdentity i SET i.version = COALESCE(i.version, 0) + 1" +
+           " WHERE i.role = :role AND i.userId IN :userIds")
+    int incrementVersions(@Param("role") String role, @Param("userIds") Collection<Long> userIds);
+}
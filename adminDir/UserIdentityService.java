@@ -0,0 +1,233 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.models.users.UserIdentity;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import com.music.musicstore.repositories.UserIdentityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Global registry of (id, username, email, role, source table) for every user,
+ * so cross-role lookups are a single indexed read instead of probing four services.
+ * Users created outside UnifiedUserService are registered by the hourly backfill, so
+ * a registry miss is not proof that a user does not exist.
+ */
+@Service
+public class UserIdentityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityService.class);
+
+    // Lookup order used when the same id or username exists in more than one role table
+    private static final List<String> LOOKUP_PRIORITY = List.of("CUSTOMER", "ARTIST", "STAFF", "ADMIN");
+
+    private final UserIdentityRepository userIdentityRepository;
+    private final UserDirectoryRepository userDirectoryRepository;
+
+    @Value("${app.users.identity.backfill-batch-size:1000}")
+    private int backfillBatchSize;
+
+    @Autowired
+    public UserIdentityService(UserIdentityRepository userIdentityRepository,
+                               UserDirectoryRepository userDirectoryRepository) {
+        this.userIdentityRepository = userIdentityRepository;
+        this.userDirectoryRepository = userDirectoryRepository;
+        logger.info("UserIdentityService initialized successfully");
+    }
+
+    /**
+     * Register a newly created user
+     */
+    public void register(UserDto user) {
+        try {
+            String role = UserDirectoryRepository.normalizeRole(user.getRole());
+            Optional<UserIdentity> existing = userIdentityRepository.findByRoleAndUserId(role, user.getId());
+            UserIdentity identity = existing.orElseGet(() -> new UserIdentity(
+                user.getId(), user.getUsername(), user.getEmail(), role, UserDirectoryRepository.tableFor(role)));
+            identity.setUsername(user.getUsername());
+            identity.setEmail(user.getEmail());
+            userIdentityRepository.save(identity);
+            logger.debug("Registered identity for {} {} ({})", role, user.getId(), user.getUsername());
+        } catch (Exception e) {
+            // The scheduled backfill will pick the user up on its next run
+            logger.warn("Failed to register identity for user {} ({})", user.getId(), user.getRole(), e);
+        }
+    }
+
+    /**
+     * Register a batch of users that are known to be new (bulk import)
+     */
+    public void registerAll(List<UserDto> users) {
+        try {
+            List<UserIdentity> identities = new ArrayList<>(users.size());
+            for (UserDto user : users) {
+                String role = UserDirectoryRepository.normalizeRole(user.getRole());
+                identities.add(new UserIdentity(
+                    user.getId(), user.getUsername(), user.getEmail(), role, UserDirectoryRepository.tableFor(role)));
+            }
+            userIdentityRepository.saveAll(identities);
+            logger.debug("Registered {} identities", identities.size());
+        } catch (Exception e) {
+            // The scheduled backfill will pick the users up on its next run
+            logger.warn("Failed to register identities for {} imported users", users.size(), e);
+        }
+    }
+
+    /**
+     * Refresh username/email after a user update
+     */
+    public void update(UserDto user) {
+        register(user);
+    }
+
+    /**
+     * Remove a deleted user from the registry
+     */
+    @Transactional
+    public void unregister(String role, Long userId) {
+        try {
+            userIdentityRepository.deleteByRoleAndUserId(UserDirectoryRepository.normalizeRole(role), userId);
+            logger.debug("Unregistered identity for {} {}", role, userId);
+        } catch (Exception e) {
+            logger.warn("Failed to unregister identity for user {} ({})", userId, role, e);
+        }
+    }
+
+    /**
+     * Bump the user's version inside the caller's transaction. With an expected version this is
+     * an optimistic lock check: a concurrent update in between fails with OptimisticLockingFailureException.
+     * A user missing from the registry is registered at version 0 first, so its first update is not
+     * reported as a conflict. Returns the new version, or null if the user does not exist.
+     */
+    @Transactional
+    public Long bumpVersion(String role, Long userId, Long expectedVersion) {
+        String normalizedRole = UserDirectoryRepository.normalizeRole(role);
+        int updated = increment(normalizedRole, userId, expectedVersion);
+        if (updated == 0 && userIdentityRepository.findByRoleAndUserId(normalizedRole, userId).isEmpty()) {
+            Optional<UserDto> user = userDirectoryRepository.findOne(normalizedRole, userId);
+            if (user.isEmpty()) {
+                return null;
+            }
+            userIdentityRepository.saveAndFlush(new UserIdentity(userId, user.get().getUsername(),
+                user.get().getEmail(), normalizedRole, UserDirectoryRepository.tableFor(normalizedRole)));
+            logger.debug("Registered identity for {} {} before bumping its version", normalizedRole, userId);
+            updated = increment(normalizedRole, userId, expectedVersion);
+        }
+        if (updated == 0) {
+            logger.debug("Version conflict for {} {}: expected {}", normalizedRole, userId, expectedVersion);
+            throw new OptimisticLockingFailureException(
+                "User " + userId + " was modified by someone else; reload and try again");
+        }
+        return userIdentityRepository.findByRoleAndUserId(normalizedRole, userId)
+            .map(UserIdentity::getVersion)
+            .orElse(null);
+    }
+
+    /**
+     * Bump the versions of a batch of users of one role inside the caller's transaction (bulk status changes).
+     * Users missing from the registry have no version yet and are left to the backfill.
+     */
+    @Transactional
+    public void bumpVersions(String role, Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            userIdentityRepository.incrementVersions(UserDirectoryRepository.normalizeRole(role), userIds);
+        }
+    }
+
+    public Optional<UserIdentity> findByUserId(Long userId) {
+        return pickByPriority(userIdentityRepository.findByUserId(userId));
+    }
+
+    public Optional<UserIdentity> findByUsername(String username) {
+        return pickByPriority(userIdentityRepository.findByUsername(username));
+    }
+
+    public boolean existsByUsername(String username) {
+        return userIdentityRepository.existsByUsername(username);
+    }
+
+    /**
+     * Walk the user directory in keyset order and register every row that is missing.
+     * Also catches users created outside UnifiedUserService (e.g. seeded admins).
+     */
+    @Scheduled(initialDelayString = "${app.users.identity.backfill-initial-delay-ms:5000}",
+               fixedDelayString = "${app.users.identity.backfill-interval-ms:3600000}")
+    public void backfill() {
+        logger.info("Starting user identity backfill");
+        long scanned = 0;
+        long inserted = 0;
+
+        try {
+            String afterRole = null;
+            Long afterId = null;
+
+            while (true) {
+                List<UserDto> page = userDirectoryRepository.findPageAfter(null, afterRole, afterId, backfillBatchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                inserted += registerMissing(page);
+                scanned += page.size();
+
+                UserDto last = page.get(page.size() - 1);
+                afterRole = last.getRole();
+                afterId = last.getId();
+            }
+
+            logger.info("User identity backfill finished: scanned {}, inserted {}", scanned, inserted);
+        } catch (Exception e) {
+            logger.error("User identity backfill failed after scanning {} users", scanned, e);
+        }
+    }
+
+    private int registerMissing(List<UserDto> page) {
+        List<UserIdentity> missing = new ArrayList<>();
+
+        for (String role : UserDirectoryRepository.ROLES) {
+            List<Long> ids = page.stream()
+                .filter(user -> role.equals(user.getRole()))
+                .map(UserDto::getId)
+                .toList();
+            if (ids.isEmpty()) {
+                continue;
+            }
+
+            Set<Long> registered = new HashSet<>(userIdentityRepository.findRegisteredUserIds(role, ids));
+            page.stream()
+                .filter(user -> role.equals(user.getRole()) && !registered.contains(user.getId()))
+                .forEach(user -> missing.add(new UserIdentity(
+                    user.getId(), user.getUsername(), user.getEmail(), role, UserDirectoryRepository.tableFor(role))));
+        }
+
+        if (!missing.isEmpty()) {
+            userIdentityRepository.saveAll(missing);
+        }
+        return missing.size();
+    }
+
+    private int increment(String role, Long userId, Long expectedVersion) {
+        return expectedVersion != null
+            ? userIdentityRepository.incrementVersionIfCurrent(role, userId, expectedVersion)
+            : userIdentityRepository.incrementVersion(role, userId);
+    }
+
+    private Optional<UserIdentity> pickByPriority(List<UserIdentity> identities) {
+        return identities.stream()
+            .min(Comparator.comparingInt(identity -> LOOKUP_PRIORITY.indexOf(identity.getRole())));
+    }
+}
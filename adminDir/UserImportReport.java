@@ -0,0 +1,121 @@
+package com.music.musicstore.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserImportReport {
+
+    public enum RowStatus {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    private long totalRows;
+    private long created;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private long durationMs;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public UserImportReport() {}
+
+    public void addRow(long line, String username, RowStatus status, Long userId, String message) {
+        rows.add(new RowResult(line, username, status, userId, message));
+        totalRows++;
+        switch (status) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+    }
+
+    // Getters and setters
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public void setInvalid(long invalid) {
+        this.invalid = invalid;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<RowResult> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<RowResult> rows) {
+        this.rows = rows;
+    }
+
+    public static class RowResult {
+        private long line;
+        private String username;
+        private RowStatus status;
+        private Long userId;
+        private String message;
+
+        public RowResult() {}
+
+        public RowResult(long line, String username, RowStatus status, Long userId, String message) {
+            this.line = line;
+            this.username = username;
+            this.status = status;
+            this.userId = userId;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        public RowStatus getStatus() { return status; }
+        public void setStatus(RowStatus status) { this.status = status; }
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,62 @@
+package com.music.musicstore.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC batch inserts for bulk user import. Bypasses JPA so a chunk of rows is
+ * sent to the database as one batch instead of one INSERT round trip per entity.
+ */
+@Repository
+public class UserImportRepository {
+
+    private static final String CUSTOMER_INSERT =
+        "INSERT INTO customers (username, password, email, first_name, last_name, role, enabled, created_at)" +
+        " VALUES (?, ?, ?, ?, ?, 'ROLE_CUSTOMER', TRUE, ?)";
+
+    private static final String ARTIST_INSERT =
+        "INSERT INTO artists (user_name, password, email, first_name, last_name, artist_name, photo_url, role, enabled, created_at)" +
+        " VALUES (?, ?, ?, ?, ?, ?, ?, 'ROLE_ARTIST', TRUE, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts the rows for one role as a single JDBC batch; callers supply the transaction
+    public void insertBatch(String role, List<NewUser> users, LocalDateTime createdAt) {
+        Timestamp created = Timestamp.valueOf(createdAt);
+        switch (UserDirectoryRepository.normalizeRole(role)) {
+            case "CUSTOMER" -> jdbcTemplate.batchUpdate(CUSTOMER_INSERT, users, users.size(), (ps, user) -> {
+                ps.setString(1, user.username());
+                ps.setString(2, user.encodedPassword());
+                ps.setString(3, user.email());
+                ps.setString(4, user.firstName());
+                ps.setString(5, user.lastName());
+                ps.setTimestamp(6, created);
+            });
+            case "ARTIST" -> jdbcTemplate.batchUpdate(ARTIST_INSERT, users, users.size(), (ps, user) -> {
+                ps.setString(1, user.username());
+                ps.setString(2, user.encodedPassword());
+                ps.setString(3, user.email());
+                ps.setString(4, user.firstName());
+                ps.setString(5, user.lastName());
+                ps.setString(6, user.artistName());
+                ps.setString(7, user.photoUrl());
+                ps.setTimestamp(8, created);
+            });
+            default -> throw new IllegalArgumentException("Bulk import is not supported for role: " + role);
+        }
+    }
+
+    public record NewUser(String username, String encodedPassword, String email, String firstName,
+                          String lastName, String artistName, String photoUrl) {
+    }
+}
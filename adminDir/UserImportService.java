@@ -0,0 +1,724 @@
+package com.music.musicstore.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.music.musicstore.dto.AuditContext;
+import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.dto.UserImportJobStatus;
+import com.music.musicstore.dto.UserImportJobStatus.State;
+import com.music.musicstore.dto.UserImportReport;
+import com.music.musicstore.dto.UserImportReport.RowStatus;
+import com.music.musicstore.exceptions.ResourceNotFoundException;
+import com.music.musicstore.exceptions.ServiceUnavailableException;
+import com.music.musicstore.exceptions.ValidationException;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import com.music.musicstore.repositories.UserImportRepository;
+import com.music.musicstore.repositories.UserImportRepository.NewUser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Background bulk import of customer and artist accounts from CSV or NDJSON.
+ *
+ * The upload is spooled to a file and imported by a single worker thread, so the HTTP
+ * request returns as soon as the body is on disk and callers poll the job for progress and
+ * the per-row report. The file holds plaintext passwords until the job finishes: it lives in
+ * an owner-only spool directory, and files a crash left behind are deleted at startup. Rows are read and processed in chunks: each chunk is validated,
+ * checked for duplicates with one IN query per table, has its passwords hashed through
+ * PasswordHashingService, and is written with a JDBC batch insert. Memory use is bounded by
+ * the chunk size, not the file size. Job state is kept in memory.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    // Admin and staff accounts are still created one at a time through /users/create
+    private static final Set<String> IMPORTABLE_ROLES = Set.of("CUSTOMER", "ARTIST");
+
+    private static final int MAX_RETAINED_JOBS = 50;
+
+    private static final String SPOOL_FILE_PREFIX = "user-import-";
+
+    private final UserImportRepository userImportRepository;
+    private final UserDirectoryRepository userDirectoryRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final AuditLogService auditLogService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+    private final Path spoolDirectory;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserImportService(UserImportRepository userImportRepository,
+                             UserDirectoryRepository userDirectoryRepository,
+                             PasswordHashingService passwordHashingService,
+                             AuditLogService auditLogService,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.users.import.chunk-size:1000}") int chunkSize,
+                             @Value("${app.users.import.max-queued-jobs:5}") int maxQueuedJobs,
+                             @Value("${app.users.import.spool-dir:${java.io.tmpdir}/user-imports}") String spoolDir) {
+        this.userImportRepository = userImportRepository;
+        this.userDirectoryRepository = userDirectoryRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.auditLogService = auditLogService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.spoolDirectory = Path.of(spoolDir);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueuedJobs),
+            runnable -> {
+                Thread thread = new Thread(runnable, "user-import-jobs");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        logger.info("UserImportService initialized with chunk size {}", chunkSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Uploads of jobs that never finished (crash, kill) are not resumed, so they are removed on startup
+    @PostConstruct
+    public void prepareSpoolDirectory() {
+        try {
+            if (!Files.isDirectory(spoolDirectory)) {
+                Files.createDirectories(spoolDirectory, ownerOnly("rwx------"));
+            }
+            int deleted = 0;
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(spoolDirectory, SPOOL_FILE_PREFIX + "*")) {
+                for (Path leftover : leftovers) {
+                    deleteQuietly(leftover);
+                    deleted++;
+                }
+            }
+            if (deleted > 0) {
+                logger.warn("Deleted {} user import files left over from a previous run", deleted);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to prepare user import spool directory {}", spoolDirectory, e);
+        }
+    }
+
+    /**
+     * Spool a CSV (with header row) or NDJSON stream to disk and queue its import.
+     * onImported is called with the created users of each chunk so derived structures can be updated.
+     */
+    public UserImportJobStatus submitImport(InputStream input, String format, String requestedBy,
+                                            Consumer<List<UserDto>> onImported) {
+        String normalizedFormat = format == null ? "csv" : format.trim().toLowerCase(Locale.ROOT);
+        if (!normalizedFormat.equals("csv") && !normalizedFormat.equals("ndjson")) {
+            throw new ValidationException("Unsupported import format: " + format);
+        }
+
+        Path file;
+        try {
+            file = Files.createTempFile(spoolDirectory, SPOOL_FILE_PREFIX, "." + normalizedFormat, ownerOnly("rw-------"));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create import file", e);
+        }
+        try {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new ValidationException("Failed to read import data: " + e.getMessage());
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), normalizedFormat, file, requestedBy, onImported);
+        evictFinishedJobs();
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(file);
+            throw new ServiceUnavailableException("Too many user imports are queued, please retry later");
+        }
+
+        logger.info("Queued user import job {} ({}) for {}", job.id, normalizedFormat, requestedBy);
+        return job.snapshot();
+    }
+
+    public UserImportJobStatus getStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", jobId);
+        }
+        return job.snapshot();
+    }
+
+    public List<UserImportJobStatus> getJobs() {
+        return jobs.values().stream()
+            .map(job -> {
+                // The list is an overview; the per-row report is fetched per job
+                UserImportJobStatus status = job.snapshot();
+                status.setReport(null);
+                return status;
+            })
+            .sorted((a, b) -> b.getSubmittedAt().compareTo(a.getSubmittedAt()))
+            .collect(Collectors.toList());
+    }
+
+    private void run(Job job) {
+        job.update(status -> {
+            status.setState(State.RUNNING);
+            status.setStartedAt(LocalDateTime.now());
+        });
+        logger.info("Starting user import job {}", job.id);
+
+        try (InputStream input = Files.newInputStream(job.file)) {
+            UserImportReport report = importUsers(input, job);
+            job.update(status -> {
+                status.setState(State.COMPLETED);
+                status.setReport(report);
+                status.setFinishedAt(LocalDateTime.now());
+            });
+            auditLogService.logAdminAction(job.requestedBy, "IMPORT_USERS", "USER", null,
+                String.format("Import job %s (%s): %d rows, %d created, %d duplicates, %d invalid, %d failed",
+                    job.id, job.format, report.getTotalRows(), report.getCreated(), report.getDuplicates(),
+                    report.getInvalid(), report.getFailed()),
+                job.auditContext);
+        } catch (Exception e) {
+            logger.error("User import job {} failed", job.id, e);
+            job.update(status -> {
+                status.setState(State.FAILED);
+                status.setError(e.getMessage());
+                status.setFinishedAt(LocalDateTime.now());
+            });
+            auditLogService.logFailedAdminAction(job.requestedBy, "IMPORT_USERS", "USER", null,
+                String.format("Import job %s failed: %s", job.id, e.getMessage()), job.auditContext);
+        } finally {
+            deleteQuietly(job.file);
+        }
+    }
+
+    private UserImportReport importUsers(InputStream input, Job job) {
+        long started = System.currentTimeMillis();
+        UserImportReport report = new UserImportReport();
+        ImportState state = new ImportState();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Iterator<ImportRow> rows = job.format.equals("csv") ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, state, report, job.onImported);
+                    job.progress(report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, state, report, job.onImported);
+                job.progress(report);
+            }
+        } catch (IOException | UncheckedIOExceptionWrapper e) {
+            logger.error("Failed to read import file after {} rows", report.getTotalRows(), e);
+            throw new ValidationException("Failed to read import data: " + e.getMessage());
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - started);
+        logger.info("User import job {} finished: {} rows, {} created, {} duplicates, {} invalid, {} failed in {} ms",
+            job.id, report.getTotalRows(), report.getCreated(), report.getDuplicates(), report.getInvalid(),
+            report.getFailed(), report.getDurationMs());
+        return report;
+    }
+
+    private void processChunk(List<ImportRow> chunk, ImportState state, UserImportReport report,
+                              Consumer<List<UserDto>> onImported) {
+        // 1. Validate and drop duplicates within the file
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String problem = validate(row);
+            if (problem != null) {
+                report.addRow(row.line, row.username, RowStatus.INVALID, null, problem);
+            } else if (!state.usernames.add(row.username)) {
+                report.addRow(row.line, row.username, RowStatus.DUPLICATE, null, "Username appears earlier in the file");
+            } else if (!state.emails.add(row.role + ":" + row.email)) {
+                report.addRow(row.line, row.username, RowStatus.DUPLICATE, null, "Email appears earlier in the file");
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        // 2. Drop rows that clash with existing users, one IN query per table
+        Set<String> takenUsernames = userDirectoryRepository.findExistingUsernames(
+            candidates.stream().map(row -> row.username).toList());
+        Map<String, List<ImportRow>> byRole = new LinkedHashMap<>();
+        for (ImportRow row : candidates) {
+            if (takenUsernames.contains(row.username)) {
+                report.addRow(row.line, row.username, RowStatus.DUPLICATE, null, "Username is already taken");
+            } else {
+                byRole.computeIfAbsent(row.role, r -> new ArrayList<>()).add(row);
+            }
+        }
+        for (Map.Entry<String, List<ImportRow>> entry : byRole.entrySet()) {
+            Set<String> takenEmails = userDirectoryRepository.findExistingEmails(
+                entry.getKey(), entry.getValue().stream().map(row -> row.email).toList());
+            entry.getValue().removeIf(row -> {
+                if (takenEmails.contains(row.email)) {
+                    report.addRow(row.line, row.username, RowStatus.DUPLICATE, null, "Email is already registered");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        // 3. Hash passwords in parallel
+        List<ImportRow> toInsert = new ArrayList<>();
+        byRole.values().forEach(toInsert::addAll);
+        hashPasswords(toInsert, report);
+
+        // 4. Batch insert per role and read the generated ids back
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<UserDto> created = new ArrayList<>();
+        for (Map.Entry<String, List<ImportRow>> entry : byRole.entrySet()) {
+            List<ImportRow> rows = entry.getValue().stream().filter(row -> row.encodedPassword != null).toList();
+            if (!rows.isEmpty()) {
+                created.addAll(insertRows(entry.getKey(), rows, createdAt, report));
+            }
+        }
+
+        if (!created.isEmpty()) {
+            onImported.accept(created);
+        }
+        logger.debug("Imported chunk of {} rows, {} created", chunk.size(), created.size());
+    }
+
+    private void hashPasswords(List<ImportRow> rows, UserImportReport report) {
+        List<String> hashes = passwordHashingService.encodeAll(rows.stream().map(row -> row.password).toList());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            row.encodedPassword = hashes.get(i);
+            if (row.encodedPassword == null) {
+                report.addRow(row.line, row.username, RowStatus.FAILED, null, "Failed to hash password");
+            }
+            row.password = null;
+        }
+    }
+
+    private List<UserDto> insertRows(String role, List<ImportRow> rows, LocalDateTime createdAt, UserImportReport report) {
+        List<ImportRow> inserted;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                userImportRepository.insertBatch(role, toNewUsers(rows), createdAt));
+            inserted = rows;
+        } catch (DataIntegrityViolationException e) {
+            // Someone created a clashing user since the duplicate check; retry row by row to isolate it
+            logger.warn("Batch insert of {} {} rows hit a constraint, retrying individually", rows.size(), role);
+            inserted = new ArrayList<>();
+            for (ImportRow row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                        userImportRepository.insertBatch(role, toNewUsers(List.of(row)), createdAt));
+                    inserted.add(row);
+                } catch (DataIntegrityViolationException rowError) {
+                    report.addRow(row.line, row.username, RowStatus.DUPLICATE, null, "Username or email is already registered");
+                }
+            }
+        }
+
+        Map<String, UserDto> createdByUsername = new HashMap<>();
+        for (UserDto user : userDirectoryRepository.findByUsernames(role, inserted.stream().map(row -> row.username).toList())) {
+            createdByUsername.put(user.getUsername(), user);
+        }
+        List<UserDto> created = new ArrayList<>(inserted.size());
+        for (ImportRow row : inserted) {
+            UserDto user = createdByUsername.get(row.username);
+            report.addRow(row.line, row.username, RowStatus.CREATED, user != null ? user.getId() : null, null);
+            if (user != null) {
+                created.add(user);
+            }
+        }
+        return created;
+    }
+
+    private static List<NewUser> toNewUsers(List<ImportRow> rows) {
+        List<NewUser> users = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            users.add(new NewUser(row.username, row.encodedPassword, row.email, row.firstName,
+                row.lastName, row.artistName, row.photoUrl));
+        }
+        return users;
+    }
+
+    private static String validate(ImportRow row) {
+        if (row.parseError != null) {
+            return row.parseError;
+        }
+        if (isBlank(row.username)) {
+            return "Username cannot be null or empty";
+        }
+        if (isBlank(row.password)) {
+            return "Password cannot be null or empty";
+        }
+        if (isBlank(row.email) || !row.email.contains("@")) {
+            return "A valid email is required";
+        }
+        if (isBlank(row.role)) {
+            return "Role cannot be null or empty";
+        }
+        if (!IMPORTABLE_ROLES.contains(row.role)) {
+            return "Bulk import only supports CUSTOMER and ARTIST roles";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String header(String name) {
+        // Accept first_name, firstName, First Name, ...
+        return name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "").replace("-", "");
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() < MAX_RETAINED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+            .map(Job::snapshot)
+            .filter(status -> status.getFinishedAt() != null)
+            .sorted((a, b) -> a.getFinishedAt().compareTo(b.getFinishedAt()))
+            .limit(jobs.size() - MAX_RETAINED_JOBS + 1L)
+            .forEach(status -> jobs.remove(status.getJobId()));
+    }
+
+    // Owner-only permissions where the file system supports POSIX attributes
+    private static FileAttribute<?>[] ownerOnly(String permissions) {
+        if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))};
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete import file {}", file, e);
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String format;
+        private final Path file;
+        private final String requestedBy;
+        private final Consumer<List<UserDto>> onImported;
+        // Context of the submitting request, so the import's audit entry shares its correlation id
+        private final AuditContext auditContext = AuditContext.current();
+        private final UserImportJobStatus status = new UserImportJobStatus();
+
+        private Job(String id, String format, Path file, String requestedBy, Consumer<List<UserDto>> onImported) {
+            this.id = id;
+            this.format = format;
+            this.file = file;
+            this.requestedBy = requestedBy;
+            this.onImported = onImported;
+            status.setJobId(id);
+            status.setFormat(format);
+            status.setRequestedBy(requestedBy);
+            status.setState(State.QUEUED);
+            status.setSubmittedAt(LocalDateTime.now());
+        }
+
+        private synchronized void update(Consumer<UserImportJobStatus> change) {
+            change.accept(status);
+        }
+
+        private void progress(UserImportReport report) {
+            update(status -> {
+                status.setRowsProcessed(report.getTotalRows());
+                status.setCreated(report.getCreated());
+                status.setDuplicates(report.getDuplicates());
+                status.setInvalid(report.getInvalid());
+                status.setFailed(report.getFailed());
+            });
+        }
+
+        private synchronized UserImportJobStatus snapshot() {
+            UserImportJobStatus copy = new UserImportJobStatus();
+            copy.setJobId(status.getJobId());
+            copy.setFormat(status.getFormat());
+            copy.setRequestedBy(status.getRequestedBy());
+            copy.setState(status.getState());
+            copy.setRowsProcessed(status.getRowsProcessed());
+            copy.setCreated(status.getCreated());
+            copy.setDuplicates(status.getDuplicates());
+            copy.setInvalid(status.getInvalid());
+            copy.setFailed(status.getFailed());
+            copy.setSubmittedAt(status.getSubmittedAt());
+            copy.setStartedAt(status.getStartedAt());
+            copy.setFinishedAt(status.getFinishedAt());
+            copy.setError(status.getError());
+            copy.setReport(status.getReport());
+            return copy;
+        }
+    }
+
+    private static final class ImportState {
+        private final Set<String> usernames = new HashSet<>();
+        // Exact emails, as the unique constraints and existsByEmail compare them
+        private final Set<String> emails = new HashSet<>();
+    }
+
+    private static final class ImportRow {
+        private final long line;
+        private String username;
+        private String password;
+        private String email;
+        private String role;
+        private String firstName;
+        private String lastName;
+        private String artistName;
+        private String photoUrl;
+        private String parseError;
+        private String encodedPassword;
+
+        private ImportRow(long line) {
+            this.line = line;
+        }
+
+        static ImportRow of(long line, Map<String, String> fields) {
+            ImportRow row = new ImportRow(line);
+            row.username = trimToNull(fields.get("username"));
+            row.password = fields.get("password");
+            row.email = trimToNull(fields.get("email"));
+            String role = trimToNull(fields.get("role"));
+            row.role = role != null ? UserDirectoryRepository.normalizeRole(role) : null;
+            row.firstName = trimToNull(fields.get("firstname"));
+            row.lastName = trimToNull(fields.get("lastname"));
+            row.artistName = trimToNull(fields.get("artistname"));
+            row.photoUrl = trimToNull(fields.getOrDefault("photourl", fields.get("cover")));
+            return row;
+        }
+
+        static ImportRow invalid(long line, String error) {
+            ImportRow row = new ImportRow(line);
+            row.parseError = error;
+            return row;
+        }
+
+        private static String trimToNull(String value) {
+            return value == null || value.trim().isEmpty() ? null : value.trim();
+        }
+    }
+
+    // Iterator.hasNext cannot throw IOException, so read failures are carried out in this wrapper
+    private static final class UncheckedIOExceptionWrapper extends RuntimeException {
+        private UncheckedIOExceptionWrapper(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    private abstract static class RowReader implements Iterator<ImportRow> {
+        protected final BufferedReader reader;
+        protected long lineNumber = 0;
+        private ImportRow next;
+
+        RowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        protected abstract ImportRow readRow() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = readRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOExceptionWrapper(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public ImportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ImportRow row = next;
+            next = null;
+            return row;
+        }
+    }
+
+    private final class NdjsonRowReader extends RowReader {
+
+        NdjsonRowReader(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected ImportRow readRow() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!node.isObject()) {
+                        return ImportRow.invalid(lineNumber, "Expected a JSON object");
+                    }
+                    Map<String, String> fields = new HashMap<>();
+                    node.fields().forEachRemaining(field -> {
+                        if (!field.getValue().isNull()) {
+                            fields.put(header(field.getKey()), field.getValue().asText());
+                        }
+                    });
+                    return ImportRow.of(lineNumber, fields);
+                } catch (IOException e) {
+                    return ImportRow.invalid(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class CsvRowReader extends RowReader {
+        private List<String> headers;
+
+        CsvRowReader(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected ImportRow readRow() throws IOException {
+            if (headers == null) {
+                List<String> headerRow = readRecord();
+                if (headerRow == null) {
+                    return null;
+                }
+                headers = headerRow.stream().map(UserImportService::header).toList();
+                if (!headers.contains("username")) {
+                    throw new ValidationException("CSV header must include a username column");
+                }
+            }
+
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            long line = lineNumber;
+            if (values.size() != headers.size()) {
+                return ImportRow.invalid(line, "Expected " + headers.size() + " columns but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                fields.put(headers.get(i), values.get(i));
+            }
+            return ImportRow.of(line, fields);
+        }
+
+        // RFC 4180 record: comma separated, double-quoted fields may contain commas, quotes ("") and newlines
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i >= line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // Quoted field continues on the next physical line
+                    String continuation = reader.readLine();
+                    if (continuation == null) {
+                        break;
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    line = continuation;
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            values.add(field.toString());
+            return values;
+        }
+    }
+}
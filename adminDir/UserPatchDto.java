@@ -0,0 +1,52 @@
+package com.music.musicstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Partial update of the fields every user type has. Only fields whose setter was called
+ * (i.e. that were present in the request JSON) are written, so an explicit null clears a
+ * field while an absent one is left alone.
+ */
+public class UserPatchDto {
+
+    private final Set<String> presentFields = new HashSet<>();
+
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String password;
+
+    // Version the client last read; when given, the update fails if someone else changed the user since
+    private Long expectedVersion;
+
+    public UserPatchDto() {}
+
+    @JsonIgnore
+    public boolean isPresent(String field) {
+        return presentFields.contains(field);
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return presentFields.isEmpty();
+    }
+
+    protected void markPresent(String field) {
+        presentFields.add(field);
+    }
+
+    // Getters and setters
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; markPresent("firstName"); }
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; markPresent("lastName"); }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; markPresent("email"); }
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; markPresent("password"); }
+    public Long getExpectedVersion() { return expectedVersion; }
+    public void setExpectedVersion(Long expectedVersion) { this.expectedVersion = expectedVersion; }
+}
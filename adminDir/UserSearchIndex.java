@@ -0,0 +1,500 @@
+package com.music.musicstore.services;
+
+import com.music.musicstore.dto.UserDto;
+import com.music.musicstore.repositories.UserDirectoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over username, email, first/last name and artist name.
+ *
+ * Every indexed user gets a dense int ordinal, and posting lists are sorted int arrays of
+ * ordinals (about 4 bytes per user and trigram), not sets of boxed ids. Queries of three
+ * or more characters first take the users with a field starting with the query from a
+ * sorted map of field values, then intersect trigram postings (smallest list first) for
+ * substring matches. At most max-candidates users are verified per query, so a very
+ * common trigram cannot turn a query into a scan of the whole index; prefix matches are
+ * verified before substring ones, and when the cap is hit the total is a lower bound.
+ *
+ * Queries of one or two characters are too short for trigrams: they take the prefix
+ * matches the same way, then scan the indexed users for substring matches, verifying at
+ * most max-candidates users in total, so the total is a lower bound for them too. Hits are
+ * ranked by field (username first) and match type (exact, prefix, substring), and only the
+ * requested page's top hits are kept in a bounded heap.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    // Field order matches the field weights below
+    private static final int[] FIELD_WEIGHTS = {5, 4, 3, 2, 2}; // username, artistName, email, firstName, lastName
+
+    // Best first: higher score, then username
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+        .thenComparing(hit -> hit.doc().fields[0], Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final UserDirectoryRepository userDirectoryRepository;
+
+    @Value("${app.users.search.rebuild-batch-size:2000}")
+    private int rebuildBatchSize;
+
+    @Value("${app.users.search.max-candidates:20000}")
+    private int maxCandidates;
+
+    private volatile Index current = new Index();
+    private volatile Index building;
+    private final Set<Long> touchedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready = false;
+
+    @Autowired
+    public UserSearchIndex(UserDirectoryRepository userDirectoryRepository) {
+        this.userDirectoryRepository = userDirectoryRepository;
+    }
+
+    /**
+     * Whether the index has been fully built at least once
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add or replace a user in the index
+     */
+    public synchronized void upsert(UserDto user) {
+        if (user == null || user.getId() == null || user.getRole() == null) {
+            return;
+        }
+        long key = keyOf(user.getRole(), user.getId());
+        current.put(key, user);
+        Index next = building;
+        if (next != null) {
+            touchedDuringBuild.add(key);
+            next.put(key, user);
+        }
+    }
+
+    /**
+     * Remove a user from the index
+     */
+    public synchronized void remove(String role, Long userId) {
+        if (role == null || userId == null) {
+            return;
+        }
+        long key = keyOf(role, userId);
+        current.remove(key);
+        Index next = building;
+        if (next != null) {
+            touchedDuringBuild.add(key);
+            next.remove(key);
+        }
+    }
+
+    /**
+     * Ranked substring/prefix search, one page at a time
+     */
+    public Page<UserDto> search(String term, int page, int size) {
+        String query = term.trim().toLowerCase(Locale.ROOT);
+        // Hits needed to fill every page up to the requested one; the heap never holds more
+        int window = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+        TopHits top = new TopHits(window);
+
+        long total = current.collect(query, maxCandidates, top);
+
+        List<Hit> ranked = top.sorted();
+        int from = (int) Math.min((long) page * size, ranked.size());
+        int to = (int) Math.min((long) from + size, ranked.size());
+        List<UserDto> content = ranked.subList(from, to).stream().map(hit -> hit.doc().user).toList();
+        return new PageImpl<>(content, PageRequest.of(page, size), total);
+    }
+
+    /**
+     * Rebuild the whole index from the user directory and swap it in.
+     * Runs at startup and periodically to pick up users created outside UnifiedUserService.
+     */
+    @Scheduled(initialDelayString = "${app.users.search.rebuild-initial-delay-ms:10000}",
+               fixedDelayString = "${app.users.search.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        logger.info("Rebuilding user search index");
+        long started = System.currentTimeMillis();
+        Index next = new Index();
+
+        synchronized (this) {
+            touchedDuringBuild.clear();
+            building = next;
+        }
+
+        try {
+            String afterRole = null;
+            Long afterId = null;
+            long loaded = 0;
+
+            while (true) {
+                List<UserDto> page = userDirectoryRepository.findPageAfter(null, afterRole, afterId, rebuildBatchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                synchronized (this) {
+                    for (UserDto user : page) {
+                        long key = keyOf(user.getRole(), user.getId());
+                        // Live updates made while the rebuild runs are newer than the scanned row
+                        if (!touchedDuringBuild.contains(key)) {
+                            next.put(key, user);
+                        }
+                    }
+                }
+                loaded += page.size();
+
+                UserDto last = page.get(page.size() - 1);
+                afterRole = last.getRole();
+                afterId = last.getId();
+            }
+
+            synchronized (this) {
+                next.trim();
+                current = next;
+                building = null;
+                touchedDuringBuild.clear();
+            }
+            ready = true;
+            logger.info("User search index rebuilt with {} users in {} ms", loaded, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            synchronized (this) {
+                building = null;
+                touchedDuringBuild.clear();
+            }
+            logger.error("Failed to rebuild user search index", e);
+        }
+    }
+
+    private static long keyOf(String role, Long userId) {
+        return userId * UserDirectoryRepository.ROLES.size() + UserDirectoryRepository.roleOrder(role);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    // Three chars packed into one long, so trigram lookups need no substring
+    private static long gram(String value, int start) {
+        return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+    }
+
+    private record Hit(Doc doc, int score) {
+    }
+
+    // Keeps the best `limit` hits seen; the worst kept hit sits at the head of the heap
+    private static final class TopHits {
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+
+        private TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(Math.max(limit, 1), 1024), RANKING.reversed());
+        }
+
+        private void offer(Hit hit) {
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (limit > 0 && RANKING.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        private List<Hit> sorted() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(RANKING);
+            return hits;
+        }
+    }
+
+    private static final class Doc {
+        private final UserDto user;
+        private final String[] fields;
+
+        private Doc(UserDto user) {
+            this.user = user;
+            this.fields = new String[] {
+                normalize(user.getUsername()),
+                normalize(user.getArtistName()),
+                normalize(user.getEmail()),
+                normalize(user.getFirstName()),
+                normalize(user.getLastName())
+            };
+        }
+
+        private int score(String query) {
+            int best = 0;
+            for (int i = 0; i < fields.length; i++) {
+                String field = fields[i];
+                if (field == null) {
+                    continue;
+                }
+                int matchType = field.equals(query) ? 3 : field.startsWith(query) ? 2 : field.contains(query) ? 1 : 0;
+                best = Math.max(best, matchType * FIELD_WEIGHTS[i]);
+            }
+            return best;
+        }
+    }
+
+    // Sorted, duplicate-free ordinals. New users get the highest ordinal so most adds are appends.
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                grow();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            grow();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+
+        private void trim() {
+            if (ids.length > size) {
+                ids = Arrays.copyOf(ids, size);
+            }
+        }
+    }
+
+    // Reads take the read lock, so searches run concurrently; updates take the write lock
+    private static final class Index {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<Long, Postings> trigrams = new HashMap<>();
+        private final TreeMap<String, Postings> values = new TreeMap<>();
+        // Removed users leave a null slot until the next rebuild compacts the ordinals
+        private Doc[] docs = new Doc[1024];
+        private int docCount;
+
+        private void put(long key, UserDto user) {
+            lock.writeLock().lock();
+            try {
+                Integer existing = ordinals.get(key);
+                int ordinal;
+                if (existing != null) {
+                    ordinal = existing;
+                    unindex(ordinal, docs[ordinal]);
+                } else {
+                    ordinal = docCount++;
+                    if (ordinal == docs.length) {
+                        docs = Arrays.copyOf(docs, docs.length * 2);
+                    }
+                    ordinals.put(key, ordinal);
+                }
+                Doc doc = new Doc(user);
+                docs[ordinal] = doc;
+                for (long gram : gramsOf(doc)) {
+                    trigrams.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+                }
+                for (String value : valuesOf(doc)) {
+                    values.computeIfAbsent(value, v -> new Postings()).add(ordinal);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(long key) {
+            lock.writeLock().lock();
+            try {
+                Integer ordinal = ordinals.remove(key);
+                if (ordinal != null) {
+                    unindex(ordinal, docs[ordinal]);
+                    docs[ordinal] = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void unindex(int ordinal, Doc doc) {
+            for (long gram : gramsOf(doc)) {
+                Postings postings = trigrams.get(gram);
+                if (postings != null) {
+                    postings.remove(ordinal);
+                    if (postings.size == 0) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+            for (String value : valuesOf(doc)) {
+                Postings postings = values.get(value);
+                if (postings != null) {
+                    postings.remove(ordinal);
+                    if (postings.size == 0) {
+                        values.remove(value);
+                    }
+                }
+            }
+        }
+
+        // Called once on the freshly built copy, before anyone reads it
+        private void trim() {
+            trigrams.values().forEach(Postings::trim);
+            values.values().forEach(Postings::trim);
+        }
+
+        /**
+         * Offer every match to the heap and return how many matches were found
+         */
+        private long collect(String query, int maxCandidates, TopHits top) {
+            lock.readLock().lock();
+            try {
+                if (query.isEmpty()) {
+                    return 0;
+                }
+
+                // Prefix and exact matches first, so the cap cuts off substring matches before them
+                Set<Integer> seen = new HashSet<>();
+                long matches = 0;
+                prefixes:
+                for (Postings postings : values.subMap(query, true, query + Character.MAX_VALUE, false).values()) {
+                    for (int i = 0; i < postings.size; i++) {
+                        if (seen.size() >= maxCandidates) {
+                            break prefixes;
+                        }
+                        int ordinal = postings.ids[i];
+                        if (seen.add(ordinal)) {
+                            matches += verify(ordinal, query, top);
+                        }
+                    }
+                }
+
+                if (query.length() < 3) {
+                    return matches + scan(query, seen, maxCandidates, top);
+                }
+
+                List<Postings> lists = new ArrayList<>();
+                for (int i = 0; i + 3 <= query.length(); i++) {
+                    Postings postings = trigrams.get(gram(query, i));
+                    if (postings == null) {
+                        return matches;
+                    }
+                    lists.add(postings);
+                }
+                lists.sort(Comparator.comparingInt(postings -> postings.size));
+
+                Postings smallest = lists.get(0);
+                int verified = seen.size();
+                outer:
+                for (int i = 0; i < smallest.size && verified < maxCandidates; i++) {
+                    int ordinal = smallest.ids[i];
+                    if (seen.contains(ordinal)) {
+                        continue;
+                    }
+                    for (int j = 1; j < lists.size(); j++) {
+                        if (!lists.get(j).contains(ordinal)) {
+                            continue outer;
+                        }
+                    }
+                    verified++;
+                    matches += verify(ordinal, query, top);
+                }
+                return matches;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Substring matches for queries too short for trigrams, skipping the prefix matches already verified
+        private long scan(String query, Set<Integer> seen, int maxCandidates, TopHits top) {
+            long matches = 0;
+            int verified = seen.size();
+            for (int ordinal = 0; ordinal < docCount && verified < maxCandidates; ordinal++) {
+                if (docs[ordinal] == null || seen.contains(ordinal)) {
+                    continue;
+                }
+                verified++;
+                matches += verify(ordinal, query, top);
+            }
+            return matches;
+        }
+
+        private int verify(int ordinal, String query, TopHits top) {
+            Doc doc = docs[ordinal];
+            if (doc == null) {
+                return 0;
+            }
+            int score = doc.score(query);
+            if (score == 0) {
+                return 0;
+            }
+            top.offer(new Hit(doc, score));
+            return 1;
+        }
+
+        private static Set<Long> gramsOf(Doc doc) {
+            Set<Long> grams = new HashSet<>();
+            for (String field : doc.fields) {
+                if (field != null) {
+                    for (int i = 0; i + 3 <= field.length(); i++) {
+                        grams.add(gram(field, i));
+                    }
+                }
+            }
+            return grams;
+        }
+
+        private static Set<String> valuesOf(Doc doc) {
+            Set<String> result = new HashSet<>();
+            for (String field : doc.fields) {
+                if (field != null && !field.isEmpty()) {
+                    result.add(field);
+                }
+            }
+            return result;
+        }
+    }
+}
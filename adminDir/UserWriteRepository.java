@@ -0,0 +1,68 @@
+package com.music.musicstore.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Targeted UPDATE statements against the role tables, for writes that should touch
+ * only the affected columns instead of loading and saving whole entities.
+ */
+@Repository
+public class UserWriteRepository {
+
+    // Column names are concatenated into SQL, so only these are accepted
+    private static final Set<String> UPDATABLE_COLUMNS =
+        Set.of("first_name", "last_name", "email", "password", "artist_name", "photo_url");
+    private static final Set<String> ARTIST_ONLY_COLUMNS = Set.of("artist_name", "photo_url");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserWriteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Writes only the given columns of one user row; returns the number of rows updated (0 if the id is unknown)
+    public int updateColumns(String role, Long id, Map<String, Object> columns) {
+        if (columns.isEmpty()) {
+            return 0;
+        }
+        List<String> assignments = new ArrayList<>(columns.size());
+        List<Object> args = new ArrayList<>(columns.size() + 1);
+        for (Map.Entry<String, Object> column : columns.entrySet()) {
+            if (!UPDATABLE_COLUMNS.contains(column.getKey())) {
+                throw new IllegalArgumentException("Column cannot be updated: " + column.getKey());
+            }
+            if (ARTIST_ONLY_COLUMNS.contains(column.getKey()) && !"ARTIST".equals(UserDirectoryRepository.normalizeRole(role))) {
+                throw new IllegalArgumentException("Column only exists for artists: " + column.getKey());
+            }
+            assignments.add(column.getKey() + " = ?");
+            args.add(column.getValue());
+        }
+        args.add(id);
+        String sql = "UPDATE " + UserDirectoryRepository.tableFor(role) + " SET " + String.join(", ", assignments) +
+                     " WHERE id = ?";
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+
+    // Sets enabled for a batch of ids in one statement; rows already in that state are left untouched
+    public int updateEnabled(String role, Collection<Long> ids, boolean enabled) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE " + UserDirectoryRepository.tableFor(role) + " SET enabled = ?" +
+                     " WHERE id IN (" + UserDirectoryRepository.placeholders(ids.size()) + ") AND enabled <> ?";
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(enabled);
+        args.addAll(ids);
+        args.add(enabled);
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+}
@@ -0,0 +1,164 @@
+package com.music.musicstore.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes report rows as an XLSX workbook with one worksheet per section.
+ *
+ * Only the parts Excel and LibreOffice require are written. Cells use inline strings, so
+ * there is no shared string table to build up, and each worksheet is streamed straight into
+ * the zip as its rows are read.
+ */
+public final class XlsxReportWriter {
+
+    private static final int MAX_SHEET_NAME = 31;
+
+    private XlsxReportWriter() {
+    }
+
+    public static void write(List<ReportRows.Row> rows, OutputStream output) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(output);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+
+        List<String> sheetNames = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>();
+        int index = 0;
+        while (index < rows.size()) {
+            String section = rows.get(index).section();
+            sheetNames.add(uniqueSheetName(section, usedNames));
+
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<cols><col min=\"1\" max=\"1\" width=\"48\" customWidth=\"1\"/>"
+                + "<col min=\"2\" max=\"2\" width=\"24\" customWidth=\"1\"/></cols><sheetData>");
+            int rowNumber = 1;
+            writeRow(writer, rowNumber++, "metric", "value", false);
+            while (index < rows.size() && rows.get(index).section().equals(section)) {
+                ReportRows.Row row = rows.get(index++);
+                writeRow(writer, rowNumber++, row.metric(), row.value(), row.numeric());
+            }
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+        }
+        if (sheetNames.isEmpty()) {
+            sheetNames.add("Report");
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData/></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        writeEntry(zip, writer, "[Content_Types].xml", contentTypes(sheetNames.size()));
+        writeEntry(zip, writer, "_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\""
+            + " Target=\"xl/workbook.xml\"/></Relationships>");
+        writeEntry(zip, writer, "xl/workbook.xml", workbook(sheetNames));
+        writeEntry(zip, writer, "xl/_rels/workbook.xml.rels", workbookRelationships(sheetNames.size()));
+        zip.finish();
+    }
+
+    private static void writeRow(Writer writer, int rowNumber, String metric, String value, boolean numeric)
+            throws IOException {
+        writer.write("<row r=\"" + rowNumber + "\">");
+        writer.write("<c r=\"A" + rowNumber + "\" t=\"inlineStr\"><is><t>" + escape(metric) + "</t></is></c>");
+        if (numeric && !value.equals("NaN") && !value.contains("Infinity")) {
+            writer.write("<c r=\"B" + rowNumber + "\"><v>" + value + "</v></c>");
+        } else {
+            writer.write("<c r=\"B" + rowNumber + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">" + escape(value)
+                + "</t></is></c>");
+        }
+        writer.write("</row>");
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Writer writer, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private static String contentTypes(int sheets) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\""
+            + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int i = 1; i <= sheets; i++) {
+            xml.append("<Override PartName=\"/xl/worksheets/sheet").append(i).append(".xml\"")
+                .append(" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return xml.append("</Types>").toString();
+    }
+
+    private static String workbook(List<String> sheetNames) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+            + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        for (int i = 0; i < sheetNames.size(); i++) {
+            xml.append("<sheet name=\"").append(escape(sheetNames.get(i))).append("\" sheetId=\"").append(i + 1)
+                .append("\" r:id=\"rId").append(i + 1).append("\"/>");
+        }
+        return xml.append("</sheets></workbook>").toString();
+    }
+
+    private static String workbookRelationships(int sheets) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheets; i++) {
+            xml.append("<Relationship Id=\"rId").append(i).append("\"")
+                .append(" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"")
+                .append(" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        return xml.append("</Relationships>").toString();
+    }
+
+    // Sheet names are at most 31 characters, cannot contain []:*?/\ and must be unique ignoring case
+    private static String uniqueSheetName(String section, Set<String> usedNames) {
+        String base = section.replaceAll("[\\[\\]:*?/\\\\]", "_");
+        if (base.isBlank()) {
+            base = "Sheet";
+        }
+        base = base.length() > MAX_SHEET_NAME ? base.substring(0, MAX_SHEET_NAME) : base;
+        String name = base;
+        for (int suffix = 2; !usedNames.add(name.toLowerCase()); suffix++) {
+            String tail = " (" + suffix + ")";
+            name = base.substring(0, Math.min(base.length(), MAX_SHEET_NAME - tail.length())) + tail;
+        }
+        return name;
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                default -> {
+                    // Control characters other than tab and newlines are not allowed in XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
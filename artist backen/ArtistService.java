@@ -8,8 +8,9 @@ import com.music.musicstore.exceptions.BusinessRuleException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,13 +21,26 @@ import java.util.Optional;
 public class ArtistService {
     private static final Logger logger = LoggerFactory.getLogger(ArtistService.class);
 
+    private static final String ROLE = "ARTIST";
+
     private final ArtistRepository artistRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserDetailsCache userDetailsCache;
+    private final UserIdentityService userIdentityService;
+    private final RegistrationRollupService registrationRollupService;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public ArtistService(ArtistRepository artistRepository, PasswordEncoder passwordEncoder) {
+    public ArtistService(ArtistRepository artistRepository, PasswordHashingService passwordHashingService,
+                         UserDetailsCache userDetailsCache, UserIdentityService userIdentityService,
+                         RegistrationRollupService registrationRollupService,
+                         PlatformTransactionManager transactionManager) {
         this.artistRepository = artistRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.userDetailsCache = userDetailsCache;
+        this.userIdentityService = userIdentityService;
+        this.registrationRollupService = registrationRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         logger.info("ArtistService initialized successfully");
     }
 
@@ -38,16 +52,17 @@ public class ArtistService {
             throw new ValidationException("Username cannot be null or empty");
         }
 
-        Optional<Artist> artistOpt = artistRepository.findByUserName(username);
-        if (artistOpt.isEmpty()) {
-            // Don't log this as error since CombinedUserDetailsService expects this to fail for non-artist users
-            logger.debug("Artist not found with username: {}", username);
-            throw new UsernameNotFoundException("Artist not found with username: " + username);
-        }
+        return userDetailsCache.get(username, ROLE, () -> {
+            Optional<Artist> artistOpt = artistRepository.findByUserName(username);
+            if (artistOpt.isEmpty()) {
+                // Don't log this as error since CombinedUserDetailsService expects this to fail for non-artist users
+                logger.debug("Artist not found with username: {}", username);
+                throw new UsernameNotFoundException("Artist not found with username: " + username);
+            }
 
-        Artist artist = artistOpt.get();
-        logger.info("Successfully loaded artist: {}", username);
-        return artist;
+            logger.debug("Successfully loaded artist: {}", username);
+            return artistOpt.get();
+        });
     }
 
     public void registerArtist(String name, String rawPassword) {
@@ -69,11 +84,13 @@ public class ArtistService {
                 throw new BusinessRuleException("Artist already exists with name: " + name);
             }
 
-            String encodedPassword = passwordEncoder.encode(rawPassword);
+            String encodedPassword = passwordHashingService.encode(rawPassword);
             Artist artist = new Artist();
             artist.setUserName(name);
             artist.setPassword(encodedPassword);
             Artist savedArtist = artistRepository.save(artist);
+            // Self-signup bypasses UnifiedUserService, so it is counted here
+            registrationRollupService.recordRegistration(ROLE, savedArtist.getCreatedAt());
 
             logger.info("Successfully registered artist: {} (ID: {})", name, savedArtist.getId());
         } catch (Exception e) {
@@ -98,6 +115,7 @@ public class ArtistService {
             }
 
             artistRepository.deleteByUserName(name);
+            userDetailsCache.invalidate(name, ROLE);
             logger.info("Successfully deleted artist: {}", name);
         } catch (Exception e) {
             logger.error("Error deleting artist by name: {}", name, e);
@@ -126,10 +144,19 @@ public class ArtistService {
                     });
 
             if (artist.getPassword() != null && !artist.getPassword().isEmpty()) {
-                artist.setPassword(passwordEncoder.encode(artist.getPassword()));
+                artist.setPassword(passwordHashingService.encode(artist.getPassword()));
             }
 
-            Artist updatedArtist = artistRepository.save(artist);
+            String previousUsername = existingArtist.getUserName();
+            // Any write moves the version, so a stale admin patch is rejected; both commit together
+            Artist updatedArtist = transactionTemplate.execute(status -> {
+                Artist saved = artistRepository.save(artist);
+                userIdentityService.bumpVersion(ROLE, saved.getId(), null);
+                return saved;
+            });
+            // Evict both names in case the username changed
+            userDetailsCache.invalidate(previousUsername, ROLE);
+            userDetailsCache.invalidate(updatedArtist.getUserName(), ROLE);
             logger.info("Successfully updated artist: {} (ID: {})", updatedArtist.getUserName(), updatedArtist.getId());
         } catch (Exception e) {
             logger.error("Error updating artist: {}", artist.getUserName(), e);
@@ -166,7 +193,12 @@ public class ArtistService {
 
             String oldName = artist.getUserName();
             artist.setUserName(newName);
-            artistRepository.save(artist);
+            transactionTemplate.executeWithoutResult(status -> {
+                artistRepository.save(artist);
+                userIdentityService.bumpVersion(ROLE, id, null);
+            });
+            userDetailsCache.invalidate(oldName, ROLE);
+            userDetailsCache.invalidate(newName, ROLE);
 
             logger.info("Successfully updated artist username from '{}' to '{}' (ID: {})", oldName, newName, id);
         } catch (Exception e) {
@@ -256,7 +288,17 @@ public class ArtistService {
         }
 
         try {
-            Artist savedArtist = artistRepository.save(artist);
+            boolean existing = artist.getId() != null;
+            // Row and version commit together, so a failed bump cannot leave a write that
+            // stale patches would still accept
+            Artist savedArtist = transactionTemplate.execute(status -> {
+                Artist saved = artistRepository.save(artist);
+                if (existing) {
+                    userIdentityService.bumpVersion(ROLE, saved.getId(), null);
+                }
+                return saved;
+            });
+            userDetailsCache.invalidate(savedArtist.getUserName(), ROLE);
             logger.info("Successfully saved artist: {}", savedArtist.getUserName());
             return savedArtist;
         } catch (Exception e) {
@@ -313,7 +355,7 @@ public class ArtistService {
                 throw new BusinessRuleException("Username already exists: " + artist.getUserName());
             }
 
-            artist.setPassword(passwordEncoder.encode(artist.getPassword()));
+            artist.setPassword(passwordHashingService.encode(artist.getPassword()));
             Artist savedArtist = artistRepository.save(artist);
 
             logger.info("Successfully created artist: {}", savedArtist.getUserName());
@@ -7,6 +7,7 @@ import com.music.musicstore.exceptions.ResourceNotFoundException;
 import com.music.musicstore.exceptions.ValidationException;
 import com.music.musicstore.exceptions.BusinessRuleException;
 import com.music.musicstore.exceptions.UnauthorizedException;
+import com.music.musicstore.utils.SpaceSaving;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -32,10 +33,15 @@ public class MusicService {
     private static final Logger logger = LoggerFactory.getLogger(MusicService.class);
 
     private final MusicRepository musicRepository;
+    private final SalesFactService salesFactService;
+    private final BestSellerTracker bestSellerTracker;
 
     @Autowired
-    public MusicService(MusicRepository musicRepository) {
+    public MusicService(MusicRepository musicRepository, SalesFactService salesFactService,
+                        BestSellerTracker bestSellerTracker) {
         this.musicRepository = musicRepository;
+        this.salesFactService = salesFactService;
+        this.bestSellerTracker = bestSellerTracker;
         logger.info("MusicService initialized successfully");
     }
 
@@ -390,7 +396,7 @@ public class MusicService {
 
         // Get music performance metrics
         report.put("totalMusicTracks", musicRepository.count());
-        report.put("mostPopularGenres", getMostPopularGenres());
+        report.put("mostPopularGenres", getMostPopularGenres(startDate, endDate));
         report.put("topSellingMusic", getTopSellingMusic(startDate, endDate));
         report.put("newMusicAdded", getNewMusicCount(startDate, endDate));
         report.put("musicByGenreDistribution", getMusicByGenreDistribution());
@@ -402,14 +408,14 @@ public class MusicService {
 
     // Helper methods for music performance analytics
 
-    private List<Map<String, Object>> getMostPopularGenres() {
-        // Implementation to get most popular genres by sales/downloads
-        return List.of(); // Placeholder
+    private List<Map<String, Object>> getMostPopularGenres(LocalDate startDate, LocalDate endDate) {
+        // Genres by net units sold in the date range
+        return salesFactService.getGenreSales(startDate, endDate);
     }
 
     private List<Map<String, Object>> getTopSellingMusic(LocalDate startDate, LocalDate endDate) {
-        // Implementation to get top selling music in date range
-        return List.of(); // Placeholder
+        // Top 10 tracks by net units sold in the date range
+        return toTopSellingEntries(salesFactService.getTopSelling(startDate, endDate, 10));
     }
 
     private long getNewMusicCount(LocalDate startDate, LocalDate endDate) {
@@ -627,16 +633,12 @@ public class MusicService {
 
             Map<String, Object> analytics = new HashMap<>();
             analytics.put("totalTracks", artistMusic.size());
-            analytics.put("totalSales", 0); // Would need order/sales data
-            analytics.put("totalRevenue", 0.0); // Would need order/sales data
+            SalesFactService.SalesTotals sales = salesFactService.getArtistTotals(username);
+            analytics.put("totalSales", sales.netUnits());
+            analytics.put("totalRevenue", sales.netRevenue());
 
-            // Top tracks by rating
-            List<Music> topTracks = artistMusic.stream()
-                .filter(m -> m.getAverageRating() != null)
-                .sorted((m1, m2) -> m2.getAverageRating().compareTo(m1.getAverageRating()))
-                .limit(5)
-                .toList();
-            analytics.put("topTracks", topTracks);
+            // Best sellers of the last week
+            analytics.put("topTracks", getBestSellers(5, BestSellerTracker.Window.WEEK, null, username));
 
             // Genre distribution
             Map<String, Long> genreDistribution = artistMusic.stream()
@@ -801,30 +803,56 @@ public class MusicService {
         }
 
         try {
-            // For now, return top-rated music as we don't have sales data
-            Pageable pageable = PageRequest.of(0, limit);
-            Page<Music> topMusic = musicRepository.findAllByOrderByAverageRatingDesc(pageable);
-
-            return topMusic.getContent().stream()
-                .map(music -> {
-                    Map<String, Object> musicData = new HashMap<>();
-                    musicData.put("id", music.getId());
-                    musicData.put("name", music.getName());
-                    musicData.put("artist", music.getArtistUsername());
-                    musicData.put("genre", music.getGenre());
-                    musicData.put("price", music.getPrice());
-                    musicData.put("averageRating", music.getAverageRating());
-                    musicData.put("totalReviews", music.getTotalReviews());
-                    musicData.put("sales", 0); // Placeholder - would need actual sales data
-                    return musicData;
-                })
-                .toList();
+            return getBestSellers(limit, BestSellerTracker.Window.WEEK, null, null);
         } catch (Exception e) {
             logger.error("Error getting top selling music with limit: {}", limit, e);
             throw new RuntimeException("Failed to get top selling music", e);
         }
     }
 
+    /**
+     * Best sellers over the last hour, day or week, optionally within one genre or one artist.
+     * Served from the in-memory tracker once it has seen the whole window, from the daily sales
+     * facts before that. Both rank by net units and report them as sales, without revenue,
+     * so the answer keeps its meaning when the source switches.
+     */
+    public List<Map<String, Object>> getBestSellers(int limit, BestSellerTracker.Window window, String genre,
+                                                    String artistUsername) {
+        logger.debug("Getting best sellers - limit: {}, window: {}, genre: {}, artist: {}",
+            limit, window, genre, artistUsername);
+
+        if (limit <= 0) {
+            throw new ValidationException("Limit must be positive");
+        }
+        if (genre != null && artistUsername != null) {
+            throw new ValidationException("Filter by genre or by artist, not both");
+        }
+
+        if (bestSellerTracker.isWarm(window)) {
+            List<SpaceSaving.Estimate> estimates = artistUsername != null
+                ? bestSellerTracker.getTopForArtist(artistUsername, window, limit)
+                : genre != null
+                    ? bestSellerTracker.getTopForGenre(genre, window, limit)
+                    : bestSellerTracker.getTop(window, limit);
+            return toTopSellingEntries(estimates.stream()
+                .map(estimate -> new SalesFactService.TopSeller(estimate.key(), estimate.count(), null))
+                .toList());
+        }
+
+        // Facts are daily, so a cold hour or day window reads today and yesterday
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(Math.max(1, window.getDuration().toDays()));
+        List<SalesFactService.TopSeller> sellers = artistUsername != null
+            ? salesFactService.getTopSellingForArtist(artistUsername, startDate, endDate, limit)
+            : genre != null
+                ? salesFactService.getTopSellingForGenre(genre, startDate, endDate, limit)
+                : salesFactService.getTopSelling(startDate, endDate, limit);
+        // The tracker only counts units, so revenue is left out here as well
+        return toTopSellingEntries(sellers.stream()
+            .map(seller -> new SalesFactService.TopSeller(seller.musicId(), seller.netUnits(), null))
+            .toList());
+    }
+
     public Map<String, Long> getMusicCountByGenre() {
         logger.debug("Getting music count by genre");
 
@@ -875,6 +903,7 @@ public class MusicService {
 
             // Get all unique artists and their performance metrics
             List<Object[]> artistStats = musicRepository.getArtistPerformanceStats();
+            Map<String, SalesFactService.SalesTotals> artistSales = salesFactService.getTotalsByArtist();
             List<Map<String, Object>> artistPerformance = new ArrayList<>();
 
             for (Object[] stat : artistStats) {
@@ -888,8 +917,9 @@ public class MusicService {
                 artistData.put("totalTracks", trackCount);
                 artistData.put("averageRating", avgRating != null ? avgRating : 0.0);
                 artistData.put("totalReviews", totalReviews != null ? totalReviews : 0);
-                artistData.put("totalSales", 0); // Placeholder - would need actual sales data
-                artistData.put("totalRevenue", 0.0); // Placeholder - would need actual sales data
+                SalesFactService.SalesTotals sales = artistSales.get(artistUsername);
+                artistData.put("totalSales", sales != null ? sales.netUnits() : 0L);
+                artistData.put("totalRevenue", sales != null ? sales.netRevenue() : BigDecimal.ZERO);
 
                 artistPerformance.add(artistData);
             }
@@ -909,4 +939,33 @@ public class MusicService {
             throw new RuntimeException("Failed to get artist performance analytics", e);
         }
     }
+
+    // Best-seller rows in rank order, with the track details the analytics views show
+    private List<Map<String, Object>> toTopSellingEntries(List<SalesFactService.TopSeller> sellers) {
+        Map<Long, Music> tracks = new HashMap<>();
+        musicRepository.findAllById(sellers.stream().map(SalesFactService.TopSeller::musicId).toList())
+            .forEach(music -> tracks.put(music.getId(), music));
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (SalesFactService.TopSeller seller : sellers) {
+            Music music = tracks.get(seller.musicId());
+            if (music == null) {
+                continue;
+            }
+            Map<String, Object> musicData = new HashMap<>();
+            musicData.put("id", music.getId());
+            musicData.put("name", music.getName());
+            musicData.put("artist", music.getArtistUsername());
+            musicData.put("genre", music.getGenre());
+            musicData.put("price", music.getPrice());
+            musicData.put("averageRating", music.getAverageRating() != null ? music.getAverageRating() : 0.0);
+            musicData.put("totalReviews", music.getTotalReviews());
+            musicData.put("sales", seller.netUnits());
+            if (seller.netRevenue() != null) {
+                musicData.put("revenue", seller.netRevenue());
+            }
+            entries.add(musicData);
+        }
+        return entries;
+    }
 }
@@ -51,15 +51,17 @@ export interface StaffUser {
   position?: string;
 }
 
+// A metric that failed or timed out is null and named in unavailableMetrics
 export interface SystemOverview {
-  totalUsers: number;
-  totalMusic: number;
-  totalOrders: number;
-  totalRevenue: number;
-  flaggedMusic: number;
-  activeTickets: number;
-  todayOrders: number;
-  todayRevenue: number;
+  totalUsers: number | null;
+  totalMusic: number | null;
+  totalOrders: number | null;
+  totalRevenue: number | null;
+  flaggedMusic: number | null;
+  activeTickets: number | null;
+  todayOrders: number | null;
+  todayRevenue: number | null;
+  unavailableMetrics?: string[];
 }
 
 export interface FlaggedMusic {
@@ -58,14 +58,16 @@ const AdminDashboard = () => {
     }
   };
 
-  const formatCurrency = (amount: number) => {
+  const formatCurrency = (amount: number | null) => {
+    if (amount === null) return '—';
     return new Intl.NumberFormat('en-US', {
       style: 'currency',
       currency: 'USD'
     }).format(amount);
   };
 
-  const formatNumber = (num: number) => {
+  const formatNumber = (num: number | null) => {
+    if (num === null) return '—';
     return new Intl.NumberFormat('en-US').format(num);
   };
 
@@ -177,7 +179,7 @@ const AdminDashboard = () => {
                     <p className="text-default-600 text-sm">Flagged Content</p>
                     <p className="text-xl font-semibold">{formatNumber(overview.flaggedMusic)}</p>
                   </div>
-                  <FiFlag className={`text-xl ${overview.flaggedMusic > 0 ? 'text-danger' : 'text-default-400'}`} />
+                  <FiFlag className={`text-xl ${(overview.flaggedMusic ?? 0) > 0 ? 'text-danger' : 'text-default-400'}`} />
                 </div>
               </CardBody>
             </Card>
@@ -189,7 +191,7 @@ const AdminDashboard = () => {
                     <p className="text-default-600 text-sm">Active Tickets</p>
                     <p className="text-xl font-semibold">{formatNumber(overview.activeTickets)}</p>
                   </div>
-                  <FiMessageSquare className={`text-xl ${overview.activeTickets > 0 ? 'text-warning' : 'text-default-400'}`} />
+                  <FiMessageSquare className={`text-xl ${(overview.activeTickets ?? 0) > 0 ? 'text-warning' : 'text-default-400'}`} />
                 </div>
               </CardBody>
             </Card>
@@ -197,7 +199,7 @@ const AdminDashboard = () => {
 
           {/* Quick Actions */}
           <div className="mt-6 flex flex-wrap gap-3">
-            {overview.flaggedMusic > 0 && (
+            {(overview.flaggedMusic ?? 0) > 0 && (
               <Button
                 color="danger"
                 variant="flat"
@@ -207,7 +209,7 @@ const AdminDashboard = () => {
                 Review {overview.flaggedMusic} Flagged Items
               </Button>
             )}
-            {overview.activeTickets > 0 && (
+            {(overview.activeTickets ?? 0) > 0 && (
               <Button
                 color="warning"
                 variant="flat"
@@ -274,7 +276,7 @@ const AdminDashboard = () => {
                 <div className="flex items-center space-x-2">
                   <FiFlag />
                   <span>Content Moderation</span>
-                  {overview && overview.flaggedMusic > 0 && (
+                  {overview && (overview.flaggedMusic ?? 0) > 0 && (
                     <Chip size="sm" color="danger" variant="flat">
                       {overview.flaggedMusic}
                     </Chip>
@@ -315,7 +317,7 @@ const AdminDashboard = () => {
                 <div className="flex items-center space-x-2">
                   <FiMessageSquare />
                   <span>Ticket Management</span>
-                  {overview && overview.activeTickets > 0 && (
+                  {overview && (overview.activeTickets ?? 0) > 0 && (
                     <Chip size="sm" color="warning" variant="flat">
                       {overview.activeTickets}
                     </Chip>